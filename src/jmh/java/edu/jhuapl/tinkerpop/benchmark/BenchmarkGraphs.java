@@ -0,0 +1,105 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+import org.apache.accumulo.minicluster.MiniAccumuloCluster;
+import org.apache.accumulo.minicluster.MiniAccumuloConfig;
+
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.InstanceType;
+import edu.jhuapl.tinkerpop.AccumuloGraphException;
+
+/**
+ * Creates graph configurations for benchmarks, against
+ * either a mock instance or a local mini cluster.
+ * <P>
+ * The mini cluster is started on first use, once
+ * per benchmark JVM, and stopped when the JVM exits.
+ */
+public final class BenchmarkGraphs {
+
+  /**
+   * Instance name for the mock instance.
+   */
+  public static final String MOCK = "Mock";
+
+  /**
+   * Instance name for the mini cluster.
+   */
+  public static final String MINI = "Mini";
+
+  private static final String PASSWORD = "benchmark";
+
+  private static MiniAccumuloCluster cluster;
+
+  private BenchmarkGraphs() { }
+
+  /**
+   * Create a configuration for a new, empty graph.
+   * @param instance {@link #MOCK} or {@link #MINI}
+   * @param name Prefix of the graph's name
+   * @return
+   */
+  public static AccumuloGraphConfiguration newConfig(String instance, String name) {
+    AccumuloGraphConfiguration cfg = new AccumuloGraphConfiguration();
+    if (MOCK.equals(instance)) {
+      cfg.setInstanceType(InstanceType.Mock);
+    } else if (MINI.equals(instance)) {
+      MiniAccumuloCluster mini = getCluster();
+      cfg.setInstanceType(InstanceType.Distributed)
+          .setInstanceName(mini.getInstanceName())
+          .setZooKeeperHosts(mini.getZooKeepers())
+          .setUser("root").setPassword(PASSWORD);
+    } else {
+      throw new IllegalArgumentException("Unknown instance: " + instance);
+    }
+    return cfg.setGraphName(name + "_" + UUID.randomUUID().toString()
+        .replace("-", "")).setCreate(true);
+  }
+
+  private static synchronized MiniAccumuloCluster getCluster() {
+    if (cluster == null) {
+      try {
+        File dir = File.createTempFile("accumulo-graph-bench", "");
+        dir.delete();
+        dir.mkdirs();
+
+        final MiniAccumuloCluster mini = new MiniAccumuloCluster(
+            new MiniAccumuloConfig(dir, PASSWORD));
+        mini.start();
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+          @Override
+          public void run() {
+            try {
+              mini.stop();
+            } catch (IOException e) {
+              // Best effort.
+            } catch (InterruptedException e) {
+              // Best effort.
+            }
+          }
+        });
+        cluster = mini;
+      } catch (Exception e) {
+        throw new AccumuloGraphException(e);
+      }
+    }
+    return cluster;
+  }
+}
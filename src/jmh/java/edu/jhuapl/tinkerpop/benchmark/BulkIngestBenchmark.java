@@ -0,0 +1,71 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.jhuapl.tinkerpop.AccumuloBulkIngester;
+
+/**
+ * Throughput of the bulk ingester, adding a vertex
+ * with two properties and an edge per operation.
+ * Shutting down the ingester, which also builds
+ * key indexes, is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkIngestBenchmark {
+
+  @Param({BenchmarkGraphs.MOCK, BenchmarkGraphs.MINI})
+  public String instance;
+
+  private AccumuloBulkIngester ingester;
+  private long next;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    ingester = new AccumuloBulkIngester(BenchmarkGraphs.newConfig(instance, "ingest"));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    ingester.shutdown(false);
+  }
+
+  @Benchmark
+  public void ingest() throws Exception {
+    String id = Long.toString(next++);
+    ingester.addVertex(id).add("name", id).add("count", next).finish();
+    ingester.addEdge(id, "hub", "label").finish();
+  }
+}
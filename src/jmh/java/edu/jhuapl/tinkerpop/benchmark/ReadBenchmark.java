@@ -0,0 +1,165 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.AccumuloGraph;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
+import edu.jhuapl.tinkerpop.AccumuloVertex;
+
+/**
+ * Latency of the main read paths. Each benchmark reads the
+ * same graph through either a graph without caching (cold)
+ * or one with warmed vertex and property caches (warm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadBenchmark {
+
+  private static final int VERTICES = 1000;
+  private static final int LOW_DEGREE = 5;
+
+  @Param({BenchmarkGraphs.MOCK, BenchmarkGraphs.MINI})
+  public String instance;
+
+  private AccumuloGraph cold;
+  private AccumuloGraph warm;
+  private Vertex coldVertex;
+  private Vertex warmVertex;
+  private Vertex low;
+  private Vertex high;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    AccumuloGraphConfiguration cfg = BenchmarkGraphs.newConfig(instance, "read");
+
+    AccumuloGraph loader = new AccumuloGraph(cfg.clone().setAutoFlush(false));
+    loader.createKeyIndex("name", Vertex.class);
+    Vertex hub = loader.addVertex("high");
+    Vertex leaf = loader.addVertex("low");
+    for (int i = 0; i < VERTICES; i++) {
+      Vertex v = loader.addVertex(id(i),
+          Collections.<String, Object>singletonMap("name", name(i)));
+      loader.addEdge(null, hub, v, "link");
+      if (i < LOW_DEGREE) {
+        loader.addEdge(null, leaf, v, "link");
+      }
+    }
+    loader.shutdown();
+
+    cold = new AccumuloGraph(cfg.clone().setCreate(false));
+    warm = new AccumuloGraph(cfg.clone().setCreate(false)
+        .setVertexCacheParams(VERTICES * 2, Integer.MAX_VALUE)
+        .setPropertyCacheTimeout(null, Integer.MAX_VALUE));
+    for (int i = 0; i < VERTICES; i++) {
+      warm.getVertex(id(i));
+    }
+
+    coldVertex = cold.getVertex(id(0));
+    warmVertex = warm.getVertex(id(0));
+    warmVertex.getProperty("name");
+    low = cold.getVertex("low");
+    high = cold.getVertex("high");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cold.shutdown();
+    warm.shutdown();
+  }
+
+  @Benchmark
+  public Vertex getVertexCold() {
+    return cold.getVertex(id(nextIndex()));
+  }
+
+  @Benchmark
+  public Vertex getVertexWarm() {
+    return warm.getVertex(id(nextIndex()));
+  }
+
+  @Benchmark
+  public Object getPropertyHit() {
+    return warmVertex.getProperty("name");
+  }
+
+  @Benchmark
+  public Object getPropertyMiss() {
+    return coldVertex.getProperty("name");
+  }
+
+  @Benchmark
+  public void getEdgesLowDegree(Blackhole bh) {
+    for (Edge edge : low.getEdges(Direction.OUT)) {
+      bh.consume(edge);
+    }
+  }
+
+  @Benchmark
+  public void getEdgesHighDegree(Blackhole bh) {
+    for (Edge edge : high.getEdges(Direction.OUT)) {
+      bh.consume(edge);
+    }
+  }
+
+  @Benchmark
+  public long getDegreeHighDegree() {
+    return ((AccumuloVertex) high).getDegree(Direction.OUT);
+  }
+
+  @Benchmark
+  public Vertex keyIndexLookup() {
+    return cold.getVertices("name", name(nextIndex())).iterator().next();
+  }
+
+  private int nextIndex() {
+    next = (next + 1) % VERTICES;
+    return next;
+  }
+
+  private static String id(int i) {
+    return "v" + i;
+  }
+
+  private static String name(int i) {
+    return "name" + i;
+  }
+}
@@ -0,0 +1,90 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.ValueEncoding;
+
+/**
+ * Cost of serializing and deserializing
+ * property values of common types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+  @Param({"Text", "Binary"})
+  public ValueEncoding encoding;
+
+  @Param({"String", "Integer", "Long", "Double", "Date"})
+  public String type;
+
+  private Object value;
+  private byte[] serialized;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    if ("String".equals(type)) {
+      value = "some property value";
+    } else if ("Integer".equals(type)) {
+      value = 123456;
+    } else if ("Long".equals(type)) {
+      value = 1234567890123L;
+    } else if ("Double".equals(type)) {
+      value = 12345.6789;
+    } else if ("Date".equals(type)) {
+      value = new Date(1234567890123L);
+    } else {
+      throw new IllegalArgumentException("Unknown type: " + type);
+    }
+    serialized = AccumuloByteSerializer.serialize(value, encoding);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return AccumuloByteSerializer.serialize(value, encoding);
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return AccumuloByteSerializer.deserialize(serialized);
+  }
+
+  @Benchmark
+  public Object roundTrip() {
+    return AccumuloByteSerializer.deserialize(
+        AccumuloByteSerializer.serialize(value, encoding));
+  }
+}
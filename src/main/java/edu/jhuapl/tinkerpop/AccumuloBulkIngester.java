@@ -15,7 +15,12 @@
 package edu.jhuapl.tinkerpop;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
@@ -28,10 +33,9 @@ import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.admin.TableOperations;
 import org.apache.accumulo.core.data.Mutation;
 
-import com.tinkerpop.blueprints.Edge;
-import com.tinkerpop.blueprints.GraphFactory;
-import com.tinkerpop.blueprints.Vertex;
+import com.google.common.collect.Iterables;
 
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.ValueEncoding;
 import edu.jhuapl.tinkerpop.mutator.Mutators;
 import edu.jhuapl.tinkerpop.mutator.edge.EdgeEndpointsMutator;
 import edu.jhuapl.tinkerpop.mutator.edge.EdgeMutator;
@@ -78,6 +82,17 @@ public final class AccumuloBulkIngester {
    */
   BatchWriter edgeWriter;
 
+  /**
+   * Builders of added elements that were not finished yet.
+   */
+  final Set<PropertyBuilder> unfinished =
+      Collections.newSetFromMap(new ConcurrentHashMap<PropertyBuilder, Boolean>());
+
+  /**
+   * Whether {@link #shutdown(boolean)} was called.
+   */
+  volatile boolean closed;
+
   /**
    * Create an ingester using the given configuration parameters.
    * 
@@ -96,9 +111,16 @@ public final class AccumuloBulkIngester {
 
     AccumuloGraphUtils.handleCreateAndClear(config);
 
-    mtbw = connector.createMultiTableBatchWriter(config.getBatchWriterConfig());
-    vertexWriter = mtbw.getBatchWriter(config.getVertexTableName());
-    edgeWriter = mtbw.getBatchWriter(config.getEdgeTableName());
+    if (config.getBulkImportDir() != null) {
+      // Write files for bulk import instead.
+      long timestamp = System.currentTimeMillis();
+      vertexWriter = RFileBatchWriter.create(config, config.getVertexTableName(), timestamp);
+      edgeWriter = RFileBatchWriter.create(config, config.getEdgeTableName(), timestamp);
+    } else {
+      mtbw = connector.createMultiTableBatchWriter(config.getBatchWriterConfig());
+      vertexWriter = mtbw.getBatchWriter(config.getVertexTableName());
+      edgeWriter = mtbw.getBatchWriter(config.getEdgeTableName());
+    }
   }
 
   /**
@@ -114,8 +136,9 @@ public final class AccumuloBulkIngester {
    * @throws MutationsRejectedException
    */
   public PropertyBuilder addVertex(String id) throws MutationsRejectedException {
-    Mutators.apply(vertexWriter, new AddVertexMutator(id));
-    return new PropertyBuilder(vertexWriter, id);
+    return new PropertyBuilder(vertexWriter,
+        Iterables.getOnlyElement(new AddVertexMutator(id).create()),
+        config.getValueEncoding(), unfinished);
   }
 
   /**
@@ -161,7 +184,7 @@ public final class AccumuloBulkIngester {
    * times as using the PropertyBuilder will result in fewer object creates.
    * <P>
    * No checks are performed to see if the given source and destination IDs exist as vertices or if the given edge ID already exists. This method simply creates
-   * the edge (possibly again) in the backing data store.
+   * the edge (possibly again) in the backing data store. With degree counters enabled, an edge created again is counted again.
    * 
    * @param id
    * @param src
@@ -171,9 +194,13 @@ public final class AccumuloBulkIngester {
    * @throws MutationsRejectedException
    */
   public PropertyBuilder addEdge(String id, String src, String dest, String label) throws MutationsRejectedException {
-    Mutators.apply(edgeWriter, new EdgeMutator.Add(id, src, dest, label));
-    Mutators.apply(vertexWriter, new EdgeEndpointsMutator.Add(id, src, dest, label));
-    return new PropertyBuilder(edgeWriter, id);
+    Mutators.apply(vertexWriter, new EdgeEndpointsMutator.Add(id, src, dest, label,
+        config.getAdjacencyLayout(), config.getKeyEncoding(),
+        config.getDegreeCounters()));
+    return new PropertyBuilder(edgeWriter,
+        Iterables.getOnlyElement(new EdgeMutator.Add(id, src, dest, label,
+            config.getKeyEncoding()).create()),
+        config.getValueEncoding(), unfinished);
   }
 
   /**
@@ -205,7 +232,8 @@ public final class AccumuloBulkIngester {
    * @throws MutationsRejectedException
    */
   private void addProperty(BatchWriter writer, String id, String key, Object value) throws MutationsRejectedException {
-    Mutators.apply(writer, new WritePropertyMutator(id, key, value));
+    Mutators.apply(writer, new WritePropertyMutator(id, key, value,
+        config.getValueEncoding()));
   }
 
   /**
@@ -219,31 +247,50 @@ public final class AccumuloBulkIngester {
    * @throws TableNotFoundException
    * @throws AccumuloSecurityException
    */
-  public void shutdown(boolean compact) throws AccumuloSecurityException,
+  public synchronized void shutdown(boolean compact) throws AccumuloSecurityException,
     TableNotFoundException, AccumuloException {
 	// Make sure this wasn't closed already.
-    if (mtbw == null) {
+    if (closed) {
       throw new RuntimeException("Ingester was already closed");
     }
+    closed = true;
 
-    mtbw.close();
-    mtbw = null;
+    // Write elements whose builders were not finished.
+    for (PropertyBuilder builder : new ArrayList<PropertyBuilder>(unfinished)) {
+      builder.finish();
+    }
+    if (mtbw != null) {
+      mtbw.close();
+      mtbw = null;
+    } else {
+      ((RFileBatchWriter) vertexWriter).importInto(connector, config.getVertexTableName());
+      ((RFileBatchWriter) edgeWriter).importInto(connector, config.getEdgeTableName());
+    }
+
+    finishIngest(config, connector, compact);
+  }
 
+  /**
+   * Finalize a graph after its elements were written
+   * directly to the backing tables, rebuilding key indexes
+   * and optionally compacting the tables.
+   * @param config
+   * @param connector
+   * @param compact
+   * @throws AccumuloSecurityException
+   * @throws TableNotFoundException
+   * @throws AccumuloException
+   */
+  static void finishIngest(AccumuloGraphConfiguration config,
+      Connector connector, boolean compact)
+      throws AccumuloSecurityException, TableNotFoundException, AccumuloException {
     // Disable the "create" and "clear" options so we don't blow away
     // everything we just added.
     AccumuloGraphConfiguration copy = new AccumuloGraphConfiguration(config);
     copy.setCreate(false).setClear(false);
 
-    AccumuloGraph g = (AccumuloGraph) GraphFactory.open(copy.getConfiguration());
-    for (String key : g.getIndexedKeys(Vertex.class)) {
-      g.dropKeyIndex(key, Vertex.class);
-      g.createKeyIndex(key, Vertex.class);
-    }
-
-    for (String key : g.getIndexedKeys(Edge.class)) {
-      g.dropKeyIndex(key, Edge.class);
-      g.createKeyIndex(key, Edge.class);
-    }
+    AccumuloGraph g = new AccumuloGraph(copy);
+    new KeyIndexBuilder(g).build();
     g.shutdown();
 
     // TODO ... other house cleaning/verification?
@@ -258,7 +305,11 @@ public final class AccumuloBulkIngester {
 
   /**
    * A class used to add multiple properties to vertices and edges. This class encapsulates adding multiple properties to a single edge or vertex in a batch in
-   * an effort to reduce object creates as part of the persistence operation. Calls to {@link #add(String, Object)} may be chained together.
+   * an effort to reduce object creates as part of the persistence operation. The element and all of its properties are written as a single
+   * mutation. Calls to {@link #add(String, Object)} may be chained together.
+   * Builders that are not finished are written when the ingester is shut
+   * down; properties added after {@link #finish()} are written right away.
+   * A builder may be shared between threads.
    * <P>
    * The general use of this object is as follows:
    * 
@@ -273,38 +324,50 @@ public final class AccumuloBulkIngester {
 
     final String id;
     final BatchWriter writer;
+    final ValueEncoding encoding;
+    final Set<PropertyBuilder> unfinished;
+    Mutation mutation;
 
-    PropertyBuilder(BatchWriter writer, String id) {
+    PropertyBuilder(BatchWriter writer, Mutation mutation, ValueEncoding encoding,
+        Set<PropertyBuilder> unfinished) {
       this.writer = writer;
-      this.id = id;
+      this.id = new String(mutation.getRow(), StandardCharsets.UTF_8);
+      this.mutation = mutation;
+      this.encoding = encoding;
+      this.unfinished = unfinished;
+      unfinished.add(this);
     }
 
     /**
      * Add the given property with the given value to the edge or vertex associated with this build. You must call {@link #finish()} when all of the properties
      * have been added in order for these updates to be persisted in Accumulo.
+     * If this builder was already finished, the property is written right away.
      * 
      * @param key
      * @param value
      * @return
      */
-    public PropertyBuilder add(String key, Object value) {
-      for (Mutation m : new WritePropertyMutator(id, key, value).create()) {
-        try {
-          writer.addMutation(m);
-        } catch (MutationsRejectedException e) {
-          throw new AccumuloGraphException(e);
-        }
+    public synchronized PropertyBuilder add(String key, Object value) {
+      if (mutation == null) {
+        Mutators.apply(writer, new WritePropertyMutator(id, key, value, encoding));
+      } else {
+        WritePropertyMutator.put(mutation, key, value, encoding);
       }
       return this;
     }
 
     /**
-     * Called to write all properties added to this builder out to Accumulo.
+     * Called to write all properties added to this builder out to Accumulo. If not called, they are written
+     * when the ingester is shut down, and held in memory until then.
      * 
      * @throws MutationsRejectedException
      */
-    public void finish() throws MutationsRejectedException {
-      // No-op since Mutations are now added on the fly.
+    public synchronized void finish() throws MutationsRejectedException {
+      if (mutation != null && mutation.size() > 0) {
+        writer.addMutation(mutation);
+      }
+      mutation = null;
+      unfinished.remove(this);
     }
 
     /**
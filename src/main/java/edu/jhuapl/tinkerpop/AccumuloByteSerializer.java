@@ -20,10 +20,25 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Date;
 
 import javax.xml.namespace.QName;
 
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.ValueEncoding;
+
+/**
+ * Serializes property values to and from bytes, tagging each
+ * value with its type so it can be restored on read.
+ * <p/>Two encodings are supported (see {@link ValueEncoding}).
+ * The original text encoding writes values as their string form.
+ * The binary encoding is prefixed with a version byte and writes
+ * numbers, dates and characters as fixed-width big-endian values,
+ * ordered so that unsigned byte order matches value order for values
+ * of the same type. This makes range scans over index tables possible.
+ * {@link #deserialize(byte[])} reads either encoding.
+ */
 public final class AccumuloByteSerializer {
 
   public static final int NULL = 'n';
@@ -42,6 +57,14 @@ public final class AccumuloByteSerializer {
   public static final int SERIALIZABLE = 'x';
   public static final int QNAME = 'q';
 
+  /**
+   * Leading byte of values in version 1 of the binary encoding.
+   * This is distinct from all text-encoding type tags.
+   */
+  public static final int BINARY_V1 = 0x01;
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
   private AccumuloByteSerializer() {
 
   }
@@ -53,8 +76,57 @@ public final class AccumuloByteSerializer {
     }
   };
 
+  /**
+   * Return the type tag of the given serialized value,
+   * regardless of its encoding.
+   * @param target
+   * @return
+   */
+  public static int getType(byte[] target) {
+    return target[0] == BINARY_V1 ? target[1] : target[0];
+  }
+
+  /**
+   * Return the leading bytes of the given serialized value
+   * that identify its encoding and type. All values of the same
+   * type and encoding share this prefix.
+   * @param target
+   * @return
+   */
+  public static byte[] getTypePrefix(byte[] target) {
+    return Arrays.copyOf(target, target[0] == BINARY_V1 ? 2 : 1);
+  }
+
+  /**
+   * Whether the byte order of serialized values of the given value's
+   * type matches the natural order of those values, when written
+   * with the given encoding.
+   * Only strings are ordered with the text encoding; numbers,
+   * characters, booleans and dates are also ordered with the
+   * binary encoding.
+   * @param value
+   * @param encoding
+   * @return
+   */
+  public static boolean isOrderPreserving(Object value, ValueEncoding encoding) {
+    if (value instanceof String) {
+      return true;
+    } else if (ValueEncoding.Binary.equals(encoding)) {
+      return value instanceof Byte || value instanceof Short ||
+          value instanceof Integer || value instanceof Long ||
+          value instanceof Float || value instanceof Double ||
+          value instanceof Character || value instanceof Boolean ||
+          Date.class.equals(value.getClass());
+    }
+    return false;
+  }
+
   @SuppressWarnings("unchecked")
   public static <T> T deserialize(byte[] target) {
+    if (target[0] == BINARY_V1) {
+      return (T) deserializeBinary(target);
+    }
+
     if (target[0] == NULL) {
       return null;
     }
@@ -91,24 +163,10 @@ public final class AccumuloByteSerializer {
       case QNAME:
         return (T) QName.valueOf(new String(target, 1, target.length - 1));
       case ENUM:
-        try {
-          String[] s = new String(target, 1, target.length - 1).split(":");
-          @SuppressWarnings("rawtypes")
-          Class<? extends Enum> clz = (Class<? extends Enum>) Class.forName(s[0]);
-          return (T) Enum.valueOf(clz, s[1]);
-        } catch (ClassNotFoundException cnfe) {
-          throw new RuntimeException("Unexpected error deserializing object.", cnfe);
-        }
+        String[] s = new String(target, 1, target.length - 1).split(":");
+        return (T) toEnum(s[0], s[1]);
       case SERIALIZABLE:
-        try {
-          ByteArrayInputStream bin = new ByteArrayInputStream(target, 1, target.length);
-          ObjectInputStream ois = new ObjectInputStream(bin);
-          return (T) ois.readObject();
-        } catch (IOException io) {
-          throw new RuntimeException("Unexpected error deserializing object.", io);
-        } catch (ClassNotFoundException cnfe) {
-          throw new RuntimeException("Unexpected error deserializing object.", cnfe);
-        }
+        return (T) readSerializable(target, 1);
       case NULL:
     	return null;
       default:
@@ -116,7 +174,66 @@ public final class AccumuloByteSerializer {
     }
   }
 
+  /**
+   * Decode a value written with the binary encoding.
+   * @param target
+   * @return
+   */
+  private static Object deserializeBinary(byte[] target) {
+    final int off = 2;
+    switch (target[1]) {
+      case NULL:
+        return null;
+      case BYTE:
+        return (byte) (target[off] ^ 0x80);
+      case SHORT:
+        return (short) (readUnsigned(target, off, 2) ^ 0x8000);
+      case CHARACTER:
+        return (char) readUnsigned(target, off, 2);
+      case INTEGER:
+        return (int) readUnsigned(target, off, 4) ^ Integer.MIN_VALUE;
+      case LONG:
+        return readUnsigned(target, off, 8) ^ Long.MIN_VALUE;
+      case FLOAT:
+        int ibits = (int) readUnsigned(target, off, 4);
+        return Float.intBitsToFloat(ibits < 0 ? ibits ^ Integer.MIN_VALUE : ~ibits);
+      case DOUBLE:
+        long lbits = readUnsigned(target, off, 8);
+        return Double.longBitsToDouble(lbits < 0 ? lbits ^ Long.MIN_VALUE : ~lbits);
+      case BOOLEAN:
+        return target[off] != 0;
+      case DATE:
+        return new Date(readUnsigned(target, off, 8) ^ Long.MIN_VALUE);
+      case STRING:
+        return new String(target, off, target.length - off, UTF8);
+      case QNAME:
+        return QName.valueOf(new String(target, off, target.length - off, UTF8));
+      case ENUM:
+        int len = (int) readUnsigned(target, off, 4);
+        return toEnum(new String(target, off + 4, len, UTF8),
+            new String(target, off + 4 + len, target.length - off - 4 - len, UTF8));
+      case SERIALIZABLE:
+        return readSerializable(target, off);
+      default:
+        throw new RuntimeException("Unexpected data type: " + (char) target[1]);
+    }
+  }
+
   public static byte[] serialize(Object o) {
+    return serialize(o, ValueEncoding.Text);
+  }
+
+  /**
+   * Serialize the given value using the given encoding.
+   * @param o
+   * @param encoding
+   * @return
+   */
+  public static byte[] serialize(Object o, ValueEncoding encoding) {
+    if (ValueEncoding.Binary.equals(encoding)) {
+      return serializeBinary(o);
+    }
+
     ByteArrayOutputStream bout = BOUTS.get();
 
     try {
@@ -174,9 +291,7 @@ public final class AccumuloByteSerializer {
             val = o.getClass().getName() + ":" + val;
           } else if (o instanceof Serializable) {
             bout.write(SERIALIZABLE);
-            ObjectOutputStream oos = new ObjectOutputStream(bout);
-            oos.writeObject(o);
-            oos.close();
+            writeSerializable(bout, o);
             return bout.toByteArray();
           } else {
             throw new RuntimeException("Unsupported data type: " + o.getClass());
@@ -192,4 +307,131 @@ public final class AccumuloByteSerializer {
       bout.reset();
     }
   }
+
+  /**
+   * Encode a value with the binary encoding.
+   * @param o
+   * @return
+   */
+  private static byte[] serializeBinary(Object o) {
+    if (o == null) {
+      return new byte[] {BINARY_V1, NULL};
+    }
+
+    String cls = o.getClass().getSimpleName();
+    switch (cls) {
+      case "Byte":
+        return new byte[] {BINARY_V1, BYTE, (byte) ((Byte) o ^ 0x80)};
+      case "Short":
+        return fixed(SHORT, ((Short) o) ^ 0x8000, 2);
+      case "Character":
+        return fixed(CHARACTER, (Character) o, 2);
+      case "Integer":
+        return fixed(INTEGER, (Integer) o ^ Integer.MIN_VALUE, 4);
+      case "Long":
+        return fixed(LONG, (Long) o ^ Long.MIN_VALUE, 8);
+      case "Float":
+        int ibits = Float.floatToIntBits((Float) o);
+        return fixed(FLOAT, ibits < 0 ? ~ibits : ibits ^ Integer.MIN_VALUE, 4);
+      case "Double":
+        long lbits = Double.doubleToLongBits((Double) o);
+        return fixed(DOUBLE, lbits < 0 ? ~lbits : lbits ^ Long.MIN_VALUE, 8);
+      case "Boolean":
+        return new byte[] {BINARY_V1, BOOLEAN, (byte) ((Boolean) o ? 1 : 0)};
+      case "Date":
+        return fixed(DATE, ((Date) o).getTime() ^ Long.MIN_VALUE, 8);
+      case "String":
+        return prefixed(STRING, ((String) o).getBytes(UTF8));
+      case "QName":
+        return prefixed(QNAME, o.toString().getBytes(UTF8));
+      default:
+        break;
+    }
+
+    ByteArrayOutputStream bout = BOUTS.get();
+    try {
+      bout.write(BINARY_V1);
+      if (o instanceof Enum) {
+        bout.write(ENUM);
+        byte[] name = o.getClass().getName().getBytes(UTF8);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+          bout.write(name.length >>> shift);
+        }
+        bout.write(name);
+        bout.write(((Enum<?>) o).name().getBytes(UTF8));
+      } else if (o instanceof Serializable) {
+        bout.write(SERIALIZABLE);
+        writeSerializable(bout, o);
+      } else {
+        throw new RuntimeException("Unsupported data type: " + o.getClass());
+      }
+      return bout.toByteArray();
+    } catch (IOException io) {
+      throw new RuntimeException("Unexpected error writing to byte array.", io);
+    } finally {
+      bout.reset();
+    }
+  }
+
+  /**
+   * Binary value holding the low-order width bytes
+   * of the given bits, big-endian.
+   */
+  private static byte[] fixed(int type, long bits, int width) {
+    byte[] bytes = new byte[width + 2];
+    bytes[0] = BINARY_V1;
+    bytes[1] = (byte) type;
+    for (int i = width + 1; i >= 2; i--) {
+      bytes[i] = (byte) bits;
+      bits >>>= 8;
+    }
+    return bytes;
+  }
+
+  /**
+   * Binary value holding the given bytes.
+   */
+  private static byte[] prefixed(int type, byte[] data) {
+    byte[] bytes = new byte[data.length + 2];
+    bytes[0] = BINARY_V1;
+    bytes[1] = (byte) type;
+    System.arraycopy(data, 0, bytes, 2, data.length);
+    return bytes;
+  }
+
+  private static long readUnsigned(byte[] target, int off, int width) {
+    long bits = 0;
+    for (int i = off; i < off + width; i++) {
+      bits = (bits << 8) | (target[i] & 0xFF);
+    }
+    return bits;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Object toEnum(String className, String name) {
+    try {
+      Class<? extends Enum> clz = (Class<? extends Enum>) Class.forName(className);
+      return Enum.valueOf(clz, name);
+    } catch (ClassNotFoundException cnfe) {
+      throw new RuntimeException("Unexpected error deserializing object.", cnfe);
+    }
+  }
+
+  private static void writeSerializable(ByteArrayOutputStream bout, Object o) throws IOException {
+    ObjectOutputStream oos = new ObjectOutputStream(bout);
+    oos.writeObject(o);
+    oos.close();
+  }
+
+  private static Object readSerializable(byte[] target, int off) {
+    try {
+      ByteArrayInputStream bin = new ByteArrayInputStream(target, off, target.length);
+      ObjectInputStream ois = new ObjectInputStream(bin);
+      return ois.readObject();
+    } catch (IOException io) {
+      throw new RuntimeException("Unexpected error deserializing object.", io);
+    } catch (ClassNotFoundException cnfe) {
+      throw new RuntimeException("Unexpected error deserializing object.", cnfe);
+    }
+  }
 }
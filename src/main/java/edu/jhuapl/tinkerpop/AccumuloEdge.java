@@ -73,6 +73,10 @@ public class AccumuloEdge extends AccumuloElement implements Edge {
 
   @Override
   public void remove() {
+    // Removal reads the edge's entries, which must include
+    // any updates still waiting for a group commit.
+    globals.flushPending();
+
     // Remove from named indexes.
     super.removeElementFromNamedIndexes();
 
@@ -14,10 +14,11 @@
  */
 package edu.jhuapl.tinkerpop;
 
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import com.tinkerpop.blueprints.Element;
-import com.tinkerpop.blueprints.Index;
 import com.tinkerpop.blueprints.util.StringFactory;
 
 import edu.jhuapl.tinkerpop.cache.PropertyCache;
@@ -32,7 +33,7 @@ public abstract class AccumuloElement implements Element {
 
   private Class<? extends Element> type;
 
-  private PropertyCache propertyCache;
+  private volatile PropertyCache propertyCache;
 
   protected AccumuloElement(GlobalInstances globals,
       String id, Class<? extends Element> type) {
@@ -47,13 +48,20 @@ public abstract class AccumuloElement implements Element {
    */
   private void makeCache() {
     if (propertyCache == null) {
-      propertyCache = new PropertyCache(globals.getConfig());
-
-      // Preload any keys, if needed.
-      String[] preloadKeys = globals.getConfig().getPreloadedProperties();
-      if (preloadKeys != null) {
-        propertyCache.putAll(globals.getElementWrapper(type)
-            .readProperties(this, preloadKeys));
+      // Cached elements are shared between threads,
+      // so make sure only one cache is created.
+      synchronized (this) {
+        if (propertyCache == null) {
+          PropertyCache cache = new PropertyCache(globals.getConfig());
+
+          // Preload any keys, if needed.
+          String[] preloadKeys = globals.getConfig().getPreloadedProperties();
+          if (preloadKeys != null) {
+            cache.putAll(globals.getElementWrapper(type)
+                .readProperties(this, preloadKeys));
+          }
+          propertyCache = cache;
+        }
       }
     }
   }
@@ -94,6 +102,28 @@ public abstract class AccumuloElement implements Element {
     setPropertyInMemory(key, value);
   }
 
+  /**
+   * Set many properties at once. Unlike calling
+   * {@link #setProperty(String, Object)} for each, the previous
+   * values of indexed keys are read with at most one lookup,
+   * the properties are written as a single mutation,
+   * and the writer is flushed once.
+   * @param properties
+   */
+  public void setProperties(Map<String, Object> properties) {
+    for (Entry<String, Object> prop : properties.entrySet()) {
+      AccumuloGraphUtils.validateProperty(prop.getKey(), prop.getValue());
+    }
+
+    makeCache();
+    globals.getKeyIndexTableWrapper(type).setPropertiesForIndex(this,
+        properties, false);
+    globals.getElementWrapper(type).writeProperties(this, properties);
+    for (Entry<String, Object> prop : properties.entrySet()) {
+      setPropertyInMemory(prop.getKey(), prop.getValue());
+    }
+  }
+
   /**
    * Set a property but only in the instantiated object,
    * not in the backing store.
@@ -131,9 +161,7 @@ public abstract class AccumuloElement implements Element {
    * @param element
    */
   protected void removeElementFromNamedIndexes() {
-    for (Index<? extends Element> index : globals.getIndexMetadataWrapper().getIndices()) {
-      ((AccumuloIndex<? extends Element>) index).getWrapper().removeElementFromIndex(this);
-    }
+    globals.getReverseIndexWrapper().removeElementFromIndexes(this);
   }
 
   /**
@@ -14,7 +14,12 @@
  */
 package edu.jhuapl.tinkerpop;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -22,12 +27,22 @@ import java.util.SortedSet;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.BatchDeleter;
+import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.TableExistsException;
 import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
 import org.apache.commons.configuration.Configuration;
 import org.apache.hadoop.io.Text;
 
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.tinkerpop.blueprints.CloseableIterable;
+import com.tinkerpop.blueprints.Compare;
+import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Features;
@@ -38,11 +53,19 @@ import com.tinkerpop.blueprints.Index;
 import com.tinkerpop.blueprints.IndexableGraph;
 import com.tinkerpop.blueprints.KeyIndexableGraph;
 import com.tinkerpop.blueprints.Parameter;
+import com.tinkerpop.blueprints.Predicate;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.util.DefaultGraphQuery;
 import com.tinkerpop.blueprints.util.ExceptionFactory;
+import com.tinkerpop.blueprints.util.MultiIterable;
 
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.AdjacencyLayout;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.ValueEncoding;
+import edu.jhuapl.tinkerpop.Constants.IndexMetadataEntryType;
 import edu.jhuapl.tinkerpop.cache.ElementCaches;
+import edu.jhuapl.tinkerpop.parser.PropertyParser;
+import edu.jhuapl.tinkerpop.tables.index.EdgeKeyIndexTableWrapper;
+import edu.jhuapl.tinkerpop.tables.index.VertexKeyIndexTableWrapper;
 
 /**
  * This is an implementation of the TinkerPop Blueprints 2.6 API using
@@ -61,6 +84,21 @@ import edu.jhuapl.tinkerpop.cache.ElementCaches;
  */
 public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
 
+  /**
+   * Number of elements removed per batch
+   * by {@link #removeVertices(Iterable)}.
+   */
+  private static final int REMOVAL_BATCH_SIZE = 10000;
+
+  private static final Text IN_EDGE = new Text(Constants.IN_EDGE);
+  private static final Text OUT_EDGE = new Text(Constants.OUT_EDGE);
+  private static final Text LABEL = new Text(Constants.LABEL);
+
+  /**
+   * Rows sampled per tablet by {@link #computeSplits(int)}.
+   */
+  private static final int SPLIT_SAMPLES_PER_TABLET = 100;
+
   private final GlobalInstances globals;
 
   /**
@@ -92,6 +130,49 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
       globals = new GlobalInstances(config, config.getConnector()
           .createMultiTableBatchWriter(config.getBatchWriterConfig()),
           new ElementCaches(config));
+      globals.getVertexWrapper().setFlatEndpoints(AccumuloGraphUtils
+          .getAdjacencyLayouts(config).contains(AdjacencyLayout.Flat));
+    } catch (Exception e) {
+      throw new AccumuloGraphException(e);
+    }
+
+    createReverseIndex();
+  }
+
+  /**
+   * Graphs created before the reverse index table was
+   * introduced do not have it, so create it from
+   * the existing named indexes, if creating tables is allowed.
+   * Otherwise the graph is used without it.
+   */
+  private void createReverseIndex() {
+    try {
+      TableOperations tableOps = globals.getConfig()
+          .getConnector().tableOperations();
+      String table = globals.getConfig().getReverseIndexTableName();
+      if (tableOps.exists(table)) {
+        return;
+      }
+      if (!globals.getConfig().getCreate()) {
+        globals.getReverseIndexWrapper().setAvailable(false);
+        return;
+      }
+
+      try {
+        AccumuloGraphUtils.createTable(globals.getConfig(), table);
+      } catch (TableExistsException e) {
+        // Created concurrently by another instance,
+        // which also writes its entries.
+        return;
+      }
+
+      if (!globals.getConfig().getIndexableGraphDisabled()) {
+        for (Index<? extends Element> index : getIndices()) {
+          ((AccumuloIndex<? extends Element>) index).getWrapper()
+              .writeReverseIndexEntries();
+        }
+      }
+      globals.flush();
     } catch (Exception e) {
       throw new AccumuloGraphException(e);
     }
@@ -113,6 +194,21 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
 
   @Override
   public Vertex addVertex(Object id) {
+    return addVertex(id, Collections.<String, Object>emptyMap());
+  }
+
+  /**
+   * Add a vertex with the given properties. The vertex and
+   * its properties are written as a single mutation, and
+   * their index entries are written along with them.
+   * @param id
+   * @param properties
+   * @return
+   */
+  public Vertex addVertex(Object id, Map<String, Object> properties) {
+    for (Entry<String, Object> prop : properties.entrySet()) {
+      AccumuloGraphUtils.validateProperty(prop.getKey(), prop.getValue());
+    }
     if (id == null) {
       id = AccumuloGraphUtils.generateId();
     }
@@ -127,14 +223,19 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
       }
     }
 
-    vert = new AccumuloVertex(globals, idStr);
+    AccumuloVertex vertex = new AccumuloVertex(globals, idStr);
 
-    globals.getVertexWrapper().writeVertex(vert);
+    globals.getVertexKeyIndexWrapper().setPropertiesForIndex(vertex,
+        properties, true);
+    globals.getVertexWrapper().writeVertex(vertex, properties);
     globals.checkedFlush();
 
-    globals.getCaches().cache(vert, Vertex.class);
+    for (Entry<String, Object> prop : properties.entrySet()) {
+      vertex.setPropertyInMemory(prop.getKey(), prop.getValue());
+    }
+    globals.getCaches().cache(vertex, Vertex.class);
 
-    return vert;
+    return vertex;
   }
   
   /**
@@ -150,7 +251,19 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
    * @throws MutationsRejectedException
    */
   public void flush() throws MutationsRejectedException{
-    globals.getMtbw().flush();
+    globals.flush();
+  }
+
+  /**
+   * Return a future completing once all updates made
+   * so far are persisted, without waiting for them.
+   * With group commit enabled (see
+   * {@link AccumuloGraphConfiguration#setGroupCommit(boolean)}),
+   * they are flushed along with the current group.
+   * @return
+   */
+  public ListenableFuture<Void> flushAsync() {
+    return globals.flushAsync();
   }
   
 
@@ -164,6 +277,8 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
     Vertex vertex = globals.getCaches().retrieve(myID, Vertex.class);
     if (vertex != null) {
       return vertex;
+    } else if (globals.getCaches().isMissing(myID, Vertex.class)) {
+      return null;
     }
 
     vertex = new AccumuloVertex(globals, myID);
@@ -171,14 +286,10 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
       // In addition to just an "existence" check, we will also load
       // any "preloaded" properties now, which saves us a round-trip
       // to Accumulo later.
-      String[] preload = globals.getConfig().getPreloadedProperties();
-      if (preload == null && !globals.getConfig().getPreloadAllProperties()) {
-        preload = new String[]{};
-      }
-
       Map<String, Object> props = globals.getVertexWrapper()
-          .readProperties(vertex, preload);
+          .readProperties(vertex, getPreloadedKeys(Vertex.class));
       if (props == null) {
+        globals.getCaches().cacheMissing(myID, Vertex.class);
         return null;
       }
 
@@ -192,11 +303,100 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
     return vertex;
   }
 
+  /**
+   * Retrieve the vertices with the given ids using a single
+   * batch lookup, rather than a round-trip per id as with
+   * {@link #getVertex(Object)}. Cached vertices are returned
+   * without a lookup, preloaded properties are loaded as
+   * with {@link #getVertex(Object)}, and ids that do not
+   * exist are skipped.
+   * <p/>Vertices are returned as they are read, not in the
+   * order of the given ids.
+   * @param ids
+   * @return
+   */
+  public CloseableIterable<Vertex> getVertices(Collection<?> ids) {
+    List<Vertex> found = new ArrayList<Vertex>();
+    Set<String> missing = new LinkedHashSet<String>();
+
+    for (String id : toIds(ids, Vertex.class)) {
+      Vertex vertex = globals.getCaches().retrieve(id, Vertex.class);
+      if (vertex == null && globals.getConfig().getSkipExistenceChecks()) {
+        vertex = new AccumuloVertex(globals, id);
+        globals.getCaches().cache(vertex, Vertex.class);
+      }
+
+      if (vertex != null) {
+        found.add(vertex);
+      } else {
+        missing.add(id);
+      }
+    }
+
+    List<Iterable<Vertex>> results = new ArrayList<Iterable<Vertex>>();
+    results.add(found);
+    if (!missing.isEmpty()) {
+      results.add(globals.getVertexWrapper().readVertices(missing,
+          getPreloadedKeys(Vertex.class)));
+    }
+    return new MultiIterable<Vertex>(results);
+  }
+
   @Override
   public void removeVertex(Vertex vertex) {
     vertex.remove();
   }
 
+  /**
+   * Remove the given vertices and their incident edges.
+   * Rather than removing each vertex individually, affected
+   * rows are read and deleted in batches over each table.
+   * Unlike {@link #removeVertex(Vertex)}, vertices that
+   * do not exist are ignored.
+   * @param vertices
+   */
+  public void removeVertices(Iterable<Vertex> vertices) {
+    // Removal reads stored rows, which must include
+    // any updates still waiting for a group commit.
+    globals.flushPending();
+
+    for (List<String> ids : Iterables.partition(getIds(vertices),
+        REMOVAL_BATCH_SIZE)) {
+      globals.getReverseIndexWrapper().removeElementsFromIndexes(ids, Vertex.class);
+
+      // Rows are streamed rather than read whole, since a
+      // vertex may have more edges than fit in memory; only
+      // its properties and edge ids are kept.
+      Map<String, List<Entry<Key, Value>>> rows =
+          new HashMap<String, List<Entry<Key, Value>>>();
+      Set<String> edgeIds = new LinkedHashSet<String>();
+      EdgeKeySerializer.Endpoint endpoint = new EdgeKeySerializer.Endpoint();
+      BatchScanner scan = globals.getVertexWrapper().getRowEntriesScanner(ids);
+      try {
+        for (Entry<Key, Value> entry : scan) {
+          Key key = entry.getKey();
+          if (key.compareColumnFamily(IN_EDGE) == 0 ||
+              key.compareColumnFamily(OUT_EDGE) == 0) {
+            edgeIds.add(endpoint.read(key.getColumnQualifierData()).getEdgeId());
+          } else {
+            addRowEntry(rows, entry);
+          }
+        }
+      } finally {
+        scan.close();
+      }
+      globals.getVertexKeyIndexWrapper().removePropertiesFromIndex(
+          parseRowProperties(rows));
+
+      removeEdgeRows(edgeIds);
+      globals.getVertexWrapper().deleteRows(ids);
+      for (String id : ids) {
+        globals.getCaches().remove(id, Vertex.class);
+      }
+    }
+    globals.checkedFlush();
+  }
+
   @Override
   public Iterable<Vertex> getVertices() {
     return globals.getVertexWrapper().getVertices();
@@ -220,18 +420,94 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
   @Override
   public Iterable<Vertex> getVertices(String key, Object value) {
     AccumuloGraphUtils.validateProperty(key, value);
-    if (globals.getConfig().getAutoIndex() || getIndexedKeys(Vertex.class).contains(key)) {
+    if (isKeyIndexed(Vertex.class, key)) {
       return globals.getVertexKeyIndexWrapper().getVertices(key, value);
     } else {
       return globals.getVertexWrapper().getVertices(key, value);
     }
   }
 
+  /**
+   * Retrieve vertices whose value for the given key is
+   * at least from and less than to.
+   * @param key
+   * @param from
+   * @param to
+   * @return
+   * @see #getVertices(String, Object, boolean, Object, boolean)
+   */
+  public Iterable<Vertex> getVertices(String key, Object from, Object to) {
+    return getVertices(key, from, true, to, false);
+  }
+
+  /**
+   * Retrieve vertices whose value for the given key lies
+   * between the given bounds. Either bound may be null for an
+   * open-ended range, but the bounds must be of the same type.
+   * <p/>If the key is indexed and values of this type are ordered
+   * under the configured value encoding (see
+   * {@link AccumuloGraphConfiguration#setValueEncoding(AccumuloGraphConfiguration.ValueEncoding)}),
+   * this is a range scan over the key index. Otherwise all
+   * vertices are scanned.
+   * @param key
+   * @param from
+   * @param fromInclusive
+   * @param to
+   * @param toInclusive
+   * @return
+   */
+  public Iterable<Vertex> getVertices(String key, Object from, boolean fromInclusive,
+      Object to, boolean toInclusive) {
+    AccumuloGraphUtils.nullCheckProperty(key, from != null ? from : to);
+    if (isIndexRangeQueryable(Vertex.class, key, from, to)) {
+      VertexKeyIndexTableWrapper index = globals.getVertexKeyIndexWrapper();
+      return index.getVertices(key, index.getValueRange(from,
+          fromInclusive, to, toInclusive));
+    } else {
+      return getRangeQuery(key, from, fromInclusive,
+          to, toInclusive).vertices();
+    }
+  }
+
+  /**
+   * Retrieve vertices whose string value for the given key
+   * starts with the given prefix. Uses the key index if
+   * the key is indexed, otherwise all vertices are scanned.
+   * @param key
+   * @param prefix
+   * @return
+   */
+  public Iterable<Vertex> getVerticesWithPrefix(String key, String prefix) {
+    AccumuloGraphUtils.nullCheckProperty(key, prefix);
+    if (isKeyIndexed(Vertex.class, key)) {
+      VertexKeyIndexTableWrapper index = globals.getVertexKeyIndexWrapper();
+      return index.getVertices(key, index.getPrefixRange(prefix));
+    } else {
+      return new DefaultGraphQuery(this).has(key,
+          PREFIX, prefix).vertices();
+    }
+  }
+
   @Override
   public Edge addEdge(Object id, Vertex outVertex, Vertex inVertex, String label) {
     return ((AccumuloVertex) outVertex).addEdge(id, label, inVertex);
   }
 
+  /**
+   * Add an edge with the given properties, as with
+   * {@link AccumuloVertex#addEdge(Object, String, Vertex, Map)}.
+   * @param id
+   * @param outVertex
+   * @param inVertex
+   * @param label
+   * @param properties
+   * @return
+   */
+  public Edge addEdge(Object id, Vertex outVertex, Vertex inVertex, String label,
+      Map<String, Object> properties) {
+    return ((AccumuloVertex) outVertex).addEdge(id, label, inVertex, properties);
+  }
+
   @Override
   public Edge getEdge(Object id) {
     if (id == null) {
@@ -242,6 +518,8 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
     Edge edge = globals.getCaches().retrieve(idStr, Edge.class);
     if (edge != null) {
       return edge;
+    } else if (globals.getCaches().isMissing(idStr, Edge.class)) {
+      return null;
     }
 
     edge = new AccumuloEdge(globals, idStr);
@@ -250,16 +528,12 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
       // In addition to just an "existence" check, we will also load
       // any "preloaded" properties now, which saves us a round-trip
       // to Accumulo later.
-      String[] preload = globals.getConfig().getPreloadedProperties();
-      if (preload == null) {
-        preload = new String[]{};
-      }
-
       Map<String, Object> props = globals.getEdgeWrapper()
-          .readProperties(edge, preload);
+          .readProperties(edge, getPreloadedKeys(Edge.class));
       // This will be null if the element does not exist,
       // in which case return null.
       if (props == null) {
+        globals.getCaches().cacheMissing(idStr, Edge.class);
         return null;
       }
 
@@ -273,11 +547,198 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
     return edge;
   }
 
+  /**
+   * Retrieve the edges with the given ids using a single
+   * batch lookup. See {@link #getVertices(Collection)}.
+   * @param ids
+   * @return
+   */
+  public CloseableIterable<Edge> getEdges(Collection<?> ids) {
+    List<Edge> found = new ArrayList<Edge>();
+    Set<String> missing = new LinkedHashSet<String>();
+
+    for (String id : toIds(ids, Edge.class)) {
+      Edge edge = globals.getCaches().retrieve(id, Edge.class);
+      if (edge == null && globals.getConfig().getSkipExistenceChecks()) {
+        edge = new AccumuloEdge(globals, id);
+        globals.getCaches().cache(edge, Edge.class);
+      }
+
+      if (edge != null) {
+        found.add(edge);
+      } else {
+        missing.add(id);
+      }
+    }
+
+    List<Iterable<Edge>> results = new ArrayList<Iterable<Edge>>();
+    results.add(found);
+    if (!missing.isEmpty()) {
+      results.add(globals.getEdgeWrapper().readEdges(missing,
+          getPreloadedKeys(Edge.class)));
+    }
+    return new MultiIterable<Edge>(results);
+  }
+
+  /**
+   * Count the edges of each of the given vertices in the given
+   * direction with the given labels, as with
+   * {@link AccumuloVertex#getDegree(Direction, String...)},
+   * using a single batch lookup. Every given id is in the result;
+   * vertices that do not exist have no edges.
+   * @param ids
+   * @param direction
+   * @param labels
+   * @return degree by vertex id
+   */
+  public Map<String, Long> getDegrees(Collection<?> ids,
+      Direction direction, String... labels) {
+    Set<String> idStrs = toIds(ids, Vertex.class);
+    Map<String, Long> degrees = globals.getVertexWrapper()
+        .readDegrees(idStrs, direction, labels);
+    for (String id : idStrs) {
+      if (!degrees.containsKey(id)) {
+        degrees.put(id, 0L);
+      }
+    }
+    return degrees;
+  }
+
+  /**
+   * Convert the given ids to their string form,
+   * dropping duplicates.
+   * @param ids
+   * @param elementClass
+   * @return
+   */
+  private static Set<String> toIds(Collection<?> ids,
+      Class<? extends Element> elementClass) {
+    Set<String> idStrs = new LinkedHashSet<String>();
+    for (Object id : ids) {
+      if (id == null) {
+        throw Vertex.class.equals(elementClass) ?
+            ExceptionFactory.vertexIdCanNotBeNull() :
+              ExceptionFactory.edgeIdCanNotBeNull();
+      }
+      idStrs.add(id.toString());
+    }
+    return idStrs;
+  }
+
+  /**
+   * Property keys to load along with the existence check
+   * when retrieving elements of the given type.
+   * Null means all properties.
+   * @param elementClass
+   * @return
+   */
+  private String[] getPreloadedKeys(Class<? extends Element> elementClass) {
+    String[] preload = globals.getConfig().getPreloadedProperties();
+    if (preload == null && (Edge.class.equals(elementClass) ||
+        !globals.getConfig().getPreloadAllProperties())) {
+      preload = new String[]{};
+    }
+    return preload;
+  }
+
   @Override
   public void removeEdge(Edge edge) {
     edge.remove();
   }
 
+  /**
+   * Remove the given edges. Rather than removing each
+   * edge individually, affected rows are read and deleted
+   * in batches over each table. Edges that do not
+   * exist are ignored.
+   * @param edges
+   */
+  public void removeEdges(Iterable<Edge> edges) {
+    // See removeVertices.
+    globals.flushPending();
+
+    removeEdgeRows(getIds(edges));
+    globals.checkedFlush();
+  }
+
+  /**
+   * Remove the edges with the given ids, along with
+   * their endpoints, properties and index entries.
+   * @param ids
+   */
+  private void removeEdgeRows(Collection<String> ids) {
+    for (List<String> batch : Iterables.partition(ids, REMOVAL_BATCH_SIZE)) {
+      globals.getReverseIndexWrapper().removeElementsFromIndexes(batch, Edge.class);
+
+      Map<String, List<Entry<Key, Value>>> rows =
+          new HashMap<String, List<Entry<Key, Value>>>();
+      List<Edge> endpoints = new ArrayList<Edge>();
+      EdgeKeySerializer.Vertices vertices = new EdgeKeySerializer.Vertices();
+      BatchScanner scan = globals.getEdgeWrapper().getRowEntriesScanner(batch);
+      try {
+        for (Entry<Key, Value> entry : scan) {
+          if (entry.getKey().compareColumnFamily(LABEL) == 0) {
+            vertices.read(entry.getKey().getColumnQualifierData());
+            String label = AccumuloByteSerializer.deserialize(entry.getValue().get());
+            endpoints.add(new AccumuloEdge(globals, entry.getKey().getRow().toString(),
+                new AccumuloVertex(globals, vertices.getInVertexId()),
+                new AccumuloVertex(globals, vertices.getOutVertexId()), label));
+          }
+          addRowEntry(rows, entry);
+        }
+      } finally {
+        scan.close();
+      }
+      globals.getEdgeKeyIndexWrapper().removePropertiesFromIndex(
+          parseRowProperties(rows));
+      globals.getVertexWrapper().deleteEdgeEndpoints(endpoints);
+
+      globals.getEdgeWrapper().deleteRows(batch);
+      for (String id : batch) {
+        globals.getCaches().remove(id, Edge.class);
+      }
+    }
+  }
+
+  /**
+   * Add an entry to the list of entries of its row.
+   * @param rows
+   * @param entry
+   */
+  private static void addRowEntry(Map<String, List<Entry<Key, Value>>> rows,
+      Entry<Key, Value> entry) {
+    String id = entry.getKey().getRow().toString();
+    List<Entry<Key, Value>> row = rows.get(id);
+    if (row == null) {
+      row = new ArrayList<Entry<Key, Value>>();
+      rows.put(id, row);
+    }
+    row.add(entry);
+  }
+
+  /**
+   * Parse the properties of rows gathered by {@link #addRowEntry(Map, Entry)}.
+   * @param rows
+   * @return properties by element id
+   */
+  private static Map<String, Map<String, Object>> parseRowProperties(
+      Map<String, List<Entry<Key, Value>>> rows) {
+    Map<String, Map<String, Object>> props =
+        new HashMap<String, Map<String, Object>>();
+    for (Entry<String, List<Entry<Key, Value>>> row : rows.entrySet()) {
+      props.put(row.getKey(), new PropertyParser().parse(row.getValue()));
+    }
+    return props;
+  }
+
+  private static Set<String> getIds(Iterable<? extends Element> elements) {
+    Set<String> ids = new LinkedHashSet<String>();
+    for (Element element : elements) {
+      ids.add(element.getId().toString());
+    }
+    return ids;
+  }
+
   @Override
   public Iterable<Edge> getEdges() {
     return globals.getEdgeWrapper().getEdges();
@@ -290,23 +751,150 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
       key = Constants.LABEL;
     }
 
-    if (globals.getConfig().getAutoIndex() || getIndexedKeys(Edge.class).contains(key)) {
+    if (isKeyIndexed(Edge.class, key)) {
       return globals.getEdgeKeyIndexWrapper().getEdges(key, value);
     } else {
       return globals.getEdgeWrapper().getEdges(key, value);
     }
   }
 
-  // TODO Eventually
+  /**
+   * Retrieve edges whose value for the given key is
+   * at least from and less than to.
+   * @param key
+   * @param from
+   * @param to
+   * @return
+   * @see #getEdges(String, Object, boolean, Object, boolean)
+   */
+  public Iterable<Edge> getEdges(String key, Object from, Object to) {
+    return getEdges(key, from, true, to, false);
+  }
+
+  /**
+   * Retrieve edges whose value for the given key lies
+   * between the given bounds. Either bound may be null for an
+   * open-ended range, but the bounds must be of the same type.
+   * <p/>If the key is indexed and values of this type are ordered
+   * under the configured value encoding (see
+   * {@link AccumuloGraphConfiguration#setValueEncoding(AccumuloGraphConfiguration.ValueEncoding)}),
+   * this is a range scan over the key index. Otherwise all
+   * edges are scanned.
+   * @param key
+   * @param from
+   * @param fromInclusive
+   * @param to
+   * @param toInclusive
+   * @return
+   */
+  public Iterable<Edge> getEdges(String key, Object from, boolean fromInclusive,
+      Object to, boolean toInclusive) {
+    AccumuloGraphUtils.nullCheckProperty(key, from != null ? from : to);
+    if (isIndexRangeQueryable(Edge.class, key, from, to)) {
+      EdgeKeyIndexTableWrapper index = globals.getEdgeKeyIndexWrapper();
+      return index.getEdges(key, index.getValueRange(from,
+          fromInclusive, to, toInclusive));
+    } else {
+      return getRangeQuery(key, from, fromInclusive,
+          to, toInclusive).edges();
+    }
+  }
+
+  /**
+   * Retrieve edges whose string value for the given key
+   * starts with the given prefix. Uses the key index if
+   * the key is indexed, otherwise all edges are scanned.
+   * @param key
+   * @param prefix
+   * @return
+   */
+  public Iterable<Edge> getEdgesWithPrefix(String key, String prefix) {
+    AccumuloGraphUtils.nullCheckProperty(key, prefix);
+    if (isKeyIndexed(Edge.class, key)) {
+      EdgeKeyIndexTableWrapper index = globals.getEdgeKeyIndexWrapper();
+      return index.getEdges(key, index.getPrefixRange(prefix));
+    } else {
+      return new DefaultGraphQuery(this).has(key,
+          PREFIX, prefix).edges();
+    }
+  }
+
+  /**
+   * Whether the given key is indexed for the given
+   * element type, either explicitly or by auto-indexing.
+   * @param elementClass
+   * @param key
+   * @return
+   */
+  boolean isKeyIndexed(Class<? extends Element> elementClass, String key) {
+    return globals.getConfig().getAutoIndex() ||
+        getIndexedKeys(elementClass).contains(key);
+  }
+
+  /**
+   * Whether a range query with the given bounds can be
+   * answered using the key index.
+   * @param elementClass
+   * @param key
+   * @param from
+   * @param to
+   * @return
+   */
+  boolean isIndexRangeQueryable(Class<? extends Element> elementClass,
+      String key, Object from, Object to) {
+    ValueEncoding encoding = globals.getConfig().getValueEncoding();
+    return isKeyIndexed(elementClass, key) &&
+        (from == null || AccumuloByteSerializer.isOrderPreserving(from, encoding)) &&
+        (to == null || AccumuloByteSerializer.isOrderPreserving(to, encoding)) &&
+        (from == null || to == null || from.getClass().equals(to.getClass()));
+  }
+
+  /**
+   * Client-side query for the given range, used
+   * when the key index cannot be used.
+   */
+  private GraphQuery getRangeQuery(String key, Object from, boolean fromInclusive,
+      Object to, boolean toInclusive) {
+    GraphQuery query = new DefaultGraphQuery(this);
+    if (from != null) {
+      query.has(key, fromInclusive ? Compare.GREATER_THAN_EQUAL :
+        Compare.GREATER_THAN, from);
+    }
+    if (to != null) {
+      query.has(key, toInclusive ? Compare.LESS_THAN_EQUAL :
+        Compare.LESS_THAN, to);
+    }
+    return query;
+  }
+
+  /**
+   * Matches string values starting with the given prefix.
+   */
+  private static final Predicate PREFIX = new Predicate() {
+    @Override
+    public boolean evaluate(Object first, Object second) {
+      return first instanceof String && ((String) first).startsWith((String) second);
+    }
+  };
+
   @Override
   public GraphQuery query() {
-    return new DefaultGraphQuery(this);
+    return new AccumuloGraphQuery(this, globals);
   }
 
   @Override
   public void shutdown() {
+    close();
+    globals.getConfig().stopMiniCluster();
+  }
+
+  /**
+   * Flush and close writers and clear caches,
+   * without stopping a mini cluster.
+   */
+  private void close() {
     try {
-      globals.getMtbw().close();
+      globals.close();
       globals.getVertexWrapper().close();
       globals.getEdgeWrapper().close();
     } catch (MutationsRejectedException e) {
@@ -314,6 +902,7 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
     }
     globals.getCaches().clear(Vertex.class);
     globals.getCaches().clear(Edge.class);
+    globals.getIndexMetadataCache().clear();
   }
 
   @Override
@@ -376,6 +965,9 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
         } catch (Exception e) {
           throw new AccumuloGraphException(e);
         }
+        globals.getScannerPool().invalidate(globals.getConfig()
+            .getNamedIndexTableName(indexName));
+        globals.getReverseIndexWrapper().clearIndex(indexName);
 
         return;
       }
@@ -392,6 +984,7 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
     }
 
     globals.getIndexMetadataWrapper().clearKeyMetadataEntry(key, elementClass);
+    globals.getIndexMetadataWrapper().clearBuildEntries(key, elementClass);
 
     String table = null;
     if (elementClass.equals(Vertex.class)) {
@@ -427,10 +1020,8 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
     globals.getIndexMetadataWrapper().writeKeyMetadataEntry(key, elementClass);
     globals.checkedFlush();
 
-    // Reindex graph.
-    globals.getKeyIndexTableWrapper(elementClass).rebuildIndex(key, elementClass);
-    globals.getVertexKeyIndexWrapper().dump();
-    globals.checkedFlush();
+    // Index existing elements, resuming an unfinished build.
+    new KeyIndexBuilder(this).backfill(key, elementClass);
   }
 
   @Override
@@ -442,7 +1033,7 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
    * Clear out this graph. This drops and recreates the backing tables.
    */
   public void clear() {
-    shutdown();
+    close();
 
     try {
       TableOperations tableOps = globals.getConfig()
@@ -455,10 +1046,61 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
       for (String table : globals.getConfig().getTableNames()) {
         if (tableOps.exists(table)) {
           tableOps.delete(table);
-          tableOps.create(table);
+          AccumuloGraphUtils.createTable(globals.getConfig(), table);
+        }
+      }
+      AccumuloGraphUtils.recordAdjacencyLayout(globals.getConfig());
+      globals.getVertexWrapper().setFlatEndpoints(AdjacencyLayout.Flat
+          .equals(globals.getConfig().getAdjacencyLayout()));
+    } catch (Exception e) {
+      throw new AccumuloGraphException(e);
+    } finally {
+      // Pooled scanners are bound to the deleted tables.
+      globals.getScannerPool().invalidateAll();
+    }
+    globals.getIndexMetadataCache().clear();
+  }
+
+  /**
+   * Apply the configured table settings to the existing
+   * tables of this graph, including named index tables.
+   * Tables are created with these settings, so this is only
+   * needed after changing them for an existing graph.
+   * Data already written is affected as it is compacted.
+   */
+  public void applyTableProfile() {
+    try {
+      TableOperations tableOps = globals.getConfig()
+          .getConnector().tableOperations();
+      for (String table : getAllTableNames()) {
+        if (tableOps.exists(table)) {
+          AccumuloGraphUtils.applyTableProfile(globals.getConfig(), table);
+        }
+      }
+    } catch (Exception e) {
+      throw new AccumuloGraphException(e);
+    }
+  }
 
-          SortedSet<Text> splits = globals.getConfig().getSplits();
-          if (splits != null) {
+  /**
+   * Split each existing table of this graph, including
+   * named index tables, into about the given number of
+   * tablets, using a sample of its current rows. Index tables
+   * are thereby split by the distribution of indexed values.
+   * Existing splits are kept. Each table is read in full
+   * to take the sample.
+   * @param tablets
+   */
+  public void computeSplits(int tablets) {
+    try {
+      TableOperations tableOps = globals.getConfig()
+          .getConnector().tableOperations();
+      for (String table : getAllTableNames()) {
+        if (tableOps.exists(table)) {
+          SortedSet<Text> splits = SplitCalculator.getSampleSplits(
+              SplitCalculator.sampleRows(globals.getConfig(), table,
+                  SPLIT_SAMPLES_PER_TABLET * tablets), tablets);
+          if (!splits.isEmpty()) {
             tableOps.addSplits(table, splits);
           }
         }
@@ -468,15 +1110,43 @@ public class AccumuloGraph implements Graph, KeyIndexableGraph, IndexableGraph {
     }
   }
 
+  /**
+   * Names of this graph's tables, including named index tables.
+   * @return
+   */
+  private List<String> getAllTableNames() {
+    List<String> tables = new ArrayList<String>(
+        globals.getConfig().getTableNames());
+    for (Index<? extends Element> index : getIndices()) {
+      tables.add(((AccumuloIndex<? extends Element>) index).getTableName());
+    }
+    return tables;
+  }
+
   public boolean isEmpty() {
     try {
       TableOperations tableOps = globals.getConfig().getConnector().tableOperations();
       for (String table : globals.getConfig().getTableNames()) {
+        if (table.equals(globals.getConfig().getIndexMetadataTableName()) ||
+            !tableOps.exists(table)) {
+          continue;
+        }
         if (tableOps.getMaxRow(table, globals.getConfig().getAuthorizations(),
             null, true, null, true) != null) {
           return false;
         }
       }
+
+      // The recorded adjacency layouts are not graph data.
+      Scanner scan = globals.getConfig().getConnector().createScanner(
+          globals.getConfig().getIndexMetadataTableName(),
+          globals.getConfig().getAuthorizations());
+      Text layout = new Text(IndexMetadataEntryType.__ADJACENCY_LAYOUT__.name());
+      for (Entry<Key, Value> entry : scan) {
+        if (!entry.getKey().getColumnFamily().equals(layout)) {
+          return false;
+        }
+      }
       return true;
 
     } catch (Exception e) {
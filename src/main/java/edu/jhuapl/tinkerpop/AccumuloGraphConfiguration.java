@@ -21,14 +21,24 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.lang.Cloneable;
 import java.lang.reflect.Field;
+import java.net.URISyntaxException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import org.apache.accumulo.core.Constants;
 import org.apache.accumulo.core.client.AccumuloException;
@@ -39,9 +49,11 @@ import org.apache.accumulo.core.client.Instance;
 import org.apache.accumulo.core.client.ZooKeeperInstance;
 import org.apache.accumulo.core.client.mock.MockInstance;
 import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.accumulo.minicluster.MiniAccumuloCluster;
+import org.apache.accumulo.minicluster.MiniAccumuloConfig;
 import org.apache.commons.configuration.AbstractConfiguration;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.PropertiesConfiguration;
@@ -79,7 +91,12 @@ implements Serializable, Cloneable {
    * Temp directory used by getInstance when a Mini InstanceType is used.
    */
   private String miniClusterTempDir;
-  private MiniAccumuloCluster accumuloMiniCluster;
+
+  /**
+   * The mini cluster used with the Mini InstanceType,
+   * shared with copies of this configuration.
+   */
+  private MiniCluster miniCluster = new MiniCluster();
 
 
   /**
@@ -107,6 +124,41 @@ implements Serializable, Cloneable {
     Distributed, Mini, Mock
   };
 
+  /**
+   * An enumeration used by {@link AccumuloGraphConfiguration#setValueEncoding(ValueEncoding)}
+   * to specify how property values are serialized.
+   * See {@link AccumuloByteSerializer}.
+   */
+  public static enum ValueEncoding {
+    Text, Binary
+  };
+
+  /**
+   * An enumeration used by {@link AccumuloGraphConfiguration#setKeyEncoding(KeyEncoding)}
+   * to specify how vertex and edge ids are stored in the keys of edge entries.
+   * See {@link EdgeKeySerializer}.
+   */
+  public static enum KeyEncoding {
+    Text, Binary
+  };
+
+  /**
+   * An enumeration used by {@link AccumuloGraphConfiguration#setAdjacencyLayout(AdjacencyLayout)}
+   * to specify how edge endpoints are stored in the vertex table.
+   */
+  public static enum AdjacencyLayout {
+    Flat, LabelPartitioned
+  };
+
+  /**
+   * An enumeration of the kinds of graph tables, used to
+   * configure table settings per kind, as with
+   * {@link AccumuloGraphConfiguration#setTableBloomFilter(TableType, boolean)}.
+   */
+  public static enum TableType {
+    Vertex, Edge, KeyIndex, NamedIndex, ReverseIndex, Metadata
+  };
+
   /**
    * Utility class gathering valid configuration keys.
    */
@@ -125,21 +177,43 @@ implements Serializable, Cloneable {
     public static final String QUERY_THREADS = "blueprints.accumulo.read.queryThreads";
     public static final String AUTHORIZATIONS = "blueprints.accumulo.authorizations";
     public static final String AUTO_FLUSH = "blueprints.accumulo.auto.flush";
+    public static final String GROUP_COMMIT = "blueprints.accumulo.write.groupCommit";
+    public static final String GROUP_COMMIT_LATENCY = "blueprints.accumulo.write.groupCommit.latency";
+    public static final String GROUP_COMMIT_SIZE = "blueprints.accumulo.write.groupCommit.size";
     public static final String CREATE = "blueprints.accumulo.create";
     public static final String CLEAR = "blueprints.accumulo.clear";
     public static final String SPLITS = "blueprints.accumulo.splits";
+    public static final String AUTO_SPLITS = "blueprints.accumulo.splits.auto";
+    public static final String SPLIT_SAMPLE = "blueprints.accumulo.splits.sample";
     public static final String COLVIS = "blueprints.accumulo.columnVisibility";
     public static final String SKIP_CHECKS = "blueprints.accumulo.skipExistenceChecks";
     public static final String PRELOADED_PROPERTIES = "blueprints.accumulo.property.preload";
     public static final String PRELOAD_ALL_PROPERTIES = "blueprints.accumulo.property.preload.all";
     public static final String PROPERTY_CACHE_TIMEOUT = "blueprints.accumulo.propertyCacheTimeout";
+    public static final String INDEX_METADATA_CACHE_TIMEOUT = "blueprints.accumulo.indexMetadataCacheTimeout";
     public static final String EDGE_CACHE_SIZE = "blueprints.accumulo.edgeCacheSize";
     public static final String EDGE_CACHE_TIMEOUT = "blueprints.accumulo.edgeCacheTimeout";
     public static final String VERTEX_CACHE_TIMEOUT = "blueprints.accumulo.vertexCacheTimeout";
     public static final String VERTEX_CACHE_SIZE = "blueprints.accumulo.vertexCacheSize";
+    public static final String MISSING_CACHE_SIZE = "blueprints.accumulo.missingCacheSize";
+    public static final String MISSING_CACHE_TIMEOUT = "blueprints.accumulo.missingCacheTimeout";
     public static final String PRELOAD_EDGES = "blueprints.accumulo.edge.preload";
     public static final String AUTO_INDEX = "blueprints.accumulo.index.auto";
     public static final String DISABLE_INDEX = "blueprints.accumulo.index.disable";
+    public static final String VALUE_ENCODING = "blueprints.accumulo.value.encoding";
+    public static final String KEY_ENCODING = "blueprints.accumulo.key.encoding";
+    public static final String ADJACENCY_LAYOUT = "blueprints.accumulo.adjacency.layout";
+    public static final String DEGREE_COUNTERS = "blueprints.accumulo.degree.counters";
+    public static final String BULK_IMPORT_DIR = "blueprints.accumulo.ingest.bulkImportDir";
+    public static final String BULK_IMPORT_BUFFER_SIZE = "blueprints.accumulo.ingest.bulkImportBufferSize";
+    public static final String TABLE_BLOOM_FILTER = "blueprints.accumulo.table.bloomFilter";
+    public static final String TABLE_BLOCK_CACHE = "blueprints.accumulo.table.blockCache";
+    public static final String TABLE_COMPRESSION = "blueprints.accumulo.table.compression";
+    public static final String TABLE_LOCALITY_GROUPS = "blueprints.accumulo.table.localityGroups";
+    public static final String TABLE_MAX_VERSIONS = "blueprints.accumulo.table.maxVersions";
+    public static final String MINI_TABLET_SERVERS = "blueprints.accumulo.mini.tabletServers";
+    public static final String MINI_MEMORY = "blueprints.accumulo.mini.memory";
+    public static final String MINI_DEPLOY_ITERATORS = "blueprints.accumulo.mini.deployIterators";
   }
 
 
@@ -168,11 +242,16 @@ implements Serializable, Cloneable {
   }
 
   /**
-   * Copy constructor.
+   * Copy constructor. With the {@link InstanceType#Mini} instance
+   * type, the copy uses the same mini cluster as the given
+   * configuration, which only the configuration that
+   * started it stops.
    * @param config
    */
   public AccumuloGraphConfiguration(AccumuloGraphConfiguration config) {
     this(config.getConfiguration());
+    miniClusterTempDir = config.miniClusterTempDir;
+    miniCluster = config.miniCluster;
   }
 
   /**
@@ -185,11 +264,25 @@ implements Serializable, Cloneable {
     setMaxWriteTimeout(Long.MAX_VALUE);
     setQueryThreads(3);
     setAutoFlush(true);
+    setGroupCommit(false);
+    setGroupCommitLatency(10L);
+    setGroupCommitSize(1000);
     setCreate(false);
     setInstanceType(InstanceType.Distributed);
     setAuthorizations(Constants.NO_AUTHS);
     setSkipExistenceChecks(false);
     setPreloadAllProperties(false);
+    setIndexMetadataCacheTimeout(10000);
+    setValueEncoding(ValueEncoding.Text);
+    setKeyEncoding(KeyEncoding.Text);
+    setAdjacencyLayout(AdjacencyLayout.Flat);
+    setDegreeCounters(false);
+    setBulkImportBufferSize(1000000);
+    setTableBloomFilter(false);
+    setTableBlockCache(false);
+    setTableLocalityGroups(false);
+    setMiniClusterTabletServers(2);
+    setMiniClusterDeployIterators(false);
   }
 
   /**
@@ -502,6 +595,28 @@ implements Serializable, Cloneable {
     return this;
   }
 
+  public int getIndexMetadataCacheTimeout() {
+    return conf.getInt(Keys.INDEX_METADATA_CACHE_TIMEOUT);
+  }
+
+  /**
+   * Sets the number of milliseconds that the indexed keys and
+   * named indexes are held in RAM before being read again from
+   * the index metadata table. Changes made through this graph
+   * are applied to the cached copy immediately; changes made by other
+   * graph instances are seen once it expires. If set to 0,
+   * the metadata table is read on every use. Defaults to 10 seconds.
+   * @param millis
+   * @return
+   */
+  public AccumuloGraphConfiguration setIndexMetadataCacheTimeout(int millis) {
+    if (millis < 0) {
+      throw new IllegalArgumentException("Timeout value cannot be negative.");
+    }
+    conf.setProperty(Keys.INDEX_METADATA_CACHE_TIMEOUT, millis);
+    return this;
+  }
+
   /**
    * Whether the vertex cache is enabled (i.e., both
    * size and timeout are positive).
@@ -617,6 +732,64 @@ implements Serializable, Cloneable {
     return this;
   }
 
+  /**
+   * Whether the missing element cache is enabled (i.e., both
+   * size and timeout are positive).
+   * @return
+   */
+  public boolean getMissingCacheEnabled() {
+    return getMissingCacheSize() > 0 && getMissingCacheTimeout() > 0;
+  }
+
+  public int getMissingCacheSize() {
+    return conf.getInt(Keys.MISSING_CACHE_SIZE, -1);
+  }
+
+  public int getMissingCacheTimeout() {
+    return conf.getInt(Keys.MISSING_CACHE_TIMEOUT, -1);
+  }
+
+  /**
+   * Sets the number of milliseconds that the ids of missing Vertices
+   * and Edges will be remembered in a RAM cache, and the maximum size
+   * of the cache for each element type. If these values are
+   * unset or set to 0 (or a negative number) no caching will be performed.
+   * <P>
+   * When enabled, {@link AccumuloGraph#getVertex(Object)} and
+   * {@link AccumuloGraph#getEdge(Object)} return null for an id
+   * that recently failed to resolve, without consulting Accumulo.
+   * Adding the element through this graph instance removes its id from
+   * the cache, but elements added elsewhere are not seen until
+   * the cached id expires.
+   * <P>
+   * The default is unset (no caching).
+   * 
+   * @param size
+   *          maximum size of the cache
+   * @param millis
+   *          the maximum number of milliseconds a missing id should be held in RAM
+   * @return
+   */
+  public AccumuloGraphConfiguration setMissingCacheParams(int size, int millis) {
+    if ((size <= 0 || millis <= 0) && (size > 0 || millis > 0)) {
+      throw new IllegalArgumentException("Parameters must be both non-positive or both positive");
+    }
+
+    if (size <= 0) {
+      conf.clearProperty(Keys.MISSING_CACHE_SIZE);
+    } else {
+      conf.setProperty(Keys.MISSING_CACHE_SIZE, size);
+    }
+
+    if (millis <= 0) {
+      conf.clearProperty(Keys.MISSING_CACHE_TIMEOUT);
+    } else {
+      conf.setProperty(Keys.MISSING_CACHE_TIMEOUT, millis);
+    }
+
+    return this;
+  }
+
   public int getQueryThreads() {
     return conf.getInt(Keys.QUERY_THREADS);
   }
@@ -723,6 +896,54 @@ implements Serializable, Cloneable {
     return this;
   }
 
+  public int getAutoSplits() {
+    return conf.getInt(Keys.AUTO_SPLITS, -1);
+  }
+
+  /**
+   * Number of tablets that tables keyed by element id are
+   * split into when created, so that writes to a new graph are
+   * spread across tablet servers. Splits are computed from the
+   * sample given by {@link #setSplitSample(String[])}, if any, or
+   * else assume ids generated by {@link AccumuloGraphUtils#generateId()}.
+   * Index tables are keyed by property values, whose distribution is
+   * not known in advance, and are not split; see
+   * {@link AccumuloGraph#computeSplits(int)} for existing tables.
+   * Ignored when splits are given by {@link #setSplits(String)}.
+   * If unset or less than two, tables are not split.
+   * @param tablets
+   * @return
+   */
+  public AccumuloGraphConfiguration setAutoSplits(int tablets) {
+    if (tablets <= 1) {
+      conf.clearProperty(Keys.AUTO_SPLITS);
+    } else {
+      conf.setProperty(Keys.AUTO_SPLITS, tablets);
+    }
+    return this;
+  }
+
+  public String[] getSplitSample() {
+    return conf.containsKey(Keys.SPLIT_SAMPLE) ?
+        conf.getStringArray(Keys.SPLIT_SAMPLE) : null;
+  }
+
+  /**
+   * Sample of the element ids to be written, used to compute
+   * splits for {@link #setAutoSplits(int)} when ids are not
+   * generated by AccumuloGraph.
+   * @param ids
+   * @return
+   */
+  public AccumuloGraphConfiguration setSplitSample(String[] ids) {
+    if (ids == null || ids.length == 0) {
+      conf.clearProperty(Keys.SPLIT_SAMPLE);
+    } else {
+      conf.setProperty(Keys.SPLIT_SAMPLE, Arrays.asList(ids));
+    }
+    return this;
+  }
+
   public boolean getAutoFlush() {
     return conf.getBoolean(Keys.AUTO_FLUSH);
   }
@@ -746,6 +967,64 @@ implements Serializable, Cloneable {
     return this;
   }
 
+  public boolean getGroupCommit() {
+    return conf.getBoolean(Keys.GROUP_COMMIT);
+  }
+
+  /**
+   * With autoflush enabled, whether updates should be
+   * flushed in groups by a background thread (true) rather
+   * than individually by the updating thread (false).
+   * Updates return without waiting for their data to be
+   * durable; use {@link AccumuloGraph#flushAsync()} to be
+   * notified when it is, or {@link AccumuloGraph#flush()}
+   * to wait for it. Until then, reads of the updated
+   * elements are only consistent when served from the element
+   * and property caches. Defaults to false.
+   * @param groupCommit
+   * @return
+   */
+  public AccumuloGraphConfiguration setGroupCommit(boolean groupCommit) {
+    conf.setProperty(Keys.GROUP_COMMIT, groupCommit);
+    return this;
+  }
+
+  public long getGroupCommitLatency() {
+    return conf.getLong(Keys.GROUP_COMMIT_LATENCY);
+  }
+
+  /**
+   * Maximum time an update waits for its group to be
+   * flushed when group commit is enabled (milliseconds).
+   * @param millis
+   * @return
+   */
+  public AccumuloGraphConfiguration setGroupCommitLatency(long millis) {
+    if (millis < 0) {
+      throw new IllegalArgumentException("Group commit latency must be a positive number, or '0' for no wait.");
+    }
+    conf.setProperty(Keys.GROUP_COMMIT_LATENCY, millis);
+    return this;
+  }
+
+  public int getGroupCommitSize() {
+    return conf.getInt(Keys.GROUP_COMMIT_SIZE);
+  }
+
+  /**
+   * Number of updates after which a group is flushed
+   * without waiting for the group commit latency.
+   * @param size
+   * @return
+   */
+  public AccumuloGraphConfiguration setGroupCommitSize(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Group commit size must be a positive number.");
+    }
+    conf.setProperty(Keys.GROUP_COMMIT_SIZE, size);
+    return this;
+  }
+
   public String getGraphName() {
     return conf.getString(Keys.GRAPH_NAME);
   }
@@ -793,6 +1072,375 @@ implements Serializable, Cloneable {
     return this;
   }
 
+  public ValueEncoding getValueEncoding() {
+    return ValueEncoding.valueOf(conf.getString(Keys.VALUE_ENCODING));
+  }
+
+  /**
+   * Encoding used when writing property values and index entries.
+   * {@link ValueEncoding#Binary} stores numbers and dates so that
+   * their byte order matches their natural order, which allows
+   * range queries over key indexes. Data written with either encoding
+   * can always be read, but index lookups only match values written
+   * with the current encoding, so existing indexes must be rebuilt
+   * when changing this on a populated graph. Defaults to
+   * {@link ValueEncoding#Text}.
+   * @param encoding
+   * @return
+   */
+  public AccumuloGraphConfiguration setValueEncoding(ValueEncoding encoding) {
+    if (encoding == null) {
+      throw new NullPointerException("Value encoding cannot be null.");
+    }
+
+    conf.setProperty(Keys.VALUE_ENCODING, encoding.name());
+    return this;
+  }
+
+  public KeyEncoding getKeyEncoding() {
+    return KeyEncoding.valueOf(conf.getString(Keys.KEY_ENCODING));
+  }
+
+  /**
+   * Encoding of the ids and labels in new edge entries.
+   * {@link KeyEncoding#Binary} stores length-prefixed ids instead
+   * of joining them with a delimiter, which makes edge entries
+   * smaller and cheaper to decode. Entries written with either
+   * encoding can always be read, including by label-restricted
+   * traversals, but older versions of this library can only read
+   * {@link KeyEncoding#Text}, which is the default.
+   * @param encoding
+   * @return
+   */
+  public AccumuloGraphConfiguration setKeyEncoding(KeyEncoding encoding) {
+    if (encoding == null) {
+      throw new NullPointerException("Key encoding cannot be null.");
+    }
+
+    conf.setProperty(Keys.KEY_ENCODING, encoding.name());
+    return this;
+  }
+
+  public boolean getDegreeCounters() {
+    return conf.getBoolean(Keys.DEGREE_COUNTERS);
+  }
+
+  /**
+   * Whether to keep a count of each vertex's edges by direction
+   * and label in the vertex table, so that
+   * {@link AccumuloVertex#getDegree(com.tinkerpop.blueprints.Direction, String...)}
+   * reads counters rather than counting edges. Adding and removing
+   * edges then also updates the counters, which are added up by
+   * a combiner attached to the vertex table when the graph is
+   * opened with this enabled.
+   * <p/>Only edges written while this is enabled are counted,
+   * so it should be set when the graph is created. Re-adding an
+   * edge with an existing id does not count it again, unless
+   * existence checks are skipped. The bulk ingesters do not check,
+   * so ingesting an edge twice, e.g. when retrying an ingest into
+   * the same graph, counts it twice. Default is false.
+   * See {@link DegreeCounters}.
+   * @param degreeCounters
+   * @return
+   */
+  public AccumuloGraphConfiguration setDegreeCounters(boolean degreeCounters) {
+    conf.setProperty(Keys.DEGREE_COUNTERS, degreeCounters);
+    return this;
+  }
+
+  public AdjacencyLayout getAdjacencyLayout() {
+    return AdjacencyLayout.valueOf(conf.getString(Keys.ADJACENCY_LAYOUT));
+  }
+
+  /**
+   * Layout of the edge endpoint entries in the vertex table.
+   * With {@link AdjacencyLayout#LabelPartitioned}, the edge label
+   * is the first part of the column qualifier, so traversals
+   * restricted to some labels only read those labels' entries
+   * instead of all of the vertex's edges. Entries written with
+   * either layout can always be read. The layouts used are
+   * recorded in the index metadata table; if the graph has
+   * ever been written with the flat layout, label-restricted
+   * traversals read and filter all entries as with the flat
+   * layout, so this should be chosen when the graph is created.
+   * Defaults to {@link AdjacencyLayout#Flat}.
+   * @param layout
+   * @return
+   */
+  public AccumuloGraphConfiguration setAdjacencyLayout(AdjacencyLayout layout) {
+    if (layout == null) {
+      throw new NullPointerException("Adjacency layout cannot be null.");
+    }
+
+    conf.setProperty(Keys.ADJACENCY_LAYOUT, layout.name());
+    return this;
+  }
+
+  public String getBulkImportDir() {
+    return conf.getString(Keys.BULK_IMPORT_DIR);
+  }
+
+  /**
+   * Directory, on the file system used by Accumulo, in which
+   * {@link AccumuloBulkIngester} writes RFiles for bulk import,
+   * instead of writing through batch writers. This avoids the
+   * write-ahead log and minor compactions for large initial loads.
+   * A subdirectory is used for each table, which must not
+   * already exist. If unset, batch writers are used.
+   * @param dir
+   * @return
+   */
+  public AccumuloGraphConfiguration setBulkImportDir(String dir) {
+    if (dir == null) {
+      conf.clearProperty(Keys.BULK_IMPORT_DIR);
+    } else {
+      conf.setProperty(Keys.BULK_IMPORT_DIR, dir);
+    }
+    return this;
+  }
+
+  public int getBulkImportBufferSize() {
+    return conf.getInt(Keys.BULK_IMPORT_BUFFER_SIZE);
+  }
+
+  /**
+   * Number of entries per table that are sorted in memory
+   * before being spilled to disk, when bulk importing with
+   * {@link #setBulkImportDir(String)}. Spilled runs are merged
+   * when the ingester is shut down. Default is 1000000.
+   * @param size
+   * @return
+   */
+  public AccumuloGraphConfiguration setBulkImportBufferSize(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Buffer size must be positive");
+    }
+    conf.setProperty(Keys.BULK_IMPORT_BUFFER_SIZE, size);
+    return this;
+  }
+
+  public boolean getTableBloomFilter() {
+    return conf.getBoolean(Keys.TABLE_BLOOM_FILTER);
+  }
+
+  /**
+   * Whether to enable row Bloom filters on graph tables
+   * other than the index metadata table. This speeds up lookups
+   * of single vertices, edges and indexed values, especially
+   * of ones that do not exist. Default is false.
+   * <p/>Table settings are applied when tables are created, and by
+   * {@link AccumuloGraph#applyTableProfile()}. Each setting can be
+   * overridden for one kind of table (see {@link TableType}),
+   * as with {@link #setTableBloomFilter(TableType, boolean)}.
+   * @param bloomFilter
+   * @return
+   */
+  public AccumuloGraphConfiguration setTableBloomFilter(boolean bloomFilter) {
+    conf.setProperty(Keys.TABLE_BLOOM_FILTER, bloomFilter);
+    return this;
+  }
+
+  /**
+   * Whether row Bloom filters are enabled on tables of the given
+   * kind: the setting for that kind if there is one, or else
+   * {@link #getTableBloomFilter()}, except for the index
+   * metadata table.
+   * @param type
+   * @return
+   */
+  public boolean getTableBloomFilter(TableType type) {
+    String key = getTableKey(Keys.TABLE_BLOOM_FILTER, type);
+    if (conf.containsKey(key)) {
+      return conf.getBoolean(key);
+    }
+    return !TableType.Metadata.equals(type) && getTableBloomFilter();
+  }
+
+  /**
+   * Set whether to enable row Bloom filters on tables of
+   * the given kind, overriding {@link #setTableBloomFilter(boolean)}.
+   * @param type
+   * @param bloomFilter
+   * @return
+   */
+  public AccumuloGraphConfiguration setTableBloomFilter(TableType type,
+      boolean bloomFilter) {
+    conf.setProperty(getTableKey(Keys.TABLE_BLOOM_FILTER, type), bloomFilter);
+    return this;
+  }
+
+  public boolean getTableBlockCache() {
+    return conf.getBoolean(Keys.TABLE_BLOCK_CACHE);
+  }
+
+  /**
+   * Whether tablet servers should cache data blocks, as well as
+   * index blocks, of graph tables. Default is false.
+   * See {@link #setTableBloomFilter(boolean)}.
+   * @param blockCache
+   * @return
+   */
+  public AccumuloGraphConfiguration setTableBlockCache(boolean blockCache) {
+    conf.setProperty(Keys.TABLE_BLOCK_CACHE, blockCache);
+    return this;
+  }
+
+  public boolean getTableBlockCache(TableType type) {
+    String key = getTableKey(Keys.TABLE_BLOCK_CACHE, type);
+    return conf.containsKey(key) ? conf.getBoolean(key) : getTableBlockCache();
+  }
+
+  /**
+   * Set whether tablet servers should cache data blocks of tables
+   * of the given kind, overriding {@link #setTableBlockCache(boolean)}.
+   * @param type
+   * @param blockCache
+   * @return
+   */
+  public AccumuloGraphConfiguration setTableBlockCache(TableType type,
+      boolean blockCache) {
+    conf.setProperty(getTableKey(Keys.TABLE_BLOCK_CACHE, type), blockCache);
+    return this;
+  }
+
+  public String getTableCompression() {
+    return conf.getString(Keys.TABLE_COMPRESSION);
+  }
+
+  /**
+   * Compression codec for graph tables, e.g. "gz",
+   * "snappy" or "none". If unset, Accumulo's default is used.
+   * See {@link #setTableBloomFilter(boolean)}.
+   * @param compression
+   * @return
+   */
+  public AccumuloGraphConfiguration setTableCompression(String compression) {
+    if (compression == null) {
+      conf.clearProperty(Keys.TABLE_COMPRESSION);
+    } else {
+      conf.setProperty(Keys.TABLE_COMPRESSION, compression);
+    }
+    return this;
+  }
+
+  public String getTableCompression(TableType type) {
+    String key = getTableKey(Keys.TABLE_COMPRESSION, type);
+    return conf.containsKey(key) ? conf.getString(key) : getTableCompression();
+  }
+
+  /**
+   * Compression codec for tables of the given kind, overriding
+   * {@link #setTableCompression(String)}. If null, the
+   * override is removed.
+   * @param type
+   * @param compression
+   * @return
+   */
+  public AccumuloGraphConfiguration setTableCompression(TableType type,
+      String compression) {
+    if (compression == null) {
+      conf.clearProperty(getTableKey(Keys.TABLE_COMPRESSION, type));
+    } else {
+      conf.setProperty(getTableKey(Keys.TABLE_COMPRESSION, type), compression);
+    }
+    return this;
+  }
+
+  public boolean getTableLocalityGroups() {
+    return conf.getBoolean(Keys.TABLE_LOCALITY_GROUPS);
+  }
+
+  /**
+   * Whether to store the edge endpoint entries of the vertex
+   * table in their own locality group, so that scans of vertex
+   * properties and scans of adjacent edges do not read each
+   * other's data. Default is false.
+   * See {@link #setTableBloomFilter(boolean)}.
+   * @param localityGroups
+   * @return
+   */
+  public AccumuloGraphConfiguration setTableLocalityGroups(boolean localityGroups) {
+    conf.setProperty(Keys.TABLE_LOCALITY_GROUPS, localityGroups);
+    return this;
+  }
+
+  public int getTableMaxVersions() {
+    return conf.getInt(Keys.TABLE_MAX_VERSIONS, -1);
+  }
+
+  /**
+   * Number of versions of each entry kept by the
+   * versioning iterator of graph tables. If unset or
+   * non-positive, Accumulo's default (one version) is used.
+   * See {@link #setTableBloomFilter(boolean)}.
+   * @param maxVersions
+   * @return
+   */
+  public AccumuloGraphConfiguration setTableMaxVersions(int maxVersions) {
+    if (maxVersions <= 0) {
+      conf.clearProperty(Keys.TABLE_MAX_VERSIONS);
+    } else {
+      conf.setProperty(Keys.TABLE_MAX_VERSIONS, maxVersions);
+    }
+    return this;
+  }
+
+  public int getTableMaxVersions(TableType type) {
+    String key = getTableKey(Keys.TABLE_MAX_VERSIONS, type);
+    return conf.containsKey(key) ? conf.getInt(key) : getTableMaxVersions();
+  }
+
+  /**
+   * Number of versions of each entry kept in tables of the
+   * given kind, overriding {@link #setTableMaxVersions(int)}.
+   * If non-positive, the override is removed.
+   * @param type
+   * @param maxVersions
+   * @return
+   */
+  public AccumuloGraphConfiguration setTableMaxVersions(TableType type,
+      int maxVersions) {
+    if (maxVersions <= 0) {
+      conf.clearProperty(getTableKey(Keys.TABLE_MAX_VERSIONS, type));
+    } else {
+      conf.setProperty(getTableKey(Keys.TABLE_MAX_VERSIONS, type), maxVersions);
+    }
+    return this;
+  }
+
+  /**
+   * Configuration key of a table setting for tables of the
+   * given kind, e.g. blueprints.accumulo.table.compression.Vertex.
+   * @param key
+   * @param type
+   * @return
+   */
+  private static String getTableKey(String key, TableType type) {
+    return key + "." + type.name();
+  }
+
+  /**
+   * Return the kind of the given table of this graph. Tables
+   * not otherwise recognized are named index tables.
+   * @param table
+   * @return
+   */
+  public TableType getTableType(String table) {
+    if (table.equals(getVertexTableName())) {
+      return TableType.Vertex;
+    } else if (table.equals(getEdgeTableName())) {
+      return TableType.Edge;
+    } else if (table.equals(getVertexKeyIndexTableName()) ||
+        table.equals(getEdgeKeyIndexTableName())) {
+      return TableType.KeyIndex;
+    } else if (table.equals(getReverseIndexTableName())) {
+      return TableType.ReverseIndex;
+    } else if (table.equals(getIndexMetadataTableName())) {
+      return TableType.Metadata;
+    }
+    return TableType.NamedIndex;
+  }
+
   public String[] getPreloadedProperties() {
     return conf.containsKey(Keys.PRELOADED_PROPERTIES) ?
         conf.getStringArray(Keys.PRELOADED_PROPERTIES) : null;
@@ -934,6 +1582,12 @@ implements Serializable, Cloneable {
    */
   public Connector getConnector() throws AccumuloException, AccumuloSecurityException,
   IOException, InterruptedException {
+    if (InstanceType.Mini.equals(getInstanceType()) &&
+        connector != null && connector != miniCluster.connector) {
+      // The cluster was stopped by the configuration that started it.
+      connector = null;
+    }
+
     if (connector == null) {
       Instance inst = null;
       switch (getInstanceType()) {
@@ -947,22 +1601,8 @@ implements Serializable, Cloneable {
           break;
 
         case Mini:
-          File dir = null;
-          if (miniClusterTempDir == null) {
-            dir = createTempDir();
-            dir.deleteOnExit();
-          } else {
-            // already set by setMiniClusterTempDir(), It should be cleaned up outside of this class.
-            dir = new File(miniClusterTempDir);
-          }
-          accumuloMiniCluster = new MiniAccumuloCluster(dir, ""); // conf.getString(PASSWORD)
-          try {
-            accumuloMiniCluster.start();
-          } catch (Exception ex) {
-            throw new AccumuloGraphException(ex);
-          }
-          inst = new ZooKeeperInstance(accumuloMiniCluster.getInstanceName(), accumuloMiniCluster.getZooKeepers());
-          throw new UnsupportedOperationException("TODO");
+          connector = getMiniClusterConnector();
+          break;
 
         case Mock:
           inst = new MockInstance(getInstanceName());
@@ -972,7 +1612,9 @@ implements Serializable, Cloneable {
           throw new AccumuloGraphException("Unexpected instance type: " + inst);
       }
       
-      connector = inst.getConnector(getUser(), new PasswordToken(getPassword()));
+      if (inst != null) {
+        connector = inst.getConnector(getUser(), new PasswordToken(getPassword()));
+      }
 
       // Make the configuration immutable.
       conf.addConfigurationListener(new ConfigurationListener() {
@@ -1008,7 +1650,7 @@ implements Serializable, Cloneable {
   /**
    * Used by JUnit Tests to set the miniClusterTempDirectory.
    * If not set in advance of a test, getConnector will use a
-   * Java Temporary Folder which will not be deleted afterwards.
+   * Java Temporary Folder, which is deleted by {@link #stopMiniCluster()}.
    * 
    * @param miniClusterTempDir
    */
@@ -1017,6 +1659,212 @@ implements Serializable, Cloneable {
     return this;
   }
 
+  public int getMiniClusterTabletServers() {
+    return conf.getInt(Keys.MINI_TABLET_SERVERS);
+  }
+
+  /**
+   * Number of tablet servers started for the {@link InstanceType#Mini}
+   * instance type. Default is 2.
+   * @param servers
+   * @return
+   */
+  public AccumuloGraphConfiguration setMiniClusterTabletServers(int servers) {
+    if (servers <= 0) {
+      throw new IllegalArgumentException("Must have at least one tablet server");
+    }
+    conf.setProperty(Keys.MINI_TABLET_SERVERS, servers);
+    return this;
+  }
+
+  public long getMiniClusterMemory() {
+    return conf.getLong(Keys.MINI_MEMORY, 0);
+  }
+
+  /**
+   * Size in bytes of each mini cluster tablet server's
+   * in-memory map, which holds recent writes until they
+   * are flushed to files. If unset or non-positive, the
+   * mini cluster's default of 50 MB is used.
+   * <p/>Tablet servers of the mini cluster run with a fixed
+   * heap of 128 MB, which this must fit in.
+   * @param bytes
+   * @return
+   */
+  public AccumuloGraphConfiguration setMiniClusterMemory(long bytes) {
+    if (bytes <= 0) {
+      conf.clearProperty(Keys.MINI_MEMORY);
+    } else {
+      conf.setProperty(Keys.MINI_MEMORY, bytes);
+    }
+    return this;
+  }
+
+  public boolean getMiniClusterDeployIterators() {
+    return conf.getBoolean(Keys.MINI_DEPLOY_ITERATORS);
+  }
+
+  /**
+   * Whether to put the jar or class directory containing
+   * this library on the mini cluster's classpath, so that
+   * its server-side iterators can run on the tablet servers.
+   * The mini cluster's processes already share the classpath
+   * of this JVM, so this is only needed when this library was
+   * not loaded from it. Default is false.
+   * @param deploy
+   * @return
+   */
+  public AccumuloGraphConfiguration setMiniClusterDeployIterators(boolean deploy) {
+    conf.setProperty(Keys.MINI_DEPLOY_ITERATORS, deploy);
+    return this;
+  }
+
+  /**
+   * Stop the mini cluster started by {@link #getConnector()}
+   * for the {@link InstanceType#Mini} instance type, if any,
+   * discarding its data. This is called by
+   * {@link AccumuloGraph#shutdown()}. Only the configuration
+   * that started the cluster stops it; for its copies, this
+   * does nothing. A later call to {@link #getConnector()}
+   * starts a new cluster.
+   */
+  public void stopMiniCluster() {
+    synchronized (miniCluster) {
+      if (miniCluster.cluster == null || miniCluster.owner != this) {
+        return;
+      }
+
+      try {
+        miniCluster.cluster.stop();
+        if (miniClusterTempDir == null) {
+          deleteRecursively(miniCluster.dir.toPath());
+        }
+      } catch (Exception e) {
+        throw new AccumuloGraphException(e);
+      } finally {
+        miniCluster.cluster = null;
+        miniCluster.dir = null;
+        miniCluster.owner = null;
+        miniCluster.connector = null;
+        connector = null;
+      }
+    }
+  }
+
+  /**
+   * Return a connector to the mini cluster shared with
+   * copies of this configuration, starting it if needed.
+   * @return
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  private Connector getMiniClusterConnector() throws AccumuloException,
+      AccumuloSecurityException, IOException, InterruptedException {
+    synchronized (miniCluster) {
+      if (miniCluster.cluster == null) {
+        File dir = miniClusterTempDir == null ?
+            createTempDir() : new File(miniClusterTempDir);
+        miniCluster.cluster = createMiniCluster(dir);
+        miniCluster.dir = dir;
+        miniCluster.owner = this;
+        miniCluster.connector = new ZooKeeperInstance(
+            miniCluster.cluster.getInstanceName(), miniCluster.cluster.getZooKeepers())
+            .getConnector(getUser(), new PasswordToken(getPassword()));
+      }
+      return miniCluster.connector;
+    }
+  }
+
+  private MiniAccumuloCluster createMiniCluster(File dir) throws IOException, InterruptedException {
+
+    Map<String, String> siteConfig = new HashMap<String, String>();
+    if (getMiniClusterMemory() > 0) {
+      siteConfig.put(Property.TSERV_MAXMEM.getKey(),
+          Long.toString(getMiniClusterMemory()));
+    }
+
+    MiniAccumuloConfig miniConfig = new MiniAccumuloConfig(dir, getPassword())
+        .setNumTservers(getMiniClusterTabletServers())
+        .setSiteConfig(siteConfig);
+    MiniAccumuloCluster cluster = new MiniAccumuloCluster(miniConfig);
+
+    if (getMiniClusterDeployIterators()) {
+      // Jars in the lib directory are on the servers' classpath.
+      deployLibrary(new File(dir, "lib"));
+    }
+
+    cluster.start();
+    return cluster;
+  }
+
+  /**
+   * A mini cluster, the directory it runs in, the
+   * configuration that started it and a connector to it.
+   */
+  private static class MiniCluster {
+    MiniAccumuloCluster cluster;
+    File dir;
+    AccumuloGraphConfiguration owner;
+    Connector connector;
+  }
+
+  /**
+   * Copy the jar containing this library to the given
+   * directory, or create one if it was loaded from classes.
+   * @param libDir
+   * @throws IOException
+   */
+  private static void deployLibrary(File libDir) throws IOException {
+    final Path source;
+    try {
+      source = Paths.get(AccumuloGraph.class.getProtectionDomain()
+          .getCodeSource().getLocation().toURI());
+    } catch (URISyntaxException e) {
+      throw new IOException(e);
+    }
+
+    Path target = new File(libDir, "accumulo-graph.jar").toPath();
+    if (!Files.isDirectory(source)) {
+      Files.copy(source, target);
+      return;
+    }
+
+    final JarOutputStream jar = new JarOutputStream(Files.newOutputStream(target));
+    try {
+      Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+            throws IOException {
+          jar.putNextEntry(new JarEntry(source.relativize(file)
+              .toString().replace(File.separatorChar, '/')));
+          Files.copy(file, jar);
+          jar.closeEntry();
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } finally {
+      jar.close();
+    }
+  }
+
+  private static void deleteRecursively(Path dir) throws IOException {
+    Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+          throws IOException {
+        Files.delete(file);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult postVisitDirectory(Path dir, IOException e)
+          throws IOException {
+        Files.delete(dir);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
   /**
    * Name of vertex table (keyed by vertex id).
    * @return
@@ -1069,10 +1917,19 @@ implements Serializable, Cloneable {
     return getGraphName() + "_index_metadata";
   }
 
+  /**
+   * Table recording the named index entries
+   * of each element (keyed by element id).
+   * @return
+   */
+  public String getReverseIndexTableName() {
+    return getGraphName() + "_reverse_index";
+  }
+
   List<String> getTableNames() {
     return Arrays.asList(getVertexTableName(),
         getEdgeTableName(), getVertexKeyIndexTableName(), getEdgeKeyIndexTableName(),
-        getIndexMetadataTableName());
+        getIndexMetadataTableName(), getReverseIndexTableName());
   }
 
   /**
@@ -1086,9 +1943,10 @@ implements Serializable, Cloneable {
         checkPropertyValue(Keys.ZK_HOSTS, getZooKeeperHosts(), false);
         checkPropertyValue(Keys.USER, getUser(), false);
         checkPropertyValue(Keys.PASSWORD, getPassword(), false);
+        checkPropertyValue(Keys.INSTANCE, getInstanceName(), false);
         // no break intentional
       case Mini:
-        checkPropertyValue(Keys.INSTANCE, getInstanceName(), false);
+        // The mini cluster chooses its own instance name.
         checkPropertyValue(Keys.PASSWORD, getPassword(), true);
         // no break intentional
       case Mock:
@@ -0,0 +1,306 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static com.tinkerpop.blueprints.Compare.EQUAL;
+import static com.tinkerpop.blueprints.Compare.GREATER_THAN;
+import static com.tinkerpop.blueprints.Compare.GREATER_THAN_EQUAL;
+import static com.tinkerpop.blueprints.Compare.LESS_THAN;
+import static com.tinkerpop.blueprints.Compare.LESS_THAN_EQUAL;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Iterables;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.DefaultGraphQuery;
+import com.tinkerpop.blueprints.util.StringFactory;
+
+import edu.jhuapl.tinkerpop.iterators.PropertyFilterIterator;
+
+/**
+ * {@link com.tinkerpop.blueprints.GraphQuery} implementation
+ * that evaluates as much of the query as possible in Accumulo.
+ * <ol>
+ * <li>If the query has an equality condition on an indexed key,
+ * the key index is used as in {@link DefaultGraphQuery}.</li>
+ * <li>Otherwise, if it has range conditions on an indexed key,
+ * candidates are read from the key index using the
+ * bounds given for that key.</li>
+ * <li>Otherwise, the element table is scanned with the
+ * conditions applied on the tablet servers by
+ * {@link PropertyFilterIterator}, so only matching
+ * elements are returned.</li>
+ * </ol>
+ * Conditions that cannot be evaluated by the server,
+ * such as custom predicates, are checked on the client.
+ */
+public class AccumuloGraphQuery extends DefaultGraphQuery {
+
+  private final AccumuloGraph parent;
+  private final GlobalInstances globals;
+
+  public AccumuloGraphQuery(AccumuloGraph graph, GlobalInstances globals) {
+    super(graph);
+    this.parent = graph;
+    this.globals = globals;
+  }
+
+  @Override
+  public Iterable<Vertex> vertices() {
+    if (hasIndexedEquality(Vertex.class)) {
+      return super.vertices();
+    }
+
+    Iterable<Vertex> candidates = getIndexRangeCandidates(Vertex.class);
+    if (candidates != null) {
+      return filter(candidates, hasContainers, limit);
+    }
+
+    return filter(globals.getVertexWrapper().getVertices(
+        getPropertyFilter(hasContainers, Vertex.class),
+        getFilteredKeys(hasContainers, Vertex.class)),
+        getClientConditions(hasContainers, Vertex.class), limit);
+  }
+
+  @Override
+  public Iterable<Edge> edges() {
+    if (hasIndexedEquality(Edge.class)) {
+      return super.edges();
+    }
+
+    Iterable<Edge> candidates = getIndexRangeCandidates(Edge.class);
+    if (candidates != null) {
+      return filter(candidates, hasContainers, limit);
+    }
+
+    return filter(globals.getEdgeWrapper().getEdges(
+        getPropertyFilter(hasContainers, Edge.class),
+        getFilteredKeys(hasContainers, Edge.class)),
+        getClientConditions(hasContainers, Edge.class), limit);
+  }
+
+  private boolean hasIndexedEquality(Class<? extends Element> elementClass) {
+    for (HasContainer has : hasContainers) {
+      if (EQUAL == getCompare(has) && has.value != null &&
+          parent.isKeyIndexed(elementClass, has.key)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Read candidate elements from the key index using
+   * the range conditions on the first indexed key that has any.
+   * Returns null if the key index cannot be used this way.
+   * @param elementClass
+   * @return
+   */
+  @SuppressWarnings("unchecked")
+  private <T extends Element> Iterable<T> getIndexRangeCandidates(Class<T> elementClass) {
+    for (HasContainer has : hasContainers) {
+      if (!isRangePredicate(has) ||
+          !parent.isKeyIndexed(elementClass, has.key)) {
+        continue;
+      }
+
+      // Tightest bounds given for this key.
+      Object from = null;
+      Object to = null;
+      boolean fromInclusive = true;
+      boolean toInclusive = true;
+      for (HasContainer other : hasContainers) {
+        if (!has.key.equals(other.key) || !isRangePredicate(other) ||
+            !has.value.getClass().equals(other.value.getClass())) {
+          continue;
+        }
+        if (GREATER_THAN == getCompare(other) ||
+            GREATER_THAN_EQUAL == getCompare(other)) {
+          boolean inclusive = GREATER_THAN_EQUAL == getCompare(other);
+          int cmp = from == null ? 1 : compare(other.value, from);
+          if (cmp > 0) {
+            from = other.value;
+            fromInclusive = inclusive;
+          } else if (cmp == 0) {
+            fromInclusive &= inclusive;
+          }
+        } else {
+          boolean inclusive = LESS_THAN_EQUAL == getCompare(other);
+          int cmp = to == null ? -1 : compare(other.value, to);
+          if (cmp < 0) {
+            to = other.value;
+            toInclusive = inclusive;
+          } else if (cmp == 0) {
+            toInclusive &= inclusive;
+          }
+        }
+      }
+
+      if (!parent.isIndexRangeQueryable(elementClass, has.key, from, to)) {
+        continue;
+      }
+
+      if (Vertex.class.equals(elementClass)) {
+        return (Iterable<T>) parent.getVertices(has.key, from, fromInclusive, to, toInclusive);
+      } else {
+        return (Iterable<T>) parent.getEdges(has.key, from, fromInclusive, to, toInclusive);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Apply the given conditions and limit to the given elements.
+   * @param elements
+   * @param conditions
+   * @param limit
+   * @return
+   */
+  static <T extends Element> Iterable<T> filter(Iterable<T> elements,
+      final List<HasContainer> conditions, int limit) {
+    if (!conditions.isEmpty()) {
+      elements = Iterables.filter(elements, new Predicate<T>() {
+        @Override
+        public boolean apply(T element) {
+          for (HasContainer has : conditions) {
+            if (!has.isLegal(element)) {
+              return false;
+            }
+          }
+          return true;
+        }
+      });
+    }
+    return Iterables.limit(elements, limit);
+  }
+
+  /**
+   * Whether the given condition can be evaluated by
+   * {@link PropertyFilterIterator} on the given element table.
+   * @param has
+   * @param elementClass
+   * @return
+   */
+  static boolean isServerCondition(HasContainer has,
+      Class<? extends Element> elementClass) {
+    return getCompare(has) != null &&
+        !StringFactory.ID.equals(has.key);
+  }
+
+  /**
+   * Return the element table column holding the value for the
+   * given condition's key.
+   */
+  private static String getColumn(HasContainer has,
+      Class<? extends Element> elementClass) {
+    return Edge.class.equals(elementClass) &&
+        StringFactory.LABEL.equals(has.key) ? Constants.LABEL : has.key;
+  }
+
+  /**
+   * Return a row filter evaluating the server-side conditions,
+   * or null if there are none.
+   * @param conditions
+   * @param elementClass
+   * @return
+   */
+  static IteratorSetting getPropertyFilter(List<HasContainer> conditions,
+      Class<? extends Element> elementClass) {
+    IteratorSetting is = null;
+    for (HasContainer has : conditions) {
+      if (isServerCondition(has, elementClass)) {
+        if (is == null) {
+          is = new IteratorSetting(10, "propertyFilter", PropertyFilterIterator.class);
+        }
+        PropertyFilterIterator.addCondition(is, getColumn(has, elementClass),
+            getCompare(has), has.value);
+      }
+    }
+    return is;
+  }
+
+  /**
+   * Return the property keys needed by the server-side conditions.
+   * @param conditions
+   * @param elementClass
+   * @return
+   */
+  static String[] getFilteredKeys(List<HasContainer> conditions,
+      Class<? extends Element> elementClass) {
+    Set<String> keys = new LinkedHashSet<String>();
+    for (HasContainer has : conditions) {
+      if (isServerCondition(has, elementClass)) {
+        keys.add(getColumn(has, elementClass));
+      }
+    }
+    return keys.toArray(new String[keys.size()]);
+  }
+
+  /**
+   * Return the conditions that must be checked on the client.
+   * @param conditions
+   * @param elementClass
+   * @return
+   */
+  static List<HasContainer> getClientConditions(List<HasContainer> conditions,
+      Class<? extends Element> elementClass) {
+    List<HasContainer> client = new ArrayList<HasContainer>();
+    for (HasContainer has : conditions) {
+      if (!isServerCondition(has, elementClass)) {
+        client.add(has);
+      }
+    }
+    return client;
+  }
+
+  /**
+   * Return the comparison made by the given condition,
+   * or null if it is not a comparison. This also accepts
+   * the deprecated {@link com.tinkerpop.blueprints.Query.Compare}.
+   * @param has
+   * @return
+   */
+  @SuppressWarnings("deprecation")
+  static com.tinkerpop.blueprints.Compare getCompare(HasContainer has) {
+    if (has.predicate instanceof com.tinkerpop.blueprints.Compare) {
+      return (com.tinkerpop.blueprints.Compare) has.predicate;
+    } else if (has.predicate instanceof com.tinkerpop.blueprints.Query.Compare) {
+      return com.tinkerpop.blueprints.Compare.valueOf(
+          ((com.tinkerpop.blueprints.Query.Compare) has.predicate).name());
+    }
+    return null;
+  }
+
+  private static boolean isRangePredicate(HasContainer has) {
+    return has.value instanceof Comparable &&
+        (GREATER_THAN == getCompare(has) ||
+        GREATER_THAN_EQUAL == getCompare(has) ||
+        LESS_THAN == getCompare(has) ||
+        LESS_THAN_EQUAL == getCompare(has));
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static int compare(Object first, Object second) {
+    return ((Comparable) first).compareTo(second);
+  }
+}
@@ -14,15 +14,36 @@
  */
 package edu.jhuapl.tinkerpop;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.UUID;
 
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Scanner;
 import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
 import org.apache.hadoop.io.Text;
 
+import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.util.ExceptionFactory;
 import com.tinkerpop.blueprints.util.StringFactory;
 
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.AdjacencyLayout;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.TableType;
+import edu.jhuapl.tinkerpop.Constants.IndexMetadataEntryType;
+import edu.jhuapl.tinkerpop.mutator.Mutators;
+import edu.jhuapl.tinkerpop.mutator.index.IndexMetadataMutator;
+
 public final class AccumuloGraphUtils {
 
   /**
@@ -50,7 +71,8 @@ public final class AccumuloGraphUtils {
       }
       // Tables exist, and we are not clearing them.
       else if (existedBeforeClear && !cfg.getClear()) {
-        // Do nothing.
+        recordAdjacencyLayout(cfg);
+        attachDegreeCombiner(cfg);
         return;
       }
 
@@ -67,20 +89,173 @@ public final class AccumuloGraphUtils {
       if (existedBeforeClear || cfg.getCreate()) {
         for (String table : cfg.getTableNames()) {
           if (!tableOps.exists(table)) {
-            tableOps.create(table);
-            SortedSet<Text> splits = cfg.getSplits();
-            if (splits != null) {
-              tableOps.addSplits(table, splits);
-            }
+            createTable(cfg, table);
           }
         }
       }
+      recordAdjacencyLayout(cfg);
 
     } catch (Exception e) {
       throw new IllegalArgumentException(e);
     }
   }
 
+  /**
+   * Attach the combiner of the degree counters to an
+   * existing vertex table, if counters are enabled
+   * and it is not attached yet.
+   * @param cfg
+   * @throws Exception
+   */
+  static void attachDegreeCombiner(AccumuloGraphConfiguration cfg) throws Exception {
+    TableOperations tableOps = cfg.getConnector().tableOperations();
+    String table = cfg.getVertexTableName();
+    if (cfg.getDegreeCounters() && tableOps.exists(table) &&
+        !tableOps.listIterators(table).containsKey(DegreeCounters.COMBINER_NAME)) {
+      tableOps.attachIterator(table, DegreeCounters.getCombinerSetting());
+    }
+  }
+
+  /**
+   * Record in the index metadata table that edge entries are
+   * written with the configured adjacency layout. Graphs with
+   * data but no recorded layout were written before layouts
+   * were recorded, so the flat layout is recorded for them too.
+   * @param cfg
+   * @throws Exception
+   */
+  static void recordAdjacencyLayout(AccumuloGraphConfiguration cfg) throws Exception {
+    Connector connector = cfg.getConnector();
+    Set<AdjacencyLayout> layouts = getAdjacencyLayouts(cfg);
+    if (layouts.contains(cfg.getAdjacencyLayout())) {
+      return;
+    }
+
+    layouts.add(cfg.getAdjacencyLayout());
+    BatchWriter writer = connector.createBatchWriter(
+        cfg.getIndexMetadataTableName(), cfg.getBatchWriterConfig());
+    try {
+      for (AdjacencyLayout layout : layouts) {
+        Mutators.apply(writer, new IndexMetadataMutator.Add(layout.name(),
+            Vertex.class, IndexMetadataEntryType.__ADJACENCY_LAYOUT__));
+      }
+    } finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * Return the adjacency layouts that edge entries in the graph's
+   * vertex table may have been written with, as recorded by
+   * {@link #recordAdjacencyLayout(AccumuloGraphConfiguration)}.
+   * If none are recorded and the vertex table has data,
+   * this is the flat layout.
+   * @param cfg
+   * @return
+   * @throws Exception
+   */
+  static Set<AdjacencyLayout> getAdjacencyLayouts(
+      AccumuloGraphConfiguration cfg) throws Exception {
+    Connector connector = cfg.getConnector();
+    Set<AdjacencyLayout> layouts = EnumSet.noneOf(AdjacencyLayout.class);
+
+    Scanner scan = connector.createScanner(cfg.getIndexMetadataTableName(),
+        cfg.getAuthorizations());
+    scan.fetchColumnFamily(new Text(
+        IndexMetadataEntryType.__ADJACENCY_LAYOUT__.name()));
+    for (Map.Entry<Key, Value> entry : scan) {
+      layouts.add(AdjacencyLayout.valueOf(entry.getKey().getRow().toString()));
+    }
+
+    if (layouts.isEmpty()) {
+      scan = connector.createScanner(cfg.getVertexTableName(),
+          cfg.getAuthorizations());
+      if (scan.iterator().hasNext()) {
+        layouts.add(AdjacencyLayout.Flat);
+      }
+    }
+    return layouts;
+  }
+
+  /**
+   * Create the given graph table, adding the configured
+   * splits and applying the configured table settings.
+   * @param cfg
+   * @param table
+   * @throws Exception
+   */
+  static void createTable(AccumuloGraphConfiguration cfg,
+      String table) throws Exception {
+    TableOperations tableOps = cfg.getConnector().tableOperations();
+    tableOps.create(table);
+
+    SortedSet<Text> splits = cfg.getSplits();
+    if (splits == null && cfg.getAutoSplits() > 1 &&
+        (table.equals(cfg.getVertexTableName()) ||
+            table.equals(cfg.getEdgeTableName()) ||
+            table.equals(cfg.getReverseIndexTableName()))) {
+      splits = cfg.getSplitSample() != null ?
+          SplitCalculator.getSampleSplits(Arrays.asList(cfg.getSplitSample()),
+              cfg.getAutoSplits()) :
+          SplitCalculator.getHexSplits(cfg.getAutoSplits());
+    }
+    if (splits != null) {
+      tableOps.addSplits(table, splits);
+    }
+    applyTableProfile(cfg, table);
+  }
+
+  /**
+   * Apply the configured table settings (see
+   * {@link AccumuloGraphConfiguration#setTableBloomFilter(boolean)})
+   * for the given graph table's kind to the table. Settings
+   * which are not configured are left as they are.
+   * @param cfg
+   * @param table
+   * @throws Exception
+   */
+  static void applyTableProfile(AccumuloGraphConfiguration cfg,
+      String table) throws Exception {
+    TableOperations tableOps = cfg.getConnector().tableOperations();
+
+    TableType type = cfg.getTableType(table);
+    Map<String, String> props = new HashMap<String, String>();
+    if (cfg.getTableBloomFilter(type)) {
+      props.put(Property.TABLE_BLOOM_ENABLED.getKey(), "true");
+    }
+    if (cfg.getTableBlockCache(type)) {
+      props.put(Property.TABLE_BLOCKCACHE_ENABLED.getKey(), "true");
+      props.put(Property.TABLE_INDEXCACHE_ENABLED.getKey(), "true");
+    }
+    if (cfg.getTableCompression(type) != null) {
+      props.put(Property.TABLE_FILE_COMPRESSION_TYPE.getKey(),
+          cfg.getTableCompression(type));
+    }
+    if (cfg.getTableMaxVersions(type) > 0) {
+      for (IteratorScope scope : EnumSet.allOf(IteratorScope.class)) {
+        props.put(Property.TABLE_ITERATOR_PREFIX.getKey() + scope.name() +
+            ".vers.opt.maxVersions", String.valueOf(cfg.getTableMaxVersions(type)));
+      }
+    }
+
+    for (Map.Entry<String, String> prop : props.entrySet()) {
+      tableOps.setProperty(table, prop.getKey(), prop.getValue());
+    }
+
+    if (table.equals(cfg.getVertexTableName())) {
+      attachDegreeCombiner(cfg);
+    }
+
+    if (cfg.getTableLocalityGroups() &&
+        table.equals(cfg.getVertexTableName())) {
+      Set<Text> adjacency = new HashSet<Text>();
+      adjacency.add(new Text(Constants.IN_EDGE));
+      adjacency.add(new Text(Constants.OUT_EDGE));
+      tableOps.setLocalityGroups(table,
+          Collections.singletonMap("adjacency", adjacency));
+    }
+  }
+
   /**
    * Generate an element id.
    * @return
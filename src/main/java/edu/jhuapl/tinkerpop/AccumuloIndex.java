@@ -43,6 +43,7 @@ public class AccumuloIndex<T extends Element> implements Index<T> {
           .tableOperations().exists(getTableName())) {
         globals.getConfig().getConnector()
         .tableOperations().create(getTableName());
+        AccumuloGraphUtils.applyTableProfile(globals.getConfig(), getTableName());
       }
     } catch (Exception e) {
       throw new AccumuloGraphException(e);
@@ -79,9 +80,19 @@ public class AccumuloIndex<T extends Element> implements Index<T> {
     return indexWrapper.readElementsFromIndex(key, value);
   }
 
+  /**
+   * Supports prefix queries on string values, given
+   * as the prefix followed by a trailing <code>*</code>.
+   * Any other query is treated as an exact match.
+   */
   @Override
   public CloseableIterable<T> query(String key, Object query) {
-    throw new UnsupportedOperationException();
+    if (query instanceof String && ((String) query).endsWith("*")) {
+      String prefix = (String) query;
+      return indexWrapper.readElementsFromIndex(key,
+          indexWrapper.getPrefixRange(prefix.substring(0, prefix.length() - 1)));
+    }
+    return get(key, query);
   }
 
   @Override
@@ -14,6 +14,7 @@
  */
 package edu.jhuapl.tinkerpop;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -22,7 +23,6 @@ import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.VertexQuery;
-import com.tinkerpop.blueprints.util.DefaultVertexQuery;
 import com.tinkerpop.blueprints.util.ExceptionFactory;
 
 /**
@@ -44,9 +44,38 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
     return globals.getVertexWrapper().getVertices(this, direction, labels);
   }
 
+  /**
+   * Count this vertex's edges in the given direction with
+   * the given labels, or all labels if none are given.
+   * Edges are counted on the tablet servers, or with
+   * {@link AccumuloGraphConfiguration#setDegreeCounters(boolean)}
+   * the vertex's counters are read, so unlike iterating over
+   * {@link #getEdges(Direction, String...)}, only the
+   * count is sent to the client.
+   * @param direction
+   * @param labels
+   * @return
+   */
+  public long getDegree(Direction direction, String... labels) {
+    Long degree = globals.getVertexWrapper().readDegrees(
+        Collections.singleton(id), direction, labels).get(id);
+    return degree == null ? 0 : degree;
+  }
+
+  /**
+   * Count this vertex's edges in the given direction by label,
+   * as in {@link #getDegree(Direction, String...)}.
+   * Labels without edges are omitted.
+   * @param direction
+   * @return degree by label
+   */
+  public Map<String, Long> getLabelDegrees(Direction direction) {
+    return globals.getVertexWrapper().readLabelDegrees(this, direction);
+  }
+
   @Override
   public VertexQuery query() {
-    return new DefaultVertexQuery(this);
+    return new AccumuloVertexQuery(this, globals);
   }
 
   @Override
@@ -63,9 +92,28 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
    * @return
    */
   public Edge addEdge(Object id, String label, Vertex inVertex) {
+    return addEdge(id, label, inVertex, Collections.<String, Object>emptyMap());
+  }
+
+  /**
+   * Add an edge as with {@link #addEdge(Object, String, Vertex)},
+   * with the given properties. The edge and its properties are
+   * written as a single mutation, and their index entries
+   * are written along with them.
+   * @param id
+   * @param label
+   * @param inVertex
+   * @param properties
+   * @return
+   */
+  public Edge addEdge(Object id, String label, Vertex inVertex,
+      Map<String, Object> properties) {
     if (label == null) {
       throw ExceptionFactory.edgeLabelCanNotBeNull();
     }
+    for (Entry<String, Object> prop : properties.entrySet()) {
+      AccumuloGraphUtils.validateProperty(prop.getKey(), prop.getValue());
+    }
     if (id == null) {
       id = AccumuloGraphUtils.generateId();
     }
@@ -77,18 +125,46 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
     // TODO we arent suppose to make sure the given edge ID doesn't already
     // exist?
 
-    globals.getEdgeWrapper().writeEdge(edge);
-    globals.getVertexWrapper().writeEdgeEndpoints(edge);
+    // Re-adding an existing edge must not count it again.
+    boolean countDegrees = globals.getConfig().getDegreeCounters() &&
+        !edgeExists(myID);
+
+    globals.getEdgeKeyIndexWrapper().setPropertiesForIndex(edge,
+        properties, true);
+    globals.getEdgeWrapper().writeEdge(edge, properties);
+    globals.getVertexWrapper().writeEdgeEndpoints(edge, countDegrees);
 
     globals.checkedFlush();
 
+    for (Entry<String, Object> prop : properties.entrySet()) {
+      edge.setPropertyInMemory(prop.getKey(), prop.getValue());
+    }
     globals.getCaches().cache(edge, Edge.class);
 
     return edge;
   }
 
+  /**
+   * Whether an edge with the given id is known to exist,
+   * unless existence checks are skipped.
+   * @param id
+   * @return
+   */
+  private boolean edgeExists(String id) {
+    if (globals.getConfig().getSkipExistenceChecks() ||
+        globals.getCaches().isMissing(id, Edge.class)) {
+      return false;
+    }
+    return globals.getCaches().retrieve(id, Edge.class) != null ||
+        globals.getEdgeWrapper().elementExists(id);
+  }
+
   @Override
   public void remove() {
+    // Removal reads the vertex's entries, which must include
+    // any updates still waiting for a group commit.
+    globals.flushPending();
+
     globals.getCaches().remove(getId(), Vertex.class);
 
     super.removeElementFromNamedIndexes();
@@ -0,0 +1,104 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.tinkerpop.blueprints.CloseableIterable;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.DefaultVertexQuery;
+
+import edu.jhuapl.tinkerpop.iterators.PropertyFilterIterator;
+
+/**
+ * {@link com.tinkerpop.blueprints.VertexQuery} implementation
+ * that evaluates as much of the query as possible in Accumulo.
+ * <p/>Direction and labels are applied while scanning the
+ * vertex's adjacency entries. Conditions on edge properties are
+ * applied on the tablet servers by {@link PropertyFilterIterator}
+ * when reading the incident edges from the edge table, so
+ * only matching edges are returned. Conditions that cannot be
+ * evaluated by the server are checked on the client.
+ */
+public class AccumuloVertexQuery extends DefaultVertexQuery {
+
+  private final GlobalInstances globals;
+
+  public AccumuloVertexQuery(AccumuloVertex vertex, GlobalInstances globals) {
+    super(vertex);
+    this.globals = globals;
+  }
+
+  @Override
+  public Iterable<Edge> edges() {
+    CloseableIterable<Edge> adjacent = globals.getVertexWrapper()
+        .getEdges(vertex, direction, labels);
+    if (hasContainers.isEmpty()) {
+      return Iterables.limit(adjacent, limit);
+    }
+
+    Iterable<Edge> edges = adjacent;
+    IteratorSetting filter = AccumuloGraphQuery.getPropertyFilter(
+        hasContainers, Edge.class);
+    if (filter != null) {
+      List<String> ids = new ArrayList<String>();
+      for (Edge edge : adjacent) {
+        ids.add(edge.getId().toString());
+      }
+      adjacent.close();
+
+      if (ids.isEmpty()) {
+        return Collections.emptyList();
+      }
+
+      edges = globals.getEdgeWrapper().readEdges(ids,
+          AccumuloGraphQuery.getFilteredKeys(hasContainers, Edge.class), filter);
+    }
+
+    return AccumuloGraphQuery.filter(edges, AccumuloGraphQuery
+        .getClientConditions(hasContainers, Edge.class), limit);
+  }
+
+  @Override
+  public Iterable<Vertex> vertices() {
+    if (hasContainers.isEmpty()) {
+      return Iterables.limit(globals.getVertexWrapper()
+          .getVertices(vertex, direction, labels), limit);
+    }
+
+    return Iterables.transform(edges(), new Function<Edge, Vertex>() {
+      @Override
+      public Vertex apply(Edge edge) {
+        Vertex in = edge.getVertex(Direction.IN);
+        if (Direction.OUT.equals(direction)) {
+          return in;
+        } else if (Direction.IN.equals(direction)) {
+          return edge.getVertex(Direction.OUT);
+        } else {
+          return in.getId().equals(vertex.getId()) ?
+              edge.getVertex(Direction.OUT) : in;
+        }
+      }
+    });
+  }
+}
@@ -37,10 +37,12 @@ public class Constants {
   public static final String IN_EDGE = "__IN_EDGE__";
   public static final String OUT_EDGE = "__OUT_EDGE__";
   public static final String EXISTS = "__EXISTS__";
+  public static final String DEGREE = "__DEGREE__";
 
   /**
    * Type of metadata to distinguish between
    * entries in the metadata table.
    */
-  public static enum IndexMetadataEntryType {__INDEX_KEY__, __INDEX_NAME__};
+  public static enum IndexMetadataEntryType {__INDEX_KEY__, __INDEX_NAME__, __INDEX_BUILD__,
+    __ADJACENCY_LAYOUT__};
 }
@@ -0,0 +1,123 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import java.nio.charset.Charset;
+import java.util.Collections;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Combiner;
+import org.apache.accumulo.core.iterators.LongCombiner;
+import org.apache.accumulo.core.iterators.user.SummingCombiner;
+
+import com.tinkerpop.blueprints.Direction;
+
+/**
+ * Encodes the edge counters kept in the {@link Constants#DEGREE}
+ * column family of the vertex table, when enabled with
+ * {@link AccumuloGraphConfiguration#setDegreeCounters(boolean)}.
+ * <P>
+ * Each vertex has a counter per direction and label, whose
+ * qualifier is the direction, {@link Constants#ID_DELIM} and
+ * the label. Adding and removing an edge writes a delta of
+ * +1 or -1 to the counters of both its vertices, and a
+ * {@link SummingCombiner} on the vertex table adds up the deltas
+ * when scanning and compacting, so that each counter is read
+ * as a single entry.
+ */
+public final class DegreeCounters {
+
+  /**
+   * Name of the combiner on the vertex table.
+   */
+  public static final String COMBINER_NAME = "degreeCounters";
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+  private static final Value INCREMENT = serializeCount(1);
+  private static final Value DECREMENT = serializeCount(-1);
+
+  private DegreeCounters() {
+
+  }
+
+  /**
+   * Setting of the combiner for the vertex table. It runs
+   * before the versioning iterator, which would otherwise
+   * keep only the latest delta.
+   * @return
+   */
+  public static IteratorSetting getCombinerSetting() {
+    IteratorSetting is = new IteratorSetting(10, COMBINER_NAME,
+        SummingCombiner.class);
+    LongCombiner.setEncodingType(is, LongCombiner.Type.VARLEN);
+    Combiner.setColumns(is, Collections.singletonList(
+        new IteratorSetting.Column(Constants.DEGREE)));
+    return is;
+  }
+
+  /**
+   * Column qualifier of the counter of the given direction and label.
+   * @param direction
+   * @param label
+   * @return
+   */
+  public static byte[] serializeQualifier(Direction direction, String label) {
+    return (direction.name() + Constants.ID_DELIM + label).getBytes(UTF8);
+  }
+
+  /**
+   * Read the direction from a counter's column qualifier.
+   * @param cq
+   * @return
+   */
+  public static Direction deserializeDirection(String cq) {
+    return Direction.valueOf(cq.substring(0, delimiter(cq)));
+  }
+
+  /**
+   * Read the label from a counter's column qualifier.
+   * @param cq
+   * @return
+   */
+  public static String deserializeLabel(String cq) {
+    return cq.substring(delimiter(cq) + Constants.ID_DELIM.length());
+  }
+
+  /**
+   * Delta written when an edge is added or removed.
+   * @param add
+   * @return
+   */
+  public static Value getDelta(boolean add) {
+    return add ? INCREMENT : DECREMENT;
+  }
+
+  public static Value serializeCount(long count) {
+    return new Value(LongCombiner.VAR_LEN_ENCODER.encode(count));
+  }
+
+  public static long deserializeCount(Value value) {
+    return LongCombiner.VAR_LEN_ENCODER.decode(value.get());
+  }
+
+  private static int delimiter(String cq) {
+    int index = cq.indexOf(Constants.ID_DELIM);
+    if (index < 0) {
+      throw new AccumuloGraphException("Malformed degree counter: " + cq);
+    }
+    return index;
+  }
+}
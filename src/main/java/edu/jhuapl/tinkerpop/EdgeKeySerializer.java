@@ -0,0 +1,359 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import java.nio.charset.Charset;
+
+import org.apache.accumulo.core.data.ByteSequence;
+
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.AdjacencyLayout;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.KeyEncoding;
+
+/**
+ * Encodes and decodes the vertex and edge ids stored in
+ * the keys of edge entries: the column qualifiers of
+ * edge endpoint entries in the vertex table and of label
+ * entries in the edge table, and the labels stored in the
+ * values of endpoint entries.
+ * <P>
+ * The text encoding joins the parts with {@link Constants#ID_DELIM}.
+ * The binary encoding starts with a format version byte, which
+ * is never the first byte of a text-encoded id, followed by the
+ * UTF-8 parts, each but the last preceded by its length.
+ * Endpoint values hold just the label. Entries in either
+ * encoding can always be read. To keep the encodings apart,
+ * a text-encoded qualifier may not start with a version byte,
+ * and a binary-encoded label may not start with the delimiter;
+ * such ids and labels are rejected when written.
+ * <P>
+ * The decoders read directly from the key's bytes, and
+ * can be reused for many entries.
+ */
+public final class EdgeKeySerializer {
+
+  /**
+   * Leading byte of qualifiers in version 1 of the binary
+   * encoding, for endpoints in the flat layout and edge vertices.
+   */
+  public static final int BINARY_V1 = 0x01;
+
+  /**
+   * Leading byte of endpoint qualifiers in version 1 of the
+   * binary encoding, in the label-partitioned layout.
+   */
+  public static final int BINARY_V1_LABELED = 0x02;
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+  private static final byte[] DELIM = Constants.ID_DELIM.getBytes(UTF8);
+
+  private EdgeKeySerializer() {
+
+  }
+
+  /**
+   * Column qualifier of an edge endpoint entry.
+   * @param encoding
+   * @param layout
+   * @param label
+   * @param otherVertexId
+   * @param edgeId
+   * @return
+   */
+  public static byte[] serializeEndpoint(KeyEncoding encoding,
+      AdjacencyLayout layout, String label, String otherVertexId, String edgeId) {
+    boolean labeled = AdjacencyLayout.LabelPartitioned.equals(layout);
+    if (KeyEncoding.Binary.equals(encoding)) {
+      byte[] other = otherVertexId.getBytes(UTF8);
+      byte[] edge = edgeId.getBytes(UTF8);
+      if (labeled) {
+        return binary(BINARY_V1_LABELED, label.getBytes(UTF8), other, edge);
+      }
+      return binary(BINARY_V1, other, edge);
+    }
+
+    checkText(labeled ? label : otherVertexId);
+    String cq = otherVertexId + Constants.ID_DELIM + edgeId;
+    if (labeled) {
+      cq = label + Constants.ID_DELIM + cq;
+    }
+    return cq.getBytes(UTF8);
+  }
+
+  /**
+   * Prefix of the column qualifiers of all endpoint entries
+   * with the given label in the label-partitioned layout.
+   * @param encoding
+   * @param label
+   * @return
+   */
+  public static byte[] serializeLabelPrefix(KeyEncoding encoding, String label) {
+    if (KeyEncoding.Binary.equals(encoding)) {
+      return binary(BINARY_V1_LABELED, label.getBytes(UTF8), new byte[0]);
+    }
+    return (label + Constants.ID_DELIM).getBytes(UTF8);
+  }
+
+  /**
+   * Value of an edge endpoint entry.
+   * @param encoding
+   * @param label
+   * @return
+   */
+  public static byte[] serializeEndpointLabel(KeyEncoding encoding, String label) {
+    if (KeyEncoding.Binary.equals(encoding)) {
+      if (label.startsWith(Constants.ID_DELIM)) {
+        throw new AccumuloGraphException("Edge label may not start with " +
+            Constants.ID_DELIM + " in the binary key encoding: " + label);
+      }
+      return label.getBytes(UTF8);
+    }
+    return (Constants.ID_DELIM + label).getBytes(UTF8);
+  }
+
+  /**
+   * Column qualifier of an edge's label entry in the edge table.
+   * @param encoding
+   * @param inVertexId
+   * @param outVertexId
+   * @return
+   */
+  public static byte[] serializeVertices(KeyEncoding encoding,
+      String inVertexId, String outVertexId) {
+    if (KeyEncoding.Binary.equals(encoding)) {
+      return binary(BINARY_V1, inVertexId.getBytes(UTF8),
+          outVertexId.getBytes(UTF8));
+    }
+    checkText(inVertexId);
+    return (inVertexId + Constants.ID_DELIM + outVertexId).getBytes(UTF8);
+  }
+
+  /**
+   * Reject a leading part of a text-encoded qualifier
+   * that would be read as binary-encoded.
+   * @param part
+   */
+  private static void checkText(String part) {
+    if (!part.isEmpty() && (part.charAt(0) == BINARY_V1 ||
+        part.charAt(0) == BINARY_V1_LABELED)) {
+      throw new AccumuloGraphException("Id or label may not start with byte " +
+          (int) part.charAt(0) + " in the text key encoding: " + part);
+    }
+  }
+
+  /**
+   * Read the label from the value of an edge endpoint entry.
+   * @param value
+   * @return
+   */
+  public static String deserializeEndpointLabel(byte[] value) {
+    int offset = startsWith(value, 0, value.length, DELIM) ? DELIM.length : 0;
+    return new String(value, offset, value.length - offset, UTF8);
+  }
+
+  /**
+   * Decoder for the column qualifiers of edge endpoint entries.
+   */
+  public static final class Endpoint {
+
+    private String otherVertexId;
+    private String edgeId;
+
+    /**
+     * Decode the given qualifier.
+     * @param cq
+     * @return this decoder
+     */
+    public Endpoint read(ByteSequence cq) {
+      byte[] bytes = cq.getBackingArray();
+      int start = cq.offset();
+      int end = start + cq.length();
+
+      if (cq.length() > 0 && (bytes[start] == BINARY_V1 ||
+          bytes[start] == BINARY_V1_LABELED)) {
+        int pos = start + 1;
+        if (bytes[start] == BINARY_V1_LABELED) {
+          int len = readLength(bytes, pos);
+          pos = skipLength(bytes, pos) + len;
+        }
+        int len = readLength(bytes, pos);
+        pos = skipLength(bytes, pos);
+        otherVertexId = new String(bytes, pos, len, UTF8);
+        pos += len;
+        edgeId = new String(bytes, pos, end - pos, UTF8);
+      } else {
+        // The label, if any, comes before the last two parts.
+        int last = lastIndexOf(bytes, start, end, DELIM);
+        if (last < 0) {
+          throw malformed(bytes, start, end);
+        }
+        int prev = lastIndexOf(bytes, start, last, DELIM);
+        int otherStart = prev < 0 ? start : prev + DELIM.length;
+        otherVertexId = new String(bytes, otherStart, last - otherStart, UTF8);
+        edgeId = new String(bytes, last + DELIM.length,
+            end - last - DELIM.length, UTF8);
+      }
+      return this;
+    }
+
+    public String getOtherVertexId() {
+      return otherVertexId;
+    }
+
+    public String getEdgeId() {
+      return edgeId;
+    }
+  }
+
+  /**
+   * Decoder for the column qualifiers of
+   * label entries in the edge table.
+   */
+  public static final class Vertices {
+
+    private String inVertexId;
+    private String outVertexId;
+
+    /**
+     * Decode the given qualifier.
+     * @param cq
+     * @return this decoder
+     */
+    public Vertices read(ByteSequence cq) {
+      byte[] bytes = cq.getBackingArray();
+      int start = cq.offset();
+      int end = start + cq.length();
+
+      if (cq.length() > 0 && bytes[start] == BINARY_V1) {
+        int pos = start + 1;
+        int len = readLength(bytes, pos);
+        pos = skipLength(bytes, pos);
+        inVertexId = new String(bytes, pos, len, UTF8);
+        pos += len;
+        outVertexId = new String(bytes, pos, end - pos, UTF8);
+      } else {
+        int first = indexOf(bytes, start, end, DELIM);
+        inVertexId = new String(bytes, start, first - start, UTF8);
+        outVertexId = new String(bytes, first + DELIM.length,
+            end - first - DELIM.length, UTF8);
+      }
+      return this;
+    }
+
+    public String getInVertexId() {
+      return inVertexId;
+    }
+
+    public String getOutVertexId() {
+      return outVertexId;
+    }
+  }
+
+  /**
+   * Write the version byte, then each part, all
+   * but the last preceded by its length.
+   * @param version
+   * @param parts
+   * @return
+   */
+  private static byte[] binary(int version, byte[]... parts) {
+    int size = 1;
+    for (int i = 0; i < parts.length; i++) {
+      size += parts[i].length;
+      if (i < parts.length - 1) {
+        size += lengthSize(parts[i].length);
+      }
+    }
+
+    byte[] bytes = new byte[size];
+    bytes[0] = (byte) version;
+    int pos = 1;
+    for (int i = 0; i < parts.length; i++) {
+      if (i < parts.length - 1) {
+        // Unsigned varint, seven bits per byte.
+        int len = parts[i].length;
+        while (len >= 0x80) {
+          bytes[pos++] = (byte) (len | 0x80);
+          len >>>= 7;
+        }
+        bytes[pos++] = (byte) len;
+      }
+      System.arraycopy(parts[i], 0, bytes, pos, parts[i].length);
+      pos += parts[i].length;
+    }
+    return bytes;
+  }
+
+  private static int lengthSize(int len) {
+    int size = 1;
+    while (len >= 0x80) {
+      len >>>= 7;
+      size++;
+    }
+    return size;
+  }
+
+  private static int readLength(byte[] bytes, int pos) {
+    int len = 0;
+    for (int shift = 0; ; shift += 7) {
+      byte b = bytes[pos++];
+      len |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return len;
+      }
+    }
+  }
+
+  private static int skipLength(byte[] bytes, int pos) {
+    while ((bytes[pos] & 0x80) != 0) {
+      pos++;
+    }
+    return pos + 1;
+  }
+
+  private static int indexOf(byte[] bytes, int start, int end, byte[] target) {
+    for (int i = start; i <= end - target.length; i++) {
+      if (startsWith(bytes, i, end, target)) {
+        return i;
+      }
+    }
+    throw malformed(bytes, start, end);
+  }
+
+  private static AccumuloGraphException malformed(byte[] bytes, int start, int end) {
+    return new AccumuloGraphException("Malformed edge key: " +
+        new String(bytes, start, end - start, UTF8));
+  }
+
+  private static int lastIndexOf(byte[] bytes, int start, int end, byte[] target) {
+    for (int i = end - target.length; i >= start; i--) {
+      if (startsWith(bytes, i, end, target)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean startsWith(byte[] bytes, int start, int end, byte[] prefix) {
+    if (end - start < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (bytes[start + i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
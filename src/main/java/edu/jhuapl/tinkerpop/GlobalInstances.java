@@ -17,17 +17,21 @@ package edu.jhuapl.tinkerpop;
 import org.apache.accumulo.core.client.MultiTableBatchWriter;
 import org.apache.accumulo.core.client.MutationsRejectedException;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Vertex;
 
 import edu.jhuapl.tinkerpop.cache.ElementCaches;
+import edu.jhuapl.tinkerpop.cache.IndexMetadataCache;
 import edu.jhuapl.tinkerpop.tables.core.EdgeTableWrapper;
 import edu.jhuapl.tinkerpop.tables.core.ElementTableWrapper;
 import edu.jhuapl.tinkerpop.tables.core.VertexTableWrapper;
 import edu.jhuapl.tinkerpop.tables.index.BaseKeyIndexTableWrapper;
 import edu.jhuapl.tinkerpop.tables.index.EdgeKeyIndexTableWrapper;
 import edu.jhuapl.tinkerpop.tables.index.IndexMetadataTableWrapper;
+import edu.jhuapl.tinkerpop.tables.index.ReverseIndexTableWrapper;
 import edu.jhuapl.tinkerpop.tables.index.VertexKeyIndexTableWrapper;
 
 /**
@@ -39,12 +43,37 @@ public class GlobalInstances {
   private final AccumuloGraphConfiguration config;
   private final MultiTableBatchWriter mtbw;
   private final ElementCaches caches;
+  private final GroupCommitter committer;
+  private final IndexMetadataCache indexMetadataCache;
+  private final ScannerPool scannerPool;
+
+  // Table wrappers are stateless apart from their writers,
+  // which are thread-safe, so they are shared.
+  private final VertexTableWrapper vertexWrapper;
+  private final EdgeTableWrapper edgeWrapper;
+  private final VertexKeyIndexTableWrapper vertexKeyIndexWrapper;
+  private final EdgeKeyIndexTableWrapper edgeKeyIndexWrapper;
+  private final IndexMetadataTableWrapper indexMetadataWrapper;
+  private final ReverseIndexTableWrapper reverseIndexWrapper;
 
   public GlobalInstances(AccumuloGraphConfiguration config,
       MultiTableBatchWriter mtbw, ElementCaches caches) {
     this.config = config;
     this.mtbw = mtbw;
     this.caches = caches;
+    this.committer = config.getAutoFlush() && config.getGroupCommit() ?
+        new GroupCommitter(mtbw, config.getGroupCommitLatency(),
+            config.getGroupCommitSize()) : null;
+    this.indexMetadataCache = new IndexMetadataCache(
+        config.getIndexMetadataCacheTimeout());
+    this.scannerPool = new ScannerPool(config);
+
+    vertexWrapper = new VertexTableWrapper(this);
+    edgeWrapper = new EdgeTableWrapper(this);
+    vertexKeyIndexWrapper = new VertexKeyIndexTableWrapper(this);
+    edgeKeyIndexWrapper = new EdgeKeyIndexTableWrapper(this);
+    indexMetadataWrapper = new IndexMetadataTableWrapper(this);
+    reverseIndexWrapper = new ReverseIndexTableWrapper(this);
   }
 
   public AccumuloGraphConfiguration getConfig() {
@@ -56,23 +85,27 @@ public class GlobalInstances {
   }
 
   public VertexTableWrapper getVertexWrapper() {
-    return new VertexTableWrapper(this);
+    return vertexWrapper;
   }
 
   public EdgeTableWrapper getEdgeWrapper() {
-    return new EdgeTableWrapper(this);
+    return edgeWrapper;
   }
 
   public VertexKeyIndexTableWrapper getVertexKeyIndexWrapper() {
-    return new VertexKeyIndexTableWrapper(this);
+    return vertexKeyIndexWrapper;
   }
 
   public EdgeKeyIndexTableWrapper getEdgeKeyIndexWrapper() {
-    return new EdgeKeyIndexTableWrapper(this);
+    return edgeKeyIndexWrapper;
   }
 
   public IndexMetadataTableWrapper getIndexMetadataWrapper() {
-    return new IndexMetadataTableWrapper(this);
+    return indexMetadataWrapper;
+  }
+
+  public ReverseIndexTableWrapper getReverseIndexWrapper() {
+    return reverseIndexWrapper;
   }
 
   public <T extends Element> ElementTableWrapper getElementWrapper(Class<T> clazz) {
@@ -99,11 +132,30 @@ public class GlobalInstances {
     return caches;
   }
 
+  public IndexMetadataCache getIndexMetadataCache() {
+    return indexMetadataCache;
+  }
+
+  public ScannerPool getScannerPool() {
+    return scannerPool;
+  }
+
   /**
    * Flush the writer, if autoflush is enabled.
+   * With group commit, the flush is left to the
+   * background committer instead.
    */
   public void checkedFlush() {
     if (config.getAutoFlush()) {
+      if (committer != null) {
+        try {
+          committer.submit();
+        } catch (MutationsRejectedException e) {
+          throw new AccumuloGraphException(e);
+        }
+        return;
+      }
+
       try {
         mtbw.flush();
       } catch (MutationsRejectedException e) {
@@ -111,4 +163,70 @@ public class GlobalInstances {
       }
     }
   }
+
+  /**
+   * Flush updates still waiting for a group commit,
+   * so that they are visible to scans. Does nothing
+   * without group commit, since updates are then either
+   * already flushed or deliberately left unflushed.
+   */
+  public void flushPending() {
+    if (committer != null) {
+      try {
+        committer.flush();
+      } catch (MutationsRejectedException e) {
+        throw new AccumuloGraphException(e);
+      }
+    }
+  }
+
+  /**
+   * Flush the writer, waiting for the data to be durable.
+   * @throws MutationsRejectedException
+   */
+  public void flush() throws MutationsRejectedException {
+    if (committer != null) {
+      committer.flush();
+    } else {
+      mtbw.flush();
+    }
+  }
+
+  /**
+   * Return a future completing once all updates
+   * made so far are durable. With group commit,
+   * they are flushed along with the current group;
+   * otherwise the writer is flushed immediately.
+   * @return
+   */
+  public ListenableFuture<Void> flushAsync() {
+    if (committer != null) {
+      try {
+        return committer.submit();
+      } catch (MutationsRejectedException e) {
+        return Futures.immediateFailedFuture(e);
+      }
+    }
+
+    try {
+      mtbw.flush();
+      return Futures.immediateFuture(null);
+    } catch (MutationsRejectedException e) {
+      return Futures.immediateFailedFuture(e);
+    }
+  }
+
+  /**
+   * Flush and close the writer.
+   * @throws MutationsRejectedException
+   */
+  public void close() throws MutationsRejectedException {
+    try {
+      if (committer != null) {
+        committer.close();
+      }
+    } finally {
+      mtbw.close();
+    }
+  }
 }
@@ -0,0 +1,209 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import org.apache.accumulo.core.client.MultiTableBatchWriter;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Flushes a {@link MultiTableBatchWriter} on behalf of many
+ * updates at once. Each update registers itself after adding
+ * its mutations to the writer, and is notified through a future
+ * once a flush covering those mutations completes.
+ * A background thread flushes the current group once it
+ * reaches a given number of updates, or once its oldest
+ * update has waited for a given time.
+ * <P>
+ * If a background flush fails, the failure is also thrown
+ * by the next call to {@link #submit()}, {@link #flush()}
+ * or {@link #close()}, so that it is not lost when
+ * callers do not wait on their futures.
+ */
+public class GroupCommitter {
+
+  private final MultiTableBatchWriter mtbw;
+  private final long latency;
+  private final int size;
+
+  private final Object lock = new Object();
+  private final Thread thread;
+
+  private SettableFuture<Void> group;
+  private int groupSize;
+  private long groupStart;
+  private boolean closed;
+  private Exception failure;
+
+  public GroupCommitter(MultiTableBatchWriter mtbw, long latency, int size) {
+    this.mtbw = mtbw;
+    this.latency = latency;
+    this.size = size;
+
+    thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        commitLoop();
+      }
+    }, "AccumuloGraph group commit");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Register an update whose mutations were already
+   * added to the writer.
+   * @return Future completing once the update is durable
+   * @throws MutationsRejectedException if an earlier
+   * background flush failed
+   */
+  public ListenableFuture<Void> submit() throws MutationsRejectedException {
+    synchronized (lock) {
+      if (closed) {
+        throw new IllegalStateException("Group committer is closed");
+      }
+      throwFailure();
+
+      // Wake the committer when a group starts, so it can
+      // wait for the latency, and when the group is full.
+      boolean wake = group == null;
+      if (wake) {
+        group = SettableFuture.create();
+        groupStart = System.currentTimeMillis();
+      }
+      if (++groupSize >= size || wake) {
+        lock.notifyAll();
+      }
+      return group;
+    }
+  }
+
+  /**
+   * Flush the current group immediately, waiting
+   * for the flush to complete.
+   * @throws MutationsRejectedException
+   */
+  public void flush() throws MutationsRejectedException {
+    synchronized (lock) {
+      throwFailure();
+    }
+    commit(takeGroup(), false);
+  }
+
+  /**
+   * Flush any remaining updates and stop the background thread.
+   * @throws MutationsRejectedException
+   */
+  public void close() throws MutationsRejectedException {
+    synchronized (lock) {
+      closed = true;
+      lock.notifyAll();
+    }
+
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  private void commitLoop() {
+    while (true) {
+      SettableFuture<Void> current;
+      synchronized (lock) {
+        try {
+          while (!closed && !isGroupReady()) {
+            lock.wait(group == null ? 0 :
+                Math.max(1, groupStart + latency - System.currentTimeMillis()));
+          }
+        } catch (InterruptedException e) {
+          return;
+        }
+        if (closed) {
+          return;
+        }
+        current = takeGroup();
+      }
+
+      try {
+        commit(current, true);
+      } catch (MutationsRejectedException | RuntimeException e) {
+        // Reported through the group's future and to the next caller.
+      }
+    }
+  }
+
+  /**
+   * Throw, and forget, the failure of a background flush.
+   * Must be called holding the lock.
+   * @throws MutationsRejectedException
+   */
+  private void throwFailure() throws MutationsRejectedException {
+    Exception e = failure;
+    failure = null;
+    if (e instanceof MutationsRejectedException) {
+      throw (MutationsRejectedException) e;
+    } else if (e != null) {
+      throw (RuntimeException) e;
+    }
+  }
+
+  private boolean isGroupReady() {
+    return group != null && (groupSize >= size ||
+        System.currentTimeMillis() - groupStart >= latency);
+  }
+
+  private SettableFuture<Void> takeGroup() {
+    synchronized (lock) {
+      SettableFuture<Void> current = group;
+      group = null;
+      groupSize = 0;
+      return current;
+    }
+  }
+
+  /**
+   * Flush the writer and complete the given group.
+   * A failure in the background is kept before the group
+   * is completed, so that it is seen by anyone woken by it.
+   * @param current
+   * @param background
+   * @throws MutationsRejectedException
+   */
+  private void commit(SettableFuture<Void> current, boolean background)
+      throws MutationsRejectedException {
+    try {
+      mtbw.flush();
+      if (current != null) {
+        current.set(null);
+      }
+    } catch (MutationsRejectedException | RuntimeException e) {
+      if (background) {
+        synchronized (lock) {
+          if (failure == null) {
+            failure = e;
+          }
+        }
+      }
+      if (current != null) {
+        current.setException(e);
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,370 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.client.BatchDeleter;
+import org.apache.accumulo.core.client.BatchScanner;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
+import org.apache.log4j.Logger;
+
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.mutator.Mutators;
+import edu.jhuapl.tinkerpop.mutator.index.IndexValueMutator;
+import edu.jhuapl.tinkerpop.tables.index.IndexMetadataTableWrapper;
+
+/**
+ * Rebuilds the key indexes of a graph from its element tables.
+ * All indexed keys of an element type are built with a single
+ * scan of the element table, which reads only the indexed
+ * properties and runs in parallel across its tablets.
+ * Since properties are stored already serialized, the
+ * index entries are written without deserializing them.
+ * <P>
+ * Index entries are written with a batch writer, or as
+ * files for bulk import when a bulk import directory
+ * is configured (see {@link AccumuloGraphConfiguration#setBulkImportDir(String)}).
+ * <P>
+ * A single key can also be backfilled with {@link #backfill(String, Class)},
+ * which records its progress so that an interrupted build resumes where
+ * it stopped, and reports its progress while running.
+ * <P>
+ * Elements must not be modified during the build.
+ */
+public final class KeyIndexBuilder {
+
+  private static final Logger log = Logger.getLogger(KeyIndexBuilder.class);
+
+  private final AccumuloGraph graph;
+  private final AccumuloGraphConfiguration config;
+
+  private volatile int totalRanges;
+  private final AtomicInteger completedRanges = new AtomicInteger();
+  private final AtomicLong indexedCount = new AtomicLong();
+
+  /**
+   * @param graph
+   */
+  public KeyIndexBuilder(AccumuloGraph graph) {
+    this.graph = graph;
+    this.config = graph.getGlobals().getConfig();
+  }
+
+  /**
+   * Rebuild the key indexes of all indexed keys
+   * of vertices and edges.
+   */
+  public void build() {
+    build(Vertex.class, graph.getIndexedKeys(Vertex.class));
+    build(Edge.class, graph.getIndexedKeys(Edge.class));
+  }
+
+  /**
+   * Rebuild the key indexes of the given keys.
+   * Existing entries of the keys are removed first.
+   * @param elementClass
+   * @param keys
+   */
+  public void build(Class<? extends Element> elementClass,
+      Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+
+    String elementTable = getElementTableName(elementClass);
+    String indexTable = getIndexTableName(elementClass);
+    try {
+      Connector connector = config.getConnector();
+      clearIndex(connector, indexTable, keys);
+
+      BatchWriter writer = config.getBulkImportDir() != null ?
+          RFileBatchWriter.create(config, indexTable, System.currentTimeMillis()) :
+          connector.createBatchWriter(indexTable, config.getBatchWriterConfig());
+
+      BatchScanner scanner = connector.createBatchScanner(elementTable,
+          config.getAuthorizations(), config.getQueryThreads());
+      try {
+        scanner.setRanges(getTabletRanges(connector, elementTable));
+        for (String key : keys) {
+          scanner.fetchColumnFamily(new Text(key));
+        }
+
+        for (Entry<Key, Value> entry : scanner) {
+          Mutators.apply(writer, new IndexValueMutator.AddSerialized(
+              entry.getKey().getRow().toString(),
+              entry.getKey().getColumnFamily().toString(),
+              entry.getValue().get()));
+        }
+      } finally {
+        scanner.close();
+      }
+
+      if (writer instanceof RFileBatchWriter) {
+        ((RFileBatchWriter) writer).importInto(connector, indexTable);
+      } else {
+        writer.close();
+      }
+    } catch (Exception e) {
+      throw new AccumuloGraphException(e);
+    }
+  }
+
+  /**
+   * Add the elements with the given key to its index,
+   * one range of the element table at a time. Ranges are
+   * scanned in parallel by the configured number of query threads,
+   * and index entries are written with a dedicated batch writer.
+   * Each finished range is recorded in the index metadata table,
+   * so that calling this method again after an interruption
+   * skips the ranges already indexed.
+   * @param key
+   * @param elementClass
+   */
+  public void backfill(final String key,
+      final Class<? extends Element> elementClass) {
+    final GlobalInstances globals = graph.getGlobals();
+    final IndexMetadataTableWrapper metadata = globals.getIndexMetadataWrapper();
+    final String elementTable = getElementTableName(elementClass);
+
+    ExecutorService executor = null;
+    BatchWriter writer = null;
+    try {
+      final Connector connector = config.getConnector();
+
+      List<Range> built = metadata.getBuiltRanges(key, elementClass);
+      if (built == null) {
+        built = Collections.emptyList();
+        metadata.writeBuildStarted(key, elementClass);
+        globals.flush();
+      }
+      List<Range> ranges = getRemainingRanges(
+          getTabletRanges(connector, elementTable), built);
+
+      totalRanges = ranges.size();
+      completedRanges.set(0);
+      indexedCount.set(0);
+      log.info("Indexing " + elementClass.getSimpleName() + " key " + key
+          + ": " + ranges.size() + " ranges" + (built.isEmpty() ? "" :
+              ", resuming after " + built.size() + " indexed ranges"));
+
+      final BatchWriter indexWriter = connector.createBatchWriter(
+          getIndexTableName(elementClass), config.getBatchWriterConfig());
+      writer = indexWriter;
+
+      executor = Executors.newFixedThreadPool(config.getQueryThreads());
+      List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (final Range range : ranges) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            Scanner scanner = connector.createScanner(elementTable,
+                config.getAuthorizations());
+            scanner.setRange(range);
+            scanner.fetchColumnFamily(new Text(key));
+            long count = 0;
+            for (Entry<Key, Value> entry : scanner) {
+              Mutators.apply(indexWriter, new IndexValueMutator.AddSerialized(
+                  entry.getKey().getRow().toString(), key, entry.getValue().get()));
+              count++;
+            }
+
+            // Record the range only once its entries are durable.
+            indexWriter.flush();
+            synchronized (metadata) {
+              metadata.writeBuiltRange(key, elementClass, range);
+              globals.flush();
+            }
+
+            indexedCount.addAndGet(count);
+            int completed = completedRanges.incrementAndGet();
+            log.debug("Indexed " + completed + " of " + totalRanges
+                + " ranges for key " + key);
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+
+      indexWriter.close();
+      writer = null;
+      metadata.clearBuildEntries(key, elementClass);
+      log.info("Indexed " + indexedCount.get() + " elements for "
+          + elementClass.getSimpleName() + " key " + key);
+    } catch (ExecutionException e) {
+      throw new AccumuloGraphException(e.getCause());
+    } catch (Exception e) {
+      throw new AccumuloGraphException(e);
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+      if (writer != null) {
+        try {
+          writer.close();
+        } catch (MutationsRejectedException e) {
+          // Already failing.
+        }
+      }
+    }
+  }
+
+  /**
+   * Fraction of the ranges of the current or last
+   * {@link #backfill(String, Class)} which are finished.
+   * May be called from another thread while it runs.
+   * @return
+   */
+  public double getProgress() {
+    int total = totalRanges;
+    return total == 0 ? 1.0 : (double) completedRanges.get() / total;
+  }
+
+  /**
+   * Number of elements indexed by the current
+   * or last {@link #backfill(String, Class)}.
+   * @return
+   */
+  public long getIndexedCount() {
+    return indexedCount.get();
+  }
+
+  private String getElementTableName(Class<? extends Element> elementClass) {
+    return elementClass.equals(Vertex.class) ?
+        config.getVertexTableName() : config.getEdgeTableName();
+  }
+
+  private String getIndexTableName(Class<? extends Element> elementClass) {
+    return elementClass.equals(Vertex.class) ?
+        config.getVertexKeyIndexTableName() : config.getEdgeKeyIndexTableName();
+  }
+
+  /**
+   * Remove the entries of the given keys from the index table,
+   * in one pass over the table.
+   * @param connector
+   * @param table
+   * @param keys
+   * @throws Exception
+   */
+  private void clearIndex(Connector connector, String table,
+      Collection<String> keys) throws Exception {
+    BatchDeleter bd = connector.createBatchDeleter(table, config.getAuthorizations(),
+        config.getMaxWriteThreads(), config.getBatchWriterConfig());
+    try {
+      bd.setRanges(Collections.singleton(new Range()));
+      for (String key : keys) {
+        bd.fetchColumnFamily(new Text(key));
+      }
+      bd.delete();
+    } finally {
+      bd.close();
+    }
+  }
+
+  /**
+   * One range per tablet of the given table, so
+   * the tablets are scanned in parallel.
+   * @param connector
+   * @param table
+   * @return
+   * @throws Exception
+   */
+  private static List<Range> getTabletRanges(Connector connector,
+      String table) throws Exception {
+    List<Range> ranges = new ArrayList<Range>();
+    Text start = null;
+    for (Text split : connector.tableOperations().listSplits(table)) {
+      ranges.add(new Range(start, false, split, true));
+      start = split;
+    }
+    ranges.add(new Range(start, false, null, true));
+    return ranges;
+  }
+
+  /**
+   * Return the parts of the given tablet ranges
+   * not covered by the given indexed ranges.
+   * @param tablets
+   * @param built
+   * @return
+   */
+  static List<Range> getRemainingRanges(List<Range> tablets, List<Range> built) {
+    List<Range> gaps = new ArrayList<Range>();
+    Key start = null;
+    boolean startInclusive = true;
+    boolean indexedToEnd = false;
+    for (Range done : Range.mergeOverlapping(built)) {
+      if (!done.isInfiniteStartKey()) {
+        addGap(gaps, start, startInclusive, done.getStartKey(),
+            !done.isStartKeyInclusive());
+      }
+      if (done.isInfiniteStopKey()) {
+        indexedToEnd = true;
+        break;
+      }
+      start = done.getEndKey();
+      startInclusive = !done.isEndKeyInclusive();
+    }
+    if (!indexedToEnd) {
+      addGap(gaps, start, startInclusive, null, true);
+    }
+
+    List<Range> remaining = new ArrayList<Range>();
+    for (Range gap : gaps) {
+      for (Range tablet : tablets) {
+        Range clipped = tablet.clip(gap, true);
+        if (clipped != null) {
+          remaining.add(clipped);
+        }
+      }
+    }
+    return remaining;
+  }
+
+  private static void addGap(List<Range> gaps, Key start,
+      boolean startInclusive, Key end, boolean endInclusive) {
+    if (start != null && end != null) {
+      int cmp = start.compareTo(end);
+      if (cmp > 0 || (cmp == 0 && !(startInclusive && endInclusive))) {
+        return;
+      }
+    }
+    gaps.add(new Range(start, startInclusive, end, endInclusive));
+  }
+}
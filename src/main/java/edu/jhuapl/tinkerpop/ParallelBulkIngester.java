@@ -0,0 +1,401 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.MultiTableBatchWriter;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.data.Mutation;
+
+import com.google.common.collect.Iterables;
+
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.AdjacencyLayout;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.KeyEncoding;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.ValueEncoding;
+import edu.jhuapl.tinkerpop.mutator.Mutators;
+import edu.jhuapl.tinkerpop.mutator.edge.EdgeEndpointsMutator;
+import edu.jhuapl.tinkerpop.mutator.edge.EdgeMutator;
+import edu.jhuapl.tinkerpop.mutator.property.WritePropertyMutator;
+import edu.jhuapl.tinkerpop.mutator.vertex.AddVertexMutator;
+
+/**
+ * Multi-threaded variant of {@link AccumuloBulkIngester}, with
+ * the same consistency caveats. Added elements are sharded by id
+ * across worker threads, each of which builds the mutations and
+ * writes them with its own batch writers. An element and all
+ * of its properties are written as a single mutation.
+ * <P>
+ * Each worker has a bounded queue. When a worker falls behind,
+ * adding elements for its shard blocks, and the time spent
+ * blocked is reported by {@link #getBlockedMillis()}.
+ * Each worker's writers use the configured write buffer
+ * size, so the total buffer size is multiplied by the number of threads.
+ * <P>
+ * This class is safe for use by multiple threads. Updates for
+ * the same element are applied in the order they are added.
+ */
+public final class ParallelBulkIngester {
+
+  /**
+   * Queued elements per worker.
+   */
+  private static final int QUEUE_SIZE = 1000;
+
+  private static final Task STOP = new Task(null, null, null, null, null, null);
+
+  private final AccumuloGraphConfiguration config;
+  private final Connector connector;
+  private final List<Worker> workers = new ArrayList<Worker>();
+
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong blockedNanos = new AtomicLong();
+  private final long startTime = System.currentTimeMillis();
+
+  private volatile Throwable failure;
+  private volatile boolean closed;
+
+  /**
+   * Create an ingester with the given number of worker threads.
+   * Tables are created or cleared as with {@link AccumuloBulkIngester}.
+   * @param config
+   * @param threads
+   */
+  public ParallelBulkIngester(AccumuloGraphConfiguration config, int threads) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Number of threads must be positive");
+    }
+
+    this.config = config;
+    try {
+      connector = config.getConnector();
+      AccumuloGraphUtils.handleCreateAndClear(config);
+
+      for (int i = 0; i < threads; i++) {
+        workers.add(new Worker(i));
+      }
+    } catch (Exception e) {
+      throw new AccumuloGraphException(e);
+    }
+
+    for (Worker worker : workers) {
+      worker.start();
+    }
+  }
+
+  /**
+   * Add a vertex with the given properties.
+   * @param id
+   * @param properties Properties, or null for none
+   */
+  public void addVertex(String id, Map<String, Object> properties) {
+    submit(new Task(id, null, null, null, properties, Boolean.TRUE));
+  }
+
+  /**
+   * Add a property to the vertex with the given id.
+   * @param id
+   * @param key
+   * @param value
+   */
+  public void addVertexProperty(String id, String key, Object value) {
+    submit(new Task(id, null, null, null,
+        Collections.singletonMap(key, value), Boolean.FALSE));
+  }
+
+  /**
+   * Add an edge with a unique id and the given properties.
+   * @param src
+   * @param dest
+   * @param label
+   * @param properties Properties, or null for none
+   * @return The edge id
+   */
+  public String addEdge(String src, String dest, String label,
+      Map<String, Object> properties) {
+    String id = UUID.randomUUID().toString();
+    addEdge(id, src, dest, label, properties);
+    return id;
+  }
+
+  /**
+   * Add an edge with the given id and properties. The id is not
+   * checked, so with degree counters enabled, adding an existing
+   * edge again counts it again.
+   * @param id
+   * @param src
+   * @param dest
+   * @param label
+   * @param properties Properties, or null for none
+   */
+  public void addEdge(String id, String src, String dest, String label,
+      Map<String, Object> properties) {
+    submit(new Task(id, src, dest, label, properties, null));
+  }
+
+  /**
+   * Add a property to the edge with the given id.
+   * @param id
+   * @param key
+   * @param value
+   */
+  public void addEdgeProperty(String id, String key, Object value) {
+    submit(new Task(id, null, null, null,
+        Collections.singletonMap(key, value), null));
+  }
+
+  /**
+   * Number of elements and properties added
+   * through this ingester and written so far.
+   * @return
+   */
+  public long getWrittenCount() {
+    return written.get();
+  }
+
+  /**
+   * Elements and properties written per second
+   * since this ingester was created.
+   * @return
+   */
+  public double getThroughput() {
+    long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+    return written.get() * 1000.0 / elapsed;
+  }
+
+  /**
+   * Total time spent by callers waiting for full
+   * worker queues, in milliseconds.
+   * @return
+   */
+  public long getBlockedMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(blockedNanos.get());
+  }
+
+  /**
+   * Number of elements and properties waiting
+   * to be written.
+   * @return
+   */
+  public int getQueuedCount() {
+    int queued = 0;
+    for (Worker worker : workers) {
+      queued += worker.queue.size();
+    }
+    return queued;
+  }
+
+  /**
+   * Wait for all added elements to be written, stop the worker
+   * threads and finalize the graph as with
+   * {@link AccumuloBulkIngester#shutdown(boolean)}.
+   * @param compact
+   * @throws AccumuloSecurityException
+   * @throws TableNotFoundException
+   * @throws AccumuloException
+   */
+  public void shutdown(boolean compact) throws AccumuloSecurityException,
+      TableNotFoundException, AccumuloException {
+    if (closed) {
+      throw new RuntimeException("Ingester was already closed");
+    }
+    closed = true;
+
+    for (Worker worker : workers) {
+      worker.stop();
+    }
+    for (Worker worker : workers) {
+      try {
+        worker.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new AccumuloGraphException(e);
+      }
+    }
+    checkFailure();
+
+    AccumuloBulkIngester.finishIngest(config, connector, compact);
+  }
+
+  private void submit(Task task) {
+    if (closed) {
+      throw new IllegalStateException("Ingester was already closed");
+    }
+    checkFailure();
+
+    Worker worker = workers.get((task.id.hashCode() & Integer.MAX_VALUE) % workers.size());
+    worker.put(task);
+  }
+
+  private void checkFailure() {
+    if (failure != null) {
+      throw new AccumuloGraphException(failure);
+    }
+  }
+
+  /**
+   * Element or property to be written. Vertex tasks
+   * have a non-null flag indicating whether to
+   * write the vertex itself, and edge tasks have
+   * a label if the edge itself is to be written.
+   */
+  private static class Task {
+    final String id;
+    final String src;
+    final String dest;
+    final String label;
+    final Map<String, Object> properties;
+    final Boolean vertex;
+
+    Task(String id, String src, String dest, String label,
+        Map<String, Object> properties, Boolean vertex) {
+      this.id = id;
+      this.src = src;
+      this.dest = dest;
+      this.label = label;
+      this.properties = properties;
+      this.vertex = vertex;
+    }
+  }
+
+  private class Worker implements Runnable {
+    final BlockingQueue<Task> queue = new ArrayBlockingQueue<Task>(QUEUE_SIZE);
+    final Thread thread;
+
+    final MultiTableBatchWriter mtbw;
+    final BatchWriter vertexWriter;
+    final BatchWriter edgeWriter;
+    final ValueEncoding encoding;
+    final AdjacencyLayout layout;
+    final KeyEncoding keyEncoding;
+    final boolean degreeCounters;
+
+    Worker(int index) throws AccumuloException,
+        AccumuloSecurityException, TableNotFoundException {
+      mtbw = connector.createMultiTableBatchWriter(config.getBatchWriterConfig());
+      vertexWriter = mtbw.getBatchWriter(config.getVertexTableName());
+      edgeWriter = mtbw.getBatchWriter(config.getEdgeTableName());
+      encoding = config.getValueEncoding();
+      layout = config.getAdjacencyLayout();
+      keyEncoding = config.getKeyEncoding();
+      degreeCounters = config.getDegreeCounters();
+
+      thread = new Thread(this, "AccumuloGraph ingest " + index);
+      thread.setDaemon(true);
+    }
+
+    void start() {
+      thread.start();
+    }
+
+    void put(Task task) {
+      if (queue.offer(task)) {
+        return;
+      }
+
+      long start = System.nanoTime();
+      try {
+        // Wake up periodically in case this worker failed.
+        while (!queue.offer(task, 100, TimeUnit.MILLISECONDS)) {
+          checkFailure();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new AccumuloGraphException(e);
+      } finally {
+        blockedNanos.addAndGet(System.nanoTime() - start);
+      }
+    }
+
+    void stop() {
+      while (thread.isAlive()) {
+        try {
+          if (queue.offer(STOP, 100, TimeUnit.MILLISECONDS)) {
+            return;
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new AccumuloGraphException(e);
+        }
+      }
+    }
+
+    void join() throws InterruptedException {
+      thread.join();
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (true) {
+          Task task = queue.take();
+          if (task == STOP) {
+            break;
+          }
+          write(task);
+          written.incrementAndGet();
+        }
+        mtbw.close();
+      } catch (Throwable t) {
+        failure = t;
+      }
+    }
+
+    private void write(Task task) throws MutationsRejectedException {
+      Mutation m;
+      BatchWriter writer;
+      if (task.vertex != null) {
+        writer = vertexWriter;
+        m = task.vertex ?
+            Iterables.getOnlyElement(new AddVertexMutator(task.id).create()) :
+            new Mutation(task.id);
+      } else {
+        writer = edgeWriter;
+        if (task.label != null) {
+          Mutators.apply(vertexWriter, new EdgeEndpointsMutator.Add(task.id,
+              task.src, task.dest, task.label, layout, keyEncoding,
+              degreeCounters));
+          m = Iterables.getOnlyElement(new EdgeMutator.Add(task.id,
+              task.src, task.dest, task.label, keyEncoding).create());
+        } else {
+          m = new Mutation(task.id);
+        }
+      }
+
+      if (task.properties != null) {
+        for (Entry<String, Object> prop : task.properties.entrySet()) {
+          WritePropertyMutator.put(m, prop.getKey(), prop.getValue(), encoding);
+        }
+      }
+      if (m.size() > 0) {
+        writer.addMutation(m);
+      }
+    }
+  }
+}
@@ -0,0 +1,356 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.data.ColumnUpdate;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.accumulo.core.util.CachedConfiguration;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+
+/**
+ * {@link BatchWriter} which writes a sorted RFile for
+ * bulk import, instead of sending mutations to tablet servers.
+ * Entries are buffered in memory, and sorted runs are spilled
+ * to files in the work directory when the buffer is full.
+ * When closed, the runs are merged into a single file
+ * in {@link #getFilesDir()}.
+ * <P>
+ * All entries are given the same timestamp. When the same
+ * key is written more than once, the last value wins,
+ * as it would when written through a batch writer, except
+ * that the deltas of degree counters are added up, as the
+ * combiner on the vertex table would.
+ */
+final class RFileBatchWriter implements BatchWriter {
+
+  private static final Text DEGREE = new Text(Constants.DEGREE);
+
+  private final FileSystem fs;
+  private final Configuration conf;
+  private final Path dir;
+  private final long timestamp;
+  private final int bufferSize;
+
+  private final List<KeyValue> buffer = new ArrayList<KeyValue>();
+  private final List<Path> runs = new ArrayList<Path>();
+  private boolean closed;
+
+  /**
+   * @param fs
+   * @param conf
+   * @param dir Work directory, which must not exist
+   * @param timestamp Timestamp of all entries
+   * @param bufferSize Entries buffered before spilling a run
+   * @throws IOException
+   */
+  RFileBatchWriter(FileSystem fs, Configuration conf, Path dir,
+      long timestamp, int bufferSize) throws IOException {
+    this.fs = fs;
+    this.conf = conf;
+    this.dir = dir;
+    this.timestamp = timestamp;
+    this.bufferSize = bufferSize;
+
+    if (fs.exists(dir)) {
+      throw new IllegalArgumentException("Bulk import directory already exists: " + dir);
+    }
+    fs.mkdirs(new Path(dir, "runs"));
+    fs.mkdirs(getFilesDir());
+    fs.mkdirs(getFailuresDir());
+  }
+
+  /**
+   * Create a writer of bulk import files for the given table,
+   * in a work directory under the configured bulk import directory.
+   * @param config
+   * @param table
+   * @param timestamp Timestamp of all entries
+   * @return
+   * @throws IOException
+   */
+  static RFileBatchWriter create(AccumuloGraphConfiguration config,
+      String table, long timestamp) throws IOException {
+    Configuration conf = CachedConfiguration.getInstance();
+    Path dir = new Path(config.getBulkImportDir(), table);
+    return new RFileBatchWriter(dir.getFileSystem(conf), conf, dir,
+        timestamp, config.getBulkImportBufferSize());
+  }
+
+  /**
+   * Finish writing the files, import them into
+   * the given table and delete the work directory.
+   * @param connector
+   * @param table
+   * @throws AccumuloSecurityException
+   * @throws TableNotFoundException
+   * @throws AccumuloException
+   */
+  void importInto(Connector connector, String table)
+      throws AccumuloSecurityException, TableNotFoundException, AccumuloException {
+    close();
+    try {
+      connector.tableOperations().importDirectory(table,
+          getFilesDir().toString(), getFailuresDir().toString(), false);
+
+      if (fs.listStatus(getFailuresDir()).length > 0) {
+        throw new AccumuloGraphException("Failed to import files into " + table
+            + "; see " + getFailuresDir());
+      }
+      fs.delete(dir, true);
+    } catch (IOException e) {
+      throw new AccumuloGraphException(e);
+    }
+  }
+
+  /**
+   * Directory to import once closed.
+   * @return
+   */
+  Path getFilesDir() {
+    return new Path(dir, "files");
+  }
+
+  /**
+   * Empty directory for files which fail to import.
+   * @return
+   */
+  Path getFailuresDir() {
+    return new Path(dir, "failures");
+  }
+
+  @Override
+  public void addMutation(Mutation m) throws MutationsRejectedException {
+    if (closed) {
+      throw new IllegalStateException("Writer is closed");
+    }
+
+    byte[] row = m.getRow();
+    for (ColumnUpdate update : m.getUpdates()) {
+      Key key = new Key(row, update.getColumnFamily(), update.getColumnQualifier(),
+          update.getColumnVisibility(), update.hasTimestamp() ?
+              update.getTimestamp() : timestamp);
+      key.setDeleted(update.isDeleted());
+      buffer.add(new KeyValue(key, new Value(update.getValue())));
+    }
+
+    if (buffer.size() >= bufferSize) {
+      try {
+        spill();
+      } catch (IOException e) {
+        throw new AccumuloGraphException(e);
+      }
+    }
+  }
+
+  @Override
+  public void addMutations(Iterable<Mutation> iterable)
+      throws MutationsRejectedException {
+    for (Mutation m : iterable) {
+      addMutation(m);
+    }
+  }
+
+  @Override
+  public void flush() throws MutationsRejectedException {
+    // Nothing is visible until the file is imported.
+  }
+
+  @Override
+  public void close() throws MutationsRejectedException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    try {
+      Path file = new Path(getFilesDir(), "data.rf");
+      if (runs.isEmpty()) {
+        writeBuffer(file);
+      } else {
+        spill();
+        merge(file);
+      }
+      fs.delete(new Path(dir, "runs"), true);
+    } catch (IOException e) {
+      throw new AccumuloGraphException(e);
+    }
+  }
+
+  /**
+   * Write the buffer to a new sorted run.
+   * @throws IOException
+   */
+  private void spill() throws IOException {
+    if (buffer.isEmpty()) {
+      return;
+    }
+    Path run = new Path(new Path(dir, "runs"), "run" + runs.size() + ".rf");
+    writeBuffer(run);
+    runs.add(run);
+  }
+
+  private void writeBuffer(Path file) throws IOException {
+    // The sort is stable, so later values of
+    // the same key stay after earlier ones.
+    Collections.sort(buffer);
+
+    FileSKVWriter writer = openWriter(file);
+    KeyValue last = null;
+    for (KeyValue kv : buffer) {
+      if (last != null && last.key.equals(kv.key)) {
+        kv = new KeyValue(kv.key, combine(kv.key, last.value, kv.value));
+      } else if (last != null) {
+        writer.append(last.key, last.value);
+      }
+      last = kv;
+    }
+    if (last != null) {
+      writer.append(last.key, last.value);
+    }
+    writer.close();
+    buffer.clear();
+  }
+
+  /**
+   * Merge the sorted runs into the given file.
+   * For equal keys, the value from the latest run wins.
+   * @param file
+   * @throws IOException
+   */
+  private void merge(Path file) throws IOException {
+    PriorityQueue<Run> queue = new PriorityQueue<Run>(runs.size(),
+        new Comparator<Run>() {
+          @Override
+          public int compare(Run a, Run b) {
+            int cmp = a.reader.getTopKey().compareTo(b.reader.getTopKey());
+            return cmp != 0 ? cmp : a.index - b.index;
+          }
+        });
+    for (int i = 0; i < runs.size(); i++) {
+      FileSKVIterator reader = FileOperations.getInstance().openReader(
+          runs.get(i).toString(), true, fs, conf,
+          AccumuloConfiguration.getDefaultConfiguration());
+      if (reader.hasTop()) {
+        queue.add(new Run(i, reader));
+      } else {
+        reader.close();
+      }
+    }
+
+    FileSKVWriter writer = openWriter(file);
+    Key lastKey = null;
+    Value lastValue = null;
+    while (!queue.isEmpty()) {
+      Run run = queue.poll();
+      Key key = new Key(run.reader.getTopKey());
+      Value value = new Value(run.reader.getTopValue());
+
+      run.reader.next();
+      if (run.reader.hasTop()) {
+        queue.add(run);
+      } else {
+        run.reader.close();
+      }
+
+      if (lastKey != null && lastKey.equals(key)) {
+        value = combine(key, lastValue, value);
+      } else if (lastKey != null) {
+        writer.append(lastKey, lastValue);
+      }
+      lastKey = key;
+      lastValue = value;
+    }
+    if (lastKey != null) {
+      writer.append(lastKey, lastValue);
+    }
+    writer.close();
+  }
+
+  /**
+   * Value of a key written again with the given value.
+   * @param key
+   * @param last
+   * @param next
+   * @return
+   */
+  private static Value combine(Key key, Value last, Value next) {
+    if (key.compareColumnFamily(DEGREE) == 0) {
+      return DegreeCounters.serializeCount(DegreeCounters.deserializeCount(last)
+          + DegreeCounters.deserializeCount(next));
+    }
+    return next;
+  }
+
+  private FileSKVWriter openWriter(Path file) throws IOException {
+    FileSKVWriter writer = FileOperations.getInstance().openWriter(
+        file.toString(), fs, conf, AccumuloConfiguration.getDefaultConfiguration());
+    writer.startDefaultLocalityGroup();
+    return writer;
+  }
+
+  /**
+   * Buffered entry, ordered by key.
+   */
+  private static class KeyValue implements Comparable<KeyValue> {
+    final Key key;
+    final Value value;
+
+    KeyValue(Key key, Value value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public int compareTo(KeyValue other) {
+      return key.compareTo(other.key);
+    }
+  }
+
+  /**
+   * Reader of a sorted run, with the run's position
+   * in the order the runs were written.
+   */
+  private static class Run {
+    final int index;
+    final FileSKVIterator reader;
+
+    Run(int index, FileSKVIterator reader) {
+      this.index = index;
+      this.reader = reader;
+    }
+  }
+}
@@ -0,0 +1,361 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.TableDeletedException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Pool of idle {@link Scanner}s for the graph's tables, so
+ * that lookups reuse scanners instead of creating one each
+ * time, which includes resolving the table's id.
+ * <P>
+ * Scanners are borrowed with {@link #getScanner(String)} and go
+ * back to the pool when closed, with their columns, iterators,
+ * range and other settings reset. A scanner must not be used
+ * after it is closed. Iterators obtained before closing are
+ * unaffected, since they copy the scanner's settings.
+ * Scanners which are never closed are simply not reused.
+ * <P>
+ * Idle scanners are kept per table and set of authorizations.
+ * Since a scanner is bound to the table's id, the idle scanners
+ * of a table must be dropped with {@link #invalidate(String)} when
+ * the table is deleted. Scanners that fail because their table
+ * was deleted are dropped as well. This class is safe for use by multiple threads; each
+ * borrowed scanner is used by one thread at a time.
+ */
+public class ScannerPool {
+
+  /**
+   * Maximum idle scanners kept per table.
+   */
+  private static final int MAX_IDLE = 16;
+
+  private final AccumuloGraphConfiguration config;
+  private final ConcurrentMap<PoolKey, BlockingQueue<Scanner>> idle =
+      new ConcurrentHashMap<PoolKey, BlockingQueue<Scanner>>();
+
+  public ScannerPool(AccumuloGraphConfiguration config) {
+    this.config = config;
+  }
+
+  /**
+   * Borrow a scanner for the given table with
+   * the configured authorizations.
+   * @param table
+   * @return
+   */
+  public Scanner getScanner(String table) {
+    return getScanner(table, config.getAuthorizations());
+  }
+
+  /**
+   * Borrow a scanner for the given table and authorizations.
+   * @param table
+   * @param auths
+   * @return
+   */
+  public Scanner getScanner(String table, Authorizations auths) {
+    PoolKey key = new PoolKey(table, auths);
+    BlockingQueue<Scanner> queue = idle.get(key);
+    if (queue == null) {
+      BlockingQueue<Scanner> created = new ArrayBlockingQueue<Scanner>(MAX_IDLE);
+      queue = idle.putIfAbsent(key, created);
+      if (queue == null) {
+        queue = created;
+      }
+    }
+
+    Scanner scanner = queue.poll();
+    if (scanner == null) {
+      try {
+        scanner = config.getConnector().createScanner(table, auths);
+      } catch (Exception e) {
+        throw new AccumuloGraphException(e);
+      }
+    }
+    return new PooledScanner(scanner, queue, this, key);
+  }
+
+  /**
+   * Drop the idle scanners for the given table,
+   * e.g. because it was deleted. Scanners borrowed
+   * before are not returned to the pool.
+   * @param table
+   */
+  public void invalidate(String table) {
+    for (PoolKey key : idle.keySet()) {
+      if (key.table.equals(table)) {
+        idle.remove(key);
+      }
+    }
+  }
+
+  /**
+   * Drop the idle scanners for all tables.
+   */
+  public void invalidateAll() {
+    idle.clear();
+  }
+
+  /**
+   * Whether the given exception, or one of its causes, shows
+   * that the scanned table no longer exists.
+   * @param e
+   * @return
+   */
+  static boolean isTableDeleted(Throwable e) {
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (t instanceof TableDeletedException ||
+          t instanceof TableNotFoundException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Number of idle scanners for the given table
+   * with the configured authorizations.
+   * @param table
+   * @return
+   */
+  int getIdleCount(String table) {
+    BlockingQueue<Scanner> queue = idle.get(
+        new PoolKey(table, config.getAuthorizations()));
+    return queue == null ? 0 : queue.size();
+  }
+
+  private static class PoolKey {
+    final String table;
+    final Authorizations auths;
+
+    PoolKey(String table, Authorizations auths) {
+      this.table = table;
+      this.auths = auths;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof PoolKey)) {
+        return false;
+      }
+      PoolKey other = (PoolKey) obj;
+      return table.equals(other.table) && auths.equals(other.auths);
+    }
+
+    @Override
+    public int hashCode() {
+      return table.hashCode() * 31 + auths.hashCode();
+    }
+  }
+
+  /**
+   * Borrowed scanner, which is reset and
+   * returned to the pool when closed.
+   */
+  private static class PooledScanner implements Scanner {
+
+    private final BlockingQueue<Scanner> queue;
+    private final ScannerPool pool;
+    private final PoolKey key;
+    // May be closed by a finalizer thread.
+    private volatile Scanner scanner;
+
+    PooledScanner(Scanner scanner, BlockingQueue<Scanner> queue,
+        ScannerPool pool, PoolKey key) {
+      this.scanner = scanner;
+      this.queue = queue;
+      this.pool = pool;
+      this.key = key;
+    }
+
+    /**
+     * Drop the pooled scanners of this scanner's table
+     * if the given failure shows that it was deleted.
+     * @param e
+     */
+    private void checkFailure(RuntimeException e) {
+      if (isTableDeleted(e)) {
+        pool.idle.remove(key, queue);
+      }
+    }
+
+    private Scanner get() {
+      Scanner current = scanner;
+      if (current == null) {
+        throw new IllegalStateException("Scanner is closed");
+      }
+      return current;
+    }
+
+    @Override
+    public synchronized void close() {
+      if (scanner == null) {
+        return;
+      }
+      Scanner released = scanner;
+      scanner = null;
+
+      released.clearColumns();
+      released.clearScanIterators();
+      released.setRange(new Range());
+      released.setBatchSize(org.apache.accumulo.core.Constants.SCAN_BATCH_SIZE);
+      released.setTimeout(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      released.disableIsolation();
+      queue.offer(released);
+    }
+
+    @Override
+    public void addScanIterator(IteratorSetting cfg) {
+      get().addScanIterator(cfg);
+    }
+
+    @Override
+    public void removeScanIterator(String iteratorName) {
+      get().removeScanIterator(iteratorName);
+    }
+
+    @Override
+    public void updateScanIteratorOption(String iteratorName, String key,
+        String value) {
+      get().updateScanIteratorOption(iteratorName, key, value);
+    }
+
+    @Override
+    public void fetchColumnFamily(Text col) {
+      get().fetchColumnFamily(col);
+    }
+
+    @Override
+    public void fetchColumn(Text colFam, Text colQual) {
+      get().fetchColumn(colFam, colQual);
+    }
+
+    @Override
+    public void clearColumns() {
+      get().clearColumns();
+    }
+
+    @Override
+    public void clearScanIterators() {
+      get().clearScanIterators();
+    }
+
+    @Override
+    public Iterator<Entry<Key, Value>> iterator() {
+      final Iterator<Entry<Key, Value>> iter;
+      try {
+        iter = get().iterator();
+      } catch (RuntimeException e) {
+        checkFailure(e);
+        throw e;
+      }
+      return new Iterator<Entry<Key, Value>>() {
+        @Override
+        public boolean hasNext() {
+          try {
+            return iter.hasNext();
+          } catch (RuntimeException e) {
+            checkFailure(e);
+            throw e;
+          }
+        }
+
+        @Override
+        public Entry<Key, Value> next() {
+          try {
+            return iter.next();
+          } catch (RuntimeException e) {
+            checkFailure(e);
+            throw e;
+          }
+        }
+
+        @Override
+        public void remove() {
+          iter.remove();
+        }
+      };
+    }
+
+    @Override
+    public void setTimeout(long timeOut, TimeUnit timeUnit) {
+      get().setTimeout(timeOut, timeUnit);
+    }
+
+    @Override
+    public long getTimeout(TimeUnit timeUnit) {
+      return get().getTimeout(timeUnit);
+    }
+
+    @Deprecated
+    @Override
+    public void setTimeOut(int timeOut) {
+      get().setTimeOut(timeOut);
+    }
+
+    @Deprecated
+    @Override
+    public int getTimeOut() {
+      return get().getTimeOut();
+    }
+
+    @Override
+    public void setRange(Range range) {
+      get().setRange(range);
+    }
+
+    @Override
+    public Range getRange() {
+      return get().getRange();
+    }
+
+    @Override
+    public void setBatchSize(int size) {
+      get().setBatchSize(size);
+    }
+
+    @Override
+    public int getBatchSize() {
+      return get().getBatchSize();
+    }
+
+    @Override
+    public void enableIsolation() {
+      get().enableIsolation();
+    }
+
+    @Override
+    public void disableIsolation() {
+      get().disableIsolation();
+    }
+  }
+}
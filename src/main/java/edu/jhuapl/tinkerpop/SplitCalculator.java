@@ -0,0 +1,126 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.FirstEntryInRowIterator;
+import org.apache.hadoop.io.Text;
+
+/**
+ * Computes split points which divide a table's
+ * rows evenly between a given number of tablets.
+ */
+public final class SplitCalculator {
+
+  private SplitCalculator() {
+  }
+
+  /**
+   * Return splits for rows starting with uniformly
+   * distributed hex digits, such as the ids generated by
+   * {@link AccumuloGraphUtils#generateId()}.
+   * @param tablets
+   * @return
+   */
+  public static SortedSet<Text> getHexSplits(int tablets) {
+    // Use one more digit than needed to tell the
+    // split points apart, to keep tablets even.
+    int digits = 1;
+    for (long n = 16; n < tablets; n *= 16) {
+      digits++;
+    }
+    digits++;
+    long range = 1L << (4 * digits);
+
+    SortedSet<Text> splits = new TreeSet<Text>();
+    for (int i = 1; i < tablets; i++) {
+      splits.add(new Text(String.format("%0" + digits + "x",
+          range * i / tablets)));
+    }
+    return splits;
+  }
+
+  /**
+   * Return splits dividing the given sample
+   * of rows evenly between tablets.
+   * @param sample
+   * @param tablets
+   * @return
+   */
+  public static SortedSet<Text> getSampleSplits(Collection<String> sample,
+      int tablets) {
+    List<String> rows = new ArrayList<String>(new TreeSet<String>(sample));
+
+    SortedSet<Text> splits = new TreeSet<Text>();
+    if (rows.isEmpty()) {
+      return splits;
+    }
+    for (int i = 1; i < tablets; i++) {
+      splits.add(new Text(rows.get((int) ((long) rows.size() * i / tablets))));
+    }
+    return splits;
+  }
+
+  /**
+   * Sample the rows of an existing table. Only the
+   * first entry of each row is read, but all rows are
+   * visited, so this is proportional to the table size.
+   * @param cfg
+   * @param table
+   * @param maxSamples
+   * @return Up to maxSamples rows, chosen uniformly
+   */
+  public static List<String> sampleRows(AccumuloGraphConfiguration cfg,
+      String table, int maxSamples) {
+    List<String> sample = new ArrayList<String>();
+    Random random = new Random();
+
+    try {
+      Scanner scan = cfg.getConnector().createScanner(table, cfg.getAuthorizations());
+      scan.addScanIterator(new IteratorSetting(10, "firstEntry",
+          FirstEntryInRowIterator.class));
+
+      // Reservoir sampling over the rows.
+      long seen = 0;
+      for (Entry<Key, Value> entry : scan) {
+        String row = entry.getKey().getRow().toString();
+        if (sample.size() < maxSamples) {
+          sample.add(row);
+        } else {
+          long i = (long) (random.nextDouble() * (seen + 1));
+          if (i < maxSamples) {
+            sample.set((int) i, row);
+          }
+        }
+        seen++;
+      }
+      return sample;
+
+    } catch (Exception e) {
+      throw new AccumuloGraphException(e);
+    }
+  }
+}
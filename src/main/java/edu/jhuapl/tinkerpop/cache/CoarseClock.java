@@ -0,0 +1,61 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.cache;
+
+/**
+ * Millisecond clock updated by a background thread
+ * at a fixed resolution. Reading it is a single volatile
+ * read, which is cheaper than {@link System#currentTimeMillis()}
+ * for callers that check expiry times on every access.
+ */
+public final class CoarseClock {
+
+  /**
+   * Milliseconds between clock updates.
+   */
+  public static final long RESOLUTION = 10;
+
+  private static volatile long now = System.currentTimeMillis();
+
+  static {
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        while (true) {
+          try {
+            Thread.sleep(RESOLUTION);
+          } catch (InterruptedException e) {
+            return;
+          }
+          now = System.currentTimeMillis();
+        }
+      }
+    }, "AccumuloGraph clock");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private CoarseClock() {
+  }
+
+  /**
+   * Return the current time, which may lag behind
+   * the system clock by up to {@link #RESOLUTION}.
+   * @return
+   */
+  public static long currentTimeMillis() {
+    return now;
+  }
+}
@@ -14,6 +14,10 @@
  */
 package edu.jhuapl.tinkerpop.cache;
 
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Vertex;
@@ -23,11 +27,16 @@ import edu.jhuapl.tinkerpop.AccumuloGraphException;
 
 /**
  * Utility class wrapping element caches.
+ * Besides retrieved elements, this optionally
+ * remembers the ids of elements that were not found.
  */
 public class ElementCaches {
   private ElementCache<Vertex> vertexCache;
   private ElementCache<Edge> edgeCache;
 
+  private Cache<Object, Boolean> missingVertices;
+  private Cache<Object, Boolean> missingEdges;
+
   public ElementCaches(AccumuloGraphConfiguration config) {
     if (config.getVertexCacheEnabled()) {
       vertexCache = new ElementCache<Vertex>(config.getVertexCacheSize(),
@@ -38,12 +47,43 @@ public class ElementCaches {
       edgeCache = new ElementCache<Edge>(config.getEdgeCacheSize(),
           config.getEdgeCacheTimeout());
     }
+
+    if (config.getMissingCacheEnabled()) {
+      missingVertices = makeMissingCache(config);
+      missingEdges = makeMissingCache(config);
+    }
   }
 
   public <T extends Element> void cache(T element, Class<T> clazz) {
     if (pick(clazz) != null) {
       pick(clazz).cache(element);
     }
+    if (pickMissing(clazz) != null) {
+      pickMissing(clazz).invalidate(element.getId());
+    }
+  }
+
+  /**
+   * Record that the element with the given id does not exist.
+   * @param id
+   * @param clazz
+   */
+  public <T extends Element> void cacheMissing(Object id, Class<T> clazz) {
+    if (pickMissing(clazz) != null) {
+      pickMissing(clazz).put(id, Boolean.TRUE);
+    }
+  }
+
+  /**
+   * Whether the element with the given id was recently
+   * recorded as not existing.
+   * @param id
+   * @param clazz
+   * @return
+   */
+  public <T extends Element> boolean isMissing(Object id, Class<T> clazz) {
+    return pickMissing(clazz) != null &&
+        pickMissing(clazz).getIfPresent(id) != null;
   }
 
   public <T extends Element> T retrieve(Object id, Class<T> clazz) {
@@ -60,6 +100,29 @@ public class ElementCaches {
     if (pick(clazz) != null) {
       pick(clazz).clear();
     }
+    if (pickMissing(clazz) != null) {
+      pickMissing(clazz).invalidateAll();
+    }
+  }
+
+  private static Cache<Object, Boolean> makeMissingCache(
+      AccumuloGraphConfiguration config) {
+    return CacheBuilder.newBuilder()
+        .maximumSize(config.getMissingCacheSize())
+        .expireAfterWrite(config.getMissingCacheTimeout(), TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  private <T extends Element> Cache<Object, Boolean> pickMissing(Class<T> clazz) {
+    if (Vertex.class.equals(clazz)) {
+      return missingVertices;
+    }
+    else if (Edge.class.equals(clazz)) {
+      return missingEdges;
+    }
+    else {
+      throw new AccumuloGraphException("Unknown element class: "+clazz);
+    }
   }
 
   @SuppressWarnings("unchecked")
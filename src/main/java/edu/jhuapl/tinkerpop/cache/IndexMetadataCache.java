@@ -0,0 +1,144 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import com.tinkerpop.blueprints.Element;
+
+import edu.jhuapl.tinkerpop.parser.IndexedItem;
+
+/**
+ * In-memory copy of the index metadata table,
+ * holding the indexed keys and the named indexes.
+ * The copy expires after a given timeout so that changes
+ * made by other graph instances are eventually seen;
+ * changes made through this instance are applied directly.
+ */
+public class IndexMetadataCache {
+
+  private final int timeout;
+
+  private List<IndexedItem> keys;
+  private List<IndexedItem> names;
+  private long loadTime;
+
+  public IndexMetadataCache(int timeout) {
+    this.timeout = timeout;
+  }
+
+  /**
+   * Return the cached items, or null if the cached copy
+   * is missing or expired and must be loaded again.
+   * @return
+   */
+  public synchronized Snapshot getSnapshot() {
+    if (keys == null ||
+        System.currentTimeMillis() - loadTime >= timeout) {
+      return null;
+    }
+    return new Snapshot(keys, names);
+  }
+
+  /**
+   * Replace the cached copy with the given items.
+   * @param keys
+   * @param names
+   * @return the given items
+   */
+  public synchronized Snapshot load(List<IndexedItem> keys,
+      List<IndexedItem> names) {
+    this.keys = new ArrayList<IndexedItem>(keys);
+    this.names = new ArrayList<IndexedItem>(names);
+    loadTime = System.currentTimeMillis();
+    return new Snapshot(keys, names);
+  }
+
+  public synchronized void addIndexedKey(String key,
+      Class<? extends Element> clazz) {
+    if (keys != null) {
+      remove(keys, key, clazz);
+      keys.add(new IndexedItem(key, clazz));
+    }
+  }
+
+  public synchronized void removeIndexedKey(String key,
+      Class<? extends Element> clazz) {
+    if (keys != null) {
+      remove(keys, key, clazz);
+    }
+  }
+
+  public synchronized void addIndexName(String name,
+      Class<? extends Element> clazz) {
+    if (names != null) {
+      remove(names, name, clazz);
+      names.add(new IndexedItem(name, clazz));
+    }
+  }
+
+  public synchronized void removeIndexName(String name,
+      Class<? extends Element> clazz) {
+    if (names != null) {
+      remove(names, name, clazz);
+    }
+  }
+
+  /**
+   * Discard the cached copy.
+   */
+  public synchronized void clear() {
+    keys = null;
+    names = null;
+  }
+
+  private static void remove(List<IndexedItem> items, String key,
+      Class<? extends Element> clazz) {
+    Iterator<IndexedItem> iter = items.iterator();
+    while (iter.hasNext()) {
+      IndexedItem item = iter.next();
+      if (item.getKey().equals(key) &&
+          item.getElementClass().equals(clazz)) {
+        iter.remove();
+      }
+    }
+  }
+
+  /**
+   * Unmodifiable copy of the indexed keys and named
+   * indexes, unaffected by later changes to the cache.
+   */
+  public static class Snapshot {
+
+    private final List<IndexedItem> keys;
+    private final List<IndexedItem> names;
+
+    private Snapshot(List<IndexedItem> keys, List<IndexedItem> names) {
+      this.keys = Collections.unmodifiableList(new ArrayList<IndexedItem>(keys));
+      this.names = Collections.unmodifiableList(new ArrayList<IndexedItem>(names));
+    }
+
+    public List<IndexedItem> getIndexedKeys() {
+      return keys;
+    }
+
+    public List<IndexedItem> getIndexNames() {
+      return names;
+    }
+  }
+}
@@ -14,10 +14,11 @@
  */
 package edu.jhuapl.tinkerpop.cache;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
 
@@ -27,15 +28,21 @@ import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
  * as well as per-property eviction.
  * If caching is disabled for the given property,
  * this does nothing (stores no values).
+ * <p/>The cache may be shared between threads.
+ * Expiry is measured with {@link CoarseClock},
+ * so values may outlive their timeout by up to
+ * {@link CoarseClock#RESOLUTION} milliseconds.
  */
 public class PropertyCache {
 
   private final AccumuloGraphConfiguration cfg;
-  private final Map<String, TimedValue> values;
+  private final ConcurrentMap<String, TimedValue> values;
 
   public PropertyCache(AccumuloGraphConfiguration cfg) {
     this.cfg = cfg;
-    this.values = new HashMap<String, TimedValue>();
+    // Most elements cache a handful of properties, and
+    // contention on a single element is short-lived.
+    this.values = new ConcurrentHashMap<String, TimedValue>(4, 0.75f, 1);
   }
 
   public boolean containsKey(String key) {
@@ -54,7 +61,7 @@ public class PropertyCache {
       return;
     }
     values.put(key, new TimedValue(value,
-        System.currentTimeMillis() + timeout));
+        CoarseClock.currentTimeMillis() + timeout));
   }
 
   public void putAll(Map<String, Object> entries) {
@@ -66,13 +73,11 @@ public class PropertyCache {
 
   @SuppressWarnings("unchecked")
   public <T> T get(String key) {
-    long now = System.currentTimeMillis();
-
     TimedValue val = values.get(key);
     if (val != null) {
-      if (val.getExpiry() != null &&
-          val.getExpiry() <= now) {
-        remove(key);
+      if (val.getExpiry() <= CoarseClock.currentTimeMillis()) {
+        // Leave any value concurrently put in its place.
+        values.remove(key, val);
         return null;
       }
       else {
@@ -117,9 +122,9 @@ public class PropertyCache {
    */
   private static class TimedValue {
     private final Object value;
-    private final Long expiry;
+    private final long expiry;
 
-    public TimedValue(Object value, Long expiry) {
+    public TimedValue(Object value, long expiry) {
       this.value = value;
       this.expiry = expiry;
     }
@@ -128,7 +133,7 @@ public class PropertyCache {
       return value;
     }
 
-    public Long getExpiry() {
+    public long getExpiry() {
       return expiry;
     }
 
@@ -0,0 +1,171 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.iterators;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+
+import edu.jhuapl.tinkerpop.AccumuloGraphException;
+import edu.jhuapl.tinkerpop.EdgeKeySerializer;
+
+/**
+ * Server-side iterator counting edge endpoint entries, so that
+ * only counts rather than the entries are sent to the client.
+ * Each run of entries with the same row and column family is
+ * replaced by a single entry, whose key is the last entry of the run
+ * and whose value holds the count, optionally by label.
+ * Use {@link #decodeCounts(Value)} to read it.
+ * <p/>A row's entries may be split across several runs,
+ * for instance across ranges, so clients must add up the counts.
+ * Only the edge endpoint column families should be fetched.
+ * This iterator must be on the tablet servers' classpath.
+ */
+public class DegreeIterator implements SortedKeyValueIterator<Key,Value> {
+
+  private static final String GROUP_BY_LABEL = "groupByLabel";
+
+  private SortedKeyValueIterator<Key,Value> source;
+  private boolean groupByLabel;
+
+  private Key topKey;
+  private Value topValue;
+
+  /**
+   * Count entries by label, rather than all together.
+   * @param is
+   * @param groupByLabel
+   */
+  public static void setGroupByLabel(IteratorSetting is, boolean groupByLabel) {
+    is.addOption(GROUP_BY_LABEL, Boolean.toString(groupByLabel));
+  }
+
+  /**
+   * Read the counts from a value returned by this iterator,
+   * by label, or under the empty string if not grouped by label.
+   * @param value
+   * @return
+   */
+  public static Map<String, Long> decodeCounts(Value value) {
+    try {
+      DataInputStream in = new DataInputStream(
+          new ByteArrayInputStream(value.get()));
+      int size = in.readInt();
+      Map<String, Long> counts = new HashMap<String, Long>(size);
+      for (int i = 0; i < size; i++) {
+        counts.put(in.readUTF(), in.readLong());
+      }
+      return counts;
+    } catch (IOException e) {
+      throw new AccumuloGraphException(e);
+    }
+  }
+
+  private static Value encodeCounts(Map<String, Long> counts) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(counts.size());
+    for (Entry<String, Long> count : counts.entrySet()) {
+      out.writeUTF(count.getKey());
+      out.writeLong(count.getValue());
+    }
+    out.close();
+    return new Value(bytes.toByteArray());
+  }
+
+  @Override
+  public void init(SortedKeyValueIterator<Key,Value> source,
+      Map<String,String> options, IteratorEnvironment env) throws IOException {
+    this.source = source;
+    groupByLabel = Boolean.parseBoolean(options.get(GROUP_BY_LABEL));
+  }
+
+  @Override
+  public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+    DegreeIterator copy = new DegreeIterator();
+    copy.source = source.deepCopy(env);
+    copy.groupByLabel = groupByLabel;
+    return copy;
+  }
+
+  @Override
+  public void seek(Range range, Collection<ByteSequence> columnFamilies,
+      boolean inclusive) throws IOException {
+    source.seek(range, columnFamilies, inclusive);
+    findTop();
+  }
+
+  @Override
+  public void next() throws IOException {
+    findTop();
+  }
+
+  @Override
+  public boolean hasTop() {
+    return topKey != null;
+  }
+
+  @Override
+  public Key getTopKey() {
+    return topKey;
+  }
+
+  @Override
+  public Value getTopValue() {
+    return topValue;
+  }
+
+  private void findTop() throws IOException {
+    topKey = null;
+    topValue = null;
+    if (!source.hasTop()) {
+      return;
+    }
+
+    // Ending each run on its last entry means a scan that
+    // is resumed after it does not count any entry twice.
+    Map<String, Long> counts = new HashMap<String, Long>();
+    Key first = new Key(source.getTopKey());
+    Key last = first;
+    while (source.hasTop() &&
+        source.getTopKey().equals(first, PartialKey.ROW_COLFAM)) {
+      String label = groupByLabel ? EdgeKeySerializer.deserializeEndpointLabel(
+          source.getTopValue().get()) : "";
+      Long count = counts.get(label);
+      counts.put(label, count == null ? 1 : count + 1);
+
+      last = new Key(source.getTopKey());
+      source.next();
+    }
+
+    topKey = last;
+    topValue = encodeCounts(counts);
+  }
+}
@@ -0,0 +1,107 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.iterators;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Filter;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.commons.codec.binary.Base64;
+
+import edu.jhuapl.tinkerpop.Constants;
+
+/**
+ * Server-side filter for vertex adjacency entries, keeping
+ * only edges whose label is in a given set.
+ * Labels are compared as raw bytes with a hash lookup,
+ * so the cost per entry does not depend on the number of labels.
+ * <p/>This iterator must be on the tablet servers' classpath.
+ */
+public class EdgeLabelFilter extends Filter {
+
+  private static final String LABELS = "labels";
+  private static final byte[] DELIM = Constants.ID_DELIM.getBytes(StandardCharsets.UTF_8);
+
+  private Set<ByteSequence> labels;
+
+  /**
+   * Set the labels to accept.
+   * @param is
+   * @param labels
+   */
+  public static void setLabels(IteratorSetting is, String... labels) {
+    StringBuilder sb = new StringBuilder();
+    for (String label : labels) {
+      if (sb.length() > 0) {
+        sb.append(',');
+      }
+      sb.append(new String(Base64.encodeBase64(label.getBytes(StandardCharsets.UTF_8))));
+    }
+    is.addOption(LABELS, sb.toString());
+  }
+
+  @Override
+  public void init(SortedKeyValueIterator<Key,Value> source,
+      Map<String,String> options, IteratorEnvironment env) throws IOException {
+    super.init(source, options, env);
+
+    labels = new HashSet<ByteSequence>();
+    String opt = options.get(LABELS);
+    if (opt != null && !opt.isEmpty()) {
+      for (String label : opt.split(",")) {
+        labels.add(new ArrayByteSequence(Base64.decodeBase64(label.getBytes(StandardCharsets.UTF_8))));
+      }
+    }
+  }
+
+  @Override
+  public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+    EdgeLabelFilter copy = (EdgeLabelFilter) super.deepCopy(env);
+    copy.labels = labels;
+    return copy;
+  }
+
+  @Override
+  public boolean accept(Key k, Value v) {
+    // Adjacency values are the label, preceded by the
+    // delimiter in the text key encoding.
+    byte[] bytes = v.get();
+    int offset = startsWith(bytes, DELIM) ? DELIM.length : 0;
+    return labels.contains(new ArrayByteSequence(bytes,
+        offset, bytes.length - offset));
+  }
+
+  private static boolean startsWith(byte[] bytes, byte[] prefix) {
+    if (bytes.length < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (bytes[i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
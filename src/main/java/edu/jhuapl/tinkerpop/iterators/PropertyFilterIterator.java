@@ -0,0 +1,122 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.iterators;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.user.RowFilter;
+import org.apache.commons.codec.binary.Base64;
+
+import com.tinkerpop.blueprints.Compare;
+
+import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.ValueEncoding;
+
+/**
+ * Server-side filter keeping only element rows whose properties
+ * satisfy all of the given {@link Compare} conditions.
+ * Conditions are evaluated with the same semantics as
+ * Blueprints queries; in particular a null value with
+ * {@link Compare#EQUAL} matches a missing property, and with
+ * {@link Compare#NOT_EQUAL} an existing property.
+ * <p/>Only the column families fetched by the scanner are visible,
+ * so the keys of all conditions must be fetched.
+ * This iterator must be on the tablet servers' classpath,
+ * along with Blueprints.
+ */
+public class PropertyFilterIterator extends RowFilter {
+
+  private static final String COUNT = "count";
+  private static final String KEY = "key.";
+  private static final String PREDICATE = "predicate.";
+  private static final String VALUE = "value.";
+
+  private List<String> keys;
+  private List<Compare> predicates;
+  private List<Object> values;
+
+  /**
+   * Add a condition to the given iterator setting.
+   * @param is
+   * @param key
+   * @param predicate
+   * @param value
+   */
+  public static void addCondition(IteratorSetting is, String key,
+      Compare predicate, Object value) {
+    int count = is.getOptions().containsKey(COUNT) ?
+        Integer.parseInt(is.getOptions().get(COUNT)) : 0;
+    // Values only need to survive transport, so use
+    // the binary encoding to avoid charset issues.
+    byte[] bytes = AccumuloByteSerializer.serialize(value, ValueEncoding.Binary);
+
+    is.addOption(KEY + count, key);
+    is.addOption(PREDICATE + count, predicate.name());
+    is.addOption(VALUE + count, new String(Base64.encodeBase64(bytes)));
+    is.addOption(COUNT, Integer.toString(count + 1));
+  }
+
+  @Override
+  public void init(SortedKeyValueIterator<Key,Value> source,
+      Map<String,String> options, IteratorEnvironment env) throws IOException {
+    super.init(source, options, env);
+
+    int count = options.containsKey(COUNT) ? Integer.parseInt(options.get(COUNT)) : 0;
+    keys = new ArrayList<String>(count);
+    predicates = new ArrayList<Compare>(count);
+    values = new ArrayList<Object>(count);
+    for (int i = 0; i < count; i++) {
+      keys.add(options.get(KEY + i));
+      predicates.add(Compare.valueOf(options.get(PREDICATE + i)));
+      values.add(AccumuloByteSerializer.deserialize(
+          Base64.decodeBase64(options.get(VALUE + i).getBytes())));
+    }
+  }
+
+  @Override
+  public boolean acceptRow(SortedKeyValueIterator<Key,Value> rowIterator)
+      throws IOException {
+    Map<String, Object> props = new HashMap<String, Object>();
+    while (rowIterator.hasTop()) {
+      String cf = rowIterator.getTopKey().getColumnFamily().toString();
+      if (keys.contains(cf) && !props.containsKey(cf)) {
+        props.put(cf, AccumuloByteSerializer.deserialize(
+            rowIterator.getTopValue().get()));
+      }
+      rowIterator.next();
+    }
+
+    for (int i = 0; i < keys.size(); i++) {
+      try {
+        if (!predicates.get(i).evaluate(props.get(keys.get(i)), values.get(i))) {
+          return false;
+        }
+      } catch (ClassCastException e) {
+        // Values of different types never match.
+        return false;
+      }
+    }
+    return true;
+  }
+}
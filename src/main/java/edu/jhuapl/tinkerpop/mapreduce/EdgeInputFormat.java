@@ -28,6 +28,7 @@ import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
 import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.InstanceType;
 import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.EdgeKeySerializer;
 
 public class EdgeInputFormat extends InputFormatBase<Text,Edge> {
 
@@ -45,6 +46,7 @@ public class EdgeInputFormat extends InputFormatBase<Text,Edge> {
 
     RowIterator rowIterator;
     AccumuloGraph parent;
+    EdgeKeySerializer.Vertices vertices = new EdgeKeySerializer.Vertices();
 
     EdgeRecordReader() {}
 
@@ -90,9 +92,9 @@ public class EdgeInputFormat extends InputFormatBase<Text,Edge> {
             case Constants.LABEL:
               currentK.set(eid);
               edge.prepareId(eid);
-              String[] ids = currentKey.getColumnQualifier().toString().split(Constants.ID_DELIM);
-              edge.setSourceId(ids[1]);
-              edge.setDestId(ids[0]);
+              vertices.read(currentKey.getColumnQualifierData());
+              edge.setSourceId(vertices.getOutVertexId());
+              edge.setDestId(vertices.getInVertexId());
               edge.setLabel(AccumuloByteSerializer.deserialize(entry.getValue().get()).toString());
               break;
             default:
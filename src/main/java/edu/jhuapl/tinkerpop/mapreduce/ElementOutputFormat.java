@@ -28,6 +28,7 @@ import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
 import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
 import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.InstanceType;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.ValueEncoding;
 
 public class ElementOutputFormat extends OutputFormat<NullWritable,Element> {
 
@@ -38,6 +39,7 @@ public class ElementOutputFormat extends OutputFormat<NullWritable,Element> {
   private static final String INSTANCE = PREFIX+"instanceName";
   private static final String INSTANCE_TYPE = PREFIX+"instanceType";
   private static final String ZK_HOSTS = PREFIX+"zookeeperHosts";
+  private static final String VALUE_ENCODING = PREFIX+"valueEncoding";
 
   @Override
   public RecordWriter<NullWritable,Element> getRecordWriter(TaskAttemptContext context) throws IOException, InterruptedException {
@@ -58,6 +60,7 @@ public class ElementOutputFormat extends OutputFormat<NullWritable,Element> {
     jobconf.set(GRAPH_NAME, acc.getGraphName());
     jobconf.set(INSTANCE, acc.getInstanceName());
     jobconf.set(INSTANCE_TYPE, acc.getInstanceType().toString());
+    jobconf.set(VALUE_ENCODING, acc.getValueEncoding().toString());
     if(acc.getInstanceType().equals(InstanceType.Distributed))
       jobconf.set(ZK_HOSTS, acc.getZooKeeperHosts());
   }
@@ -83,6 +86,8 @@ public class ElementOutputFormat extends OutputFormat<NullWritable,Element> {
       config.setInstanceName(jobconf.get(INSTANCE));
       config.setInstanceType(InstanceType.valueOf(jobconf.get(INSTANCE_TYPE)));
       config.setZooKeeperHosts(jobconf.get(ZK_HOSTS));
+      config.setValueEncoding(ValueEncoding.valueOf(jobconf.get(VALUE_ENCODING,
+          ValueEncoding.Text.toString())));
 
     }
 
@@ -102,7 +107,8 @@ public class ElementOutputFormat extends OutputFormat<NullWritable,Element> {
 
         Mutation mut = new Mutation(ele.id);
         for (Entry<String,Object> map : ele.getNewProperties().entrySet()) {
-          mut.put(map.getKey().getBytes(), "".getBytes(), AccumuloByteSerializer.serialize(map.getValue()));
+          mut.put(map.getKey().getBytes(), "".getBytes(), AccumuloByteSerializer.serialize(map.getValue(),
+              config.getValueEncoding()));
         }
 
         bw.addMutation(mut);
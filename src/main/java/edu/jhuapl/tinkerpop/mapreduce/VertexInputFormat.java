@@ -28,6 +28,7 @@ import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration;
 import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.InstanceType;
 import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.EdgeKeySerializer;
 
 public class VertexInputFormat extends InputFormatBase<Text,Vertex> {
   static AccumuloGraphConfiguration conf;
@@ -45,6 +46,7 @@ public class VertexInputFormat extends InputFormatBase<Text,Vertex> {
 
     RowIterator rowIterator;
     AccumuloGraph parent;
+    EdgeKeySerializer.Endpoint endpoint = new EdgeKeySerializer.Endpoint();
 
     VertexRecordReader() {}
 
@@ -94,14 +96,16 @@ public class VertexInputFormat extends InputFormatBase<Text,Vertex> {
               vertex.prepareId(vid);
               break;
             case Constants.IN_EDGE:
-              String[] parts = currentKey.getColumnQualifier().toString().split(Constants.ID_DELIM);
-              String label = new String(entry.getValue().get());
-              vertex.prepareEdge(parts[1], parts[0], label, vid);
+              endpoint.read(currentKey.getColumnQualifierData());
+              String label = EdgeKeySerializer.deserializeEndpointLabel(entry.getValue().get());
+              vertex.prepareEdge(endpoint.getEdgeId(), endpoint.getOtherVertexId(), label, vid);
               break;
             case Constants.OUT_EDGE:
-              parts = currentKey.getColumnQualifier().toString().split(Constants.ID_DELIM);
-              label = new String(entry.getValue().get());
-              vertex.prepareEdge(parts[1], vid, label, parts[0]);
+              endpoint.read(currentKey.getColumnQualifierData());
+              label = EdgeKeySerializer.deserializeEndpointLabel(entry.getValue().get());
+              vertex.prepareEdge(endpoint.getEdgeId(), vid, label, endpoint.getOtherVertexId());
+              break;
+            case Constants.DEGREE:
               break;
             default:
               String propertyKey = currentKey.getColumnFamily().toString();
@@ -15,11 +15,17 @@
 package edu.jhuapl.tinkerpop.mutator.edge;
 
 import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
 
 import com.google.common.collect.Lists;
+import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.AdjacencyLayout;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.KeyEncoding;
 import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.DegreeCounters;
+import edu.jhuapl.tinkerpop.EdgeKeySerializer;
 
 public class EdgeEndpointsMutator {
 
@@ -28,25 +34,50 @@ public class EdgeEndpointsMutator {
 
   public static class Add extends BaseEdgeMutator {
 
+    private final AdjacencyLayout layout;
+    private final KeyEncoding encoding;
+    private final boolean countDegrees;
+
     public Add(Edge edge) {
+      this(edge, AdjacencyLayout.Flat, KeyEncoding.Text, false);
+    }
+
+    public Add(Edge edge, AdjacencyLayout layout, KeyEncoding encoding,
+        boolean countDegrees) {
       super(edge);
+      this.layout = layout;
+      this.encoding = encoding;
+      this.countDegrees = countDegrees;
     }
 
     public Add(String id, String outVertexId, String inVertexId, String label) {
+      this(id, outVertexId, inVertexId, label, AdjacencyLayout.Flat,
+          KeyEncoding.Text, false);
+    }
+
+    public Add(String id, String outVertexId, String inVertexId, String label,
+        AdjacencyLayout layout, KeyEncoding encoding, boolean countDegrees) {
       super(id, outVertexId, inVertexId, label);
+      this.layout = layout;
+      this.encoding = encoding;
+      this.countDegrees = countDegrees;
     }
 
     @Override
     public Iterable<Mutation> create() {
+      byte[] value = EdgeKeySerializer.serializeEndpointLabel(encoding, label);
+
       Mutation in = new Mutation(inVertexId);
-      in.put(Constants.IN_EDGE.getBytes(),
-          (outVertexId + Constants.ID_DELIM + id).getBytes(),
-          (Constants.ID_DELIM + label).getBytes());
+      in.put(Constants.IN_EDGE.getBytes(), EdgeKeySerializer.serializeEndpoint(
+          encoding, layout, label, outVertexId, id), value);
 
       Mutation out = new Mutation(outVertexId);
-      out.put(Constants.OUT_EDGE.getBytes(),
-          (inVertexId + Constants.ID_DELIM + id).getBytes(),
-          (Constants.ID_DELIM + label).getBytes());
+      out.put(Constants.OUT_EDGE.getBytes(), EdgeKeySerializer.serializeEndpoint(
+          encoding, layout, label, inVertexId, id), value);
+
+      if (countDegrees) {
+        putDegreeDeltas(in, out, label, true);
+      }
 
       return Lists.newArrayList(in, out);
     }
@@ -54,25 +85,64 @@ public class EdgeEndpointsMutator {
 
   public static class Delete extends BaseEdgeMutator {
 
+    private final boolean countDegrees;
+
     public Delete(Edge edge) {
+      this(edge, false);
+    }
+
+    public Delete(Edge edge, boolean countDegrees) {
       super(edge);
+      this.countDegrees = countDegrees;
     }
 
     public Delete(String id, String outVertexId, String inVertexId, String label) {
+      this(id, outVertexId, inVertexId, label, false);
+    }
+
+    public Delete(String id, String outVertexId, String inVertexId, String label,
+        boolean countDegrees) {
       super(id, outVertexId, inVertexId, label);
+      this.countDegrees = countDegrees;
     }
 
     @Override
     public Iterable<Mutation> create() {
+      // The layout and encoding may have changed since the edge
+      // was written, so delete the entries of all of them.
       Mutation in = new Mutation(inVertexId);
-      in.putDelete(Constants.IN_EDGE.getBytes(),
-          (outVertexId + Constants.ID_DELIM + id).getBytes());
-
       Mutation out = new Mutation(outVertexId);
-      out.putDelete(Constants.OUT_EDGE.getBytes(),
-          (inVertexId + Constants.ID_DELIM + id).getBytes());
+      for (AdjacencyLayout layout : AdjacencyLayout.values()) {
+        for (KeyEncoding encoding : KeyEncoding.values()) {
+          in.putDelete(Constants.IN_EDGE.getBytes(), EdgeKeySerializer
+              .serializeEndpoint(encoding, layout, label, outVertexId, id));
+          out.putDelete(Constants.OUT_EDGE.getBytes(), EdgeKeySerializer
+              .serializeEndpoint(encoding, layout, label, inVertexId, id));
+        }
+      }
+
+      if (countDegrees) {
+        putDegreeDeltas(in, out, label, false);
+      }
 
       return Lists.newArrayList(in, out);
     }
   }
+
+  /**
+   * Add the deltas of the degree counters of both
+   * vertices of an edge that is added or removed.
+   * @param in
+   * @param out
+   * @param label
+   * @param add
+   */
+  private static void putDegreeDeltas(Mutation in, Mutation out,
+      String label, boolean add) {
+    Value delta = DegreeCounters.getDelta(add);
+    in.put(Constants.DEGREE.getBytes(),
+        DegreeCounters.serializeQualifier(Direction.IN, label), delta.get());
+    out.put(Constants.DEGREE.getBytes(),
+        DegreeCounters.serializeQualifier(Direction.OUT, label), delta.get());
+  }
 }
@@ -20,25 +20,40 @@ import com.google.common.collect.Lists;
 import com.tinkerpop.blueprints.Edge;
 
 import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.KeyEncoding;
 import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.EdgeKeySerializer;
 
 public final class EdgeMutator {
 
   public static class Add extends BaseEdgeMutator {
 
+    private final KeyEncoding encoding;
+
     public Add(Edge edge) {
+      this(edge, KeyEncoding.Text);
+    }
+
+    public Add(Edge edge, KeyEncoding encoding) {
       super(edge);
+      this.encoding = encoding;
     }
 
     public Add(String id, String outVertexId, String inVertexId, String label) {
+      this(id, outVertexId, inVertexId, label, KeyEncoding.Text);
+    }
+
+    public Add(String id, String outVertexId, String inVertexId, String label,
+        KeyEncoding encoding) {
       super(id, outVertexId, inVertexId, label);
+      this.encoding = encoding;
     }
 
     @Override
     public Iterable<Mutation> create() {
       Mutation m = new Mutation(id);
       m.put(Constants.LABEL.getBytes(),
-          (inVertexId + Constants.ID_DELIM + outVertexId).getBytes(),
+          EdgeKeySerializer.serializeVertices(encoding, inVertexId, outVertexId),
           AccumuloByteSerializer.serialize(label));
 
       return Lists.newArrayList(m);
@@ -57,9 +72,13 @@ public final class EdgeMutator {
 
     @Override
     public Iterable<Mutation> create() {
+      // The encoding may have changed since the
+      // edge was written, so delete both.
       Mutation m = new Mutation(id);
-      m.putDelete(Constants.LABEL.getBytes(),
-          (inVertexId + Constants.ID_DELIM + outVertexId).getBytes());
+      for (KeyEncoding encoding : KeyEncoding.values()) {
+        m.putDelete(Constants.LABEL.getBytes(), EdgeKeySerializer
+            .serializeVertices(encoding, inVertexId, outVertexId));
+      }
 
       return Lists.newArrayList(m);
     }
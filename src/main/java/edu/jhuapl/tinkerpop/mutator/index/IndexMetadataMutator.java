@@ -14,11 +14,18 @@
  */
 package edu.jhuapl.tinkerpop.mutator.index;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.UUID;
+
 import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.hadoop.io.DataOutputBuffer;
 
 import com.google.common.collect.Lists;
 import com.tinkerpop.blueprints.Element;
 
+import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.Constants;
 import edu.jhuapl.tinkerpop.Constants.IndexMetadataEntryType;
 import edu.jhuapl.tinkerpop.mutator.Mutator;
@@ -73,4 +80,40 @@ public class IndexMetadataMutator {
       return Lists.newArrayList(m);
     }
   }
+
+  /**
+   * Records a range of the element table whose entries
+   * were added to a key index by an unfinished build.
+   * The range is stored in the value, under a unique
+   * qualifier prefixed by the element class.
+   */
+  public static class AddBuiltRange implements Mutator {
+
+    private final String key;
+    private final Class<? extends Element> elementClass;
+    private final Range range;
+
+    public AddBuiltRange(String key, Class<? extends Element> elementClass,
+        Range range) {
+      this.key = key;
+      this.elementClass = elementClass;
+      this.range = range;
+    }
+
+    @Override
+    public Iterable<Mutation> create() {
+      DataOutputBuffer out = new DataOutputBuffer();
+      try {
+        range.write(out);
+      } catch (IOException e) {
+        throw new AccumuloGraphException(e);
+      }
+
+      Mutation m = new Mutation(key);
+      m.put(IndexMetadataEntryType.__INDEX_BUILD__.name().getBytes(),
+          (elementClass.getName() + "/" + UUID.randomUUID()).getBytes(),
+          Arrays.copyOf(out.getData(), out.getLength()));
+      return Lists.newArrayList(m);
+    }
+  }
 }
@@ -20,6 +20,7 @@ import com.google.common.collect.Lists;
 import com.tinkerpop.blueprints.Element;
 
 import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.ValueEncoding;
 import edu.jhuapl.tinkerpop.Constants;
 import edu.jhuapl.tinkerpop.mutator.Mutator;
 
@@ -35,16 +36,23 @@ public class IndexValueMutator {
     private final Element element;
     private final String key;
     private final Object value;
+    private final ValueEncoding encoding;
 
     public Add(Element element, String key, Object value) {
+      this(element, key, value, ValueEncoding.Text);
+    }
+
+    public Add(Element element, String key, Object value,
+        ValueEncoding encoding) {
       this.element = element;
       this.key = key;
       this.value = value;
+      this.encoding = encoding;
     }
 
     @Override
     public Iterable<Mutation> create() {
-      byte[] bytes = AccumuloByteSerializer.serialize(value);
+      byte[] bytes = AccumuloByteSerializer.serialize(value, encoding);
       Mutation m = new Mutation(bytes);
       m.put(key.getBytes(), element.getId().toString()
           .getBytes(), Constants.EMPTY);
@@ -57,19 +65,74 @@ public class IndexValueMutator {
     private final Element element;
     private final String key;
     private final Object value;
+    private final ValueEncoding encoding;
 
     public Delete(Element element, String key, Object value) {
+      this(element, key, value, ValueEncoding.Text);
+    }
+
+    public Delete(Element element, String key, Object value,
+        ValueEncoding encoding) {
       this.element = element;
       this.key = key;
       this.value = value;
+      this.encoding = encoding;
     }
 
     @Override
     public Iterable<Mutation> create() {
-      byte[] bytes = AccumuloByteSerializer.serialize(value);
+      byte[] bytes = AccumuloByteSerializer.serialize(value, encoding);
       Mutation m = new Mutation(bytes);
       m.putDelete(key, element.getId().toString());
       return Lists.newArrayList(m);
     }
   }
+
+  /**
+   * Adds an index entry given its already
+   * serialized value.
+   */
+  public static class AddSerialized implements Mutator {
+
+    private final String elementId;
+    private final String key;
+    private final byte[] value;
+
+    public AddSerialized(String elementId, String key, byte[] value) {
+      this.elementId = elementId;
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public Iterable<Mutation> create() {
+      Mutation m = new Mutation(value);
+      m.put(key.getBytes(), elementId.getBytes(), Constants.EMPTY);
+      return Lists.newArrayList(m);
+    }
+  }
+
+  /**
+   * Deletes an index entry given its already
+   * serialized value.
+   */
+  public static class DeleteSerialized implements Mutator {
+
+    private final String elementId;
+    private final String key;
+    private final byte[] value;
+
+    public DeleteSerialized(String elementId, String key, byte[] value) {
+      this.elementId = elementId;
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public Iterable<Mutation> create() {
+      Mutation m = new Mutation(value);
+      m.putDelete(key, elementId);
+      return Lists.newArrayList(m);
+    }
+  }
 }
@@ -0,0 +1,101 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.mutator.index;
+
+import org.apache.accumulo.core.data.Mutation;
+
+import com.google.common.collect.Lists;
+
+import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.mutator.Mutator;
+
+/**
+ * Mutators for reverse index table entries, recording
+ * which named index entries refer to an element.
+ * Entries are written with explicit timestamps, so that an
+ * entry added again right after being deleted is not masked
+ * by a delete with the same server-assigned timestamp.
+ */
+public class ReverseIndexMutator {
+
+  private ReverseIndexMutator() { }
+
+  public static class Add implements Mutator {
+
+    private final String indexName;
+    private final String elementId;
+    private final String key;
+    private final byte[] value;
+    private final long timestamp;
+
+    public Add(String indexName, String elementId, String key, byte[] value,
+        long timestamp) {
+      this.indexName = indexName;
+      this.elementId = elementId;
+      this.key = key;
+      this.value = value;
+      this.timestamp = timestamp;
+    }
+
+    @Override
+    public Iterable<Mutation> create() {
+      Mutation m = new Mutation(elementId);
+      m.put(indexName.getBytes(), getQualifier(key, value), timestamp,
+          Constants.EMPTY);
+      return Lists.newArrayList(m);
+    }
+  }
+
+  public static class Delete implements Mutator {
+
+    private final String indexName;
+    private final String elementId;
+    private final String key;
+    private final byte[] value;
+    private final long timestamp;
+
+    public Delete(String indexName, String elementId, String key, byte[] value,
+        long timestamp) {
+      this.indexName = indexName;
+      this.elementId = elementId;
+      this.key = key;
+      this.value = value;
+      this.timestamp = timestamp;
+    }
+
+    @Override
+    public Iterable<Mutation> create() {
+      Mutation m = new Mutation(elementId);
+      m.putDelete(indexName.getBytes(), getQualifier(key, value), timestamp);
+      return Lists.newArrayList(m);
+    }
+  }
+
+  /**
+   * Column qualifier of a reverse index entry:
+   * the property key and serialized value,
+   * separated by the id delimiter.
+   * @param key
+   * @param value
+   * @return
+   */
+  public static byte[] getQualifier(String key, byte[] value) {
+    byte[] prefix = (key + Constants.ID_DELIM).getBytes();
+    byte[] cq = new byte[prefix.length + value.length];
+    System.arraycopy(prefix, 0, cq, 0, prefix.length);
+    System.arraycopy(value, 0, cq, prefix.length, value.length);
+    return cq;
+  }
+}
@@ -0,0 +1,68 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.mutator.property;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.data.Mutation;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.ValueEncoding;
+import edu.jhuapl.tinkerpop.mutator.Mutator;
+
+/**
+ * Writes many properties of an element as a single mutation,
+ * optionally along with the entries of another single-mutation
+ * mutator for the same element, such as its existence entry.
+ */
+public class WritePropertiesMutator implements Mutator {
+
+  private final Mutator element;
+  private final String id;
+  private final Map<String, Object> properties;
+  private final ValueEncoding encoding;
+
+  public WritePropertiesMutator(String id, Map<String, Object> properties,
+      ValueEncoding encoding) {
+    this(null, id, properties, encoding);
+  }
+
+  /**
+   * @param element Mutator for the element's other entries, or null
+   * @param id
+   * @param properties
+   * @param encoding
+   */
+  public WritePropertiesMutator(Mutator element, String id,
+      Map<String, Object> properties, ValueEncoding encoding) {
+    this.element = element;
+    this.id = id;
+    this.properties = properties;
+    this.encoding = encoding;
+  }
+
+  @Override
+  public Iterable<Mutation> create() {
+    Mutation m = element != null ?
+        Iterables.getOnlyElement(element.create()) : new Mutation(id);
+    for (Entry<String, Object> prop : properties.entrySet()) {
+      WritePropertyMutator.put(m, prop.getKey(), prop.getValue(), encoding);
+    }
+    return m.size() > 0 ? Lists.newArrayList(m) : Lists.<Mutation>newArrayList();
+  }
+}
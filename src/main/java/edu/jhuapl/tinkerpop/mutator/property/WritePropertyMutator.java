@@ -18,22 +18,44 @@ import org.apache.accumulo.core.data.Mutation;
 
 import com.google.common.collect.Lists;
 import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.ValueEncoding;
 import edu.jhuapl.tinkerpop.Constants;
 
 public class WritePropertyMutator extends BasePropertyMutator {
 
   private final Object value;
+  private final ValueEncoding encoding;
 
   public WritePropertyMutator(String id, String key, Object value) {
+    this(id, key, value, ValueEncoding.Text);
+  }
+
+  public WritePropertyMutator(String id, String key, Object value,
+      ValueEncoding encoding) {
     super(id, key);
     this.value = value;
+    this.encoding = encoding;
   }
 
   @Override
   public Iterable<Mutation> create() {
-    byte[] bytes = AccumuloByteSerializer.serialize(value);
     Mutation m = new Mutation(id);
-    m.put(key.getBytes(), Constants.EMPTY, bytes);
+    put(m, key, value, encoding);
     return Lists.newArrayList(m);
   }
+
+  /**
+   * Add the property to an existing mutation for
+   * the element's row, so that many properties can
+   * be written with one mutation.
+   * @param m
+   * @param key
+   * @param value
+   * @param encoding
+   */
+  public static void put(Mutation m, String key, Object value,
+      ValueEncoding encoding) {
+    m.put(key.getBytes(), Constants.EMPTY,
+        AccumuloByteSerializer.serialize(value, encoding));
+  }
 }
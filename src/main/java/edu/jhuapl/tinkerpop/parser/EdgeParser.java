@@ -24,6 +24,7 @@ import edu.jhuapl.tinkerpop.AccumuloEdge;
 import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.AccumuloVertex;
 import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.EdgeKeySerializer;
 import edu.jhuapl.tinkerpop.GlobalInstances;
 
 /**
@@ -53,14 +54,12 @@ public class EdgeParser extends ElementParser<AccumuloEdge> {
     for (Entry<Key, Value> entry : entries) {
       String cf = entry.getKey().getColumnFamily().toString();
       if (Constants.LABEL.equals(cf)) {
-        String cq = entry.getKey().getColumnQualifier().toString();
-        String[] parts = cq.split(Constants.ID_DELIM);
-        String inVertexId = parts[0];
-        String outVertexId = parts[1];
+        EdgeKeySerializer.Vertices vertices = new EdgeKeySerializer.Vertices()
+            .read(entry.getKey().getColumnQualifierData());
         String label = AccumuloByteSerializer.deserialize(entry.getValue().get());
         return new AccumuloEdge(globals, id,
-            new AccumuloVertex(globals, inVertexId),
-            new AccumuloVertex(globals, outVertexId), label);
+            new AccumuloVertex(globals, vertices.getInVertexId()),
+            new AccumuloVertex(globals, vertices.getOutVertexId()), label);
       }
     }
 
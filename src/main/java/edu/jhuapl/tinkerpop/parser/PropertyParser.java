@@ -61,6 +61,7 @@ public class PropertyParser implements EntryParser<Map<String, Object>> {
     String cf = key.getColumnFamily().toString();
     return Constants.LABEL.equals(cf) ||
         Constants.IN_EDGE.equals(cf) ||
-        Constants.OUT_EDGE.equals(cf);
+        Constants.OUT_EDGE.equals(cf) ||
+        Constants.DEGREE.equals(cf);
   }
 }
@@ -25,6 +25,7 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 
+import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
 import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.GlobalInstances;
 
@@ -33,22 +34,21 @@ import edu.jhuapl.tinkerpop.GlobalInstances;
  */
 public abstract class BaseTableWrapper {
 
-  protected GlobalInstances globals;
-  private String tableName;
+  protected final GlobalInstances globals;
+  private final String tableName;
 
   public BaseTableWrapper(GlobalInstances globals, String tableName) {
     this.globals = globals;
     this.tableName = tableName;
   }
 
+  /**
+   * Borrow a scanner for this table from the
+   * scanner pool. Close it to return it.
+   * @return
+   */
   protected Scanner getScanner() {
-    try {
-      return globals.getConfig().getConnector().createScanner(tableName,
-          globals.getConfig().getAuthorizations());
-
-    } catch (Exception e) {
-      throw new AccumuloGraphException(e);
-    }
+    return globals.getScannerPool().getScanner(tableName);
   }
 
   protected BatchScanner getBatchScanner() {
@@ -62,6 +62,17 @@ public abstract class BaseTableWrapper {
     }
   }
 
+  /**
+   * Serialize the given value using the configured
+   * value encoding.
+   * @param value
+   * @return
+   */
+  protected byte[] serializeValue(Object value) {
+    return AccumuloByteSerializer.serialize(value,
+        globals.getConfig().getValueEncoding());
+  }
+
   protected BatchWriter getWriter() {
     try {
       return globals.getMtbw().getBatchWriter(tableName);
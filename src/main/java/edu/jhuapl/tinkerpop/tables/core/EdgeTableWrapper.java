@@ -15,10 +15,12 @@
 package edu.jhuapl.tinkerpop.tables.core;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
 import java.util.Map.Entry;
-import java.util.regex.Pattern;
 
 import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.IteratorSetting;
@@ -26,7 +28,6 @@ import org.apache.accumulo.core.client.Scanner;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
-import org.apache.accumulo.core.iterators.user.RegExFilter;
 import org.apache.accumulo.core.util.PeekingIterator;
 import org.apache.hadoop.io.Text;
 
@@ -39,11 +40,14 @@ import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.AccumuloGraphUtils;
 import edu.jhuapl.tinkerpop.AccumuloVertex;
 import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.EdgeKeySerializer;
 import edu.jhuapl.tinkerpop.GlobalInstances;
 import edu.jhuapl.tinkerpop.ScannerIterable;
 import edu.jhuapl.tinkerpop.mutator.Mutators;
 import edu.jhuapl.tinkerpop.mutator.edge.EdgeMutator;
+import edu.jhuapl.tinkerpop.mutator.property.WritePropertiesMutator;
 import edu.jhuapl.tinkerpop.parser.EdgeParser;
+import edu.jhuapl.tinkerpop.parser.PropertyParser;
 
 
 /**
@@ -65,7 +69,22 @@ public class EdgeTableWrapper extends ElementTableWrapper {
    * @param edge
    */
   public void writeEdge(Edge edge) {
-    Mutators.apply(getWriter(), new EdgeMutator.Add(edge));
+    Mutators.apply(getWriter(), new EdgeMutator.Add(edge,
+        globals.getConfig().getKeyEncoding()));
+    globals.checkedFlush();
+  }
+
+  /**
+   * Write the given edge and properties to the edge table,
+   * as a single mutation. As with {@link #writeEdge(Edge)},
+   * endpoint information is not written.
+   * @param edge
+   * @param properties
+   */
+  public void writeEdge(Edge edge, Map<String, Object> properties) {
+    Mutators.apply(getWriter(), new WritePropertiesMutator(new EdgeMutator.Add(edge,
+        globals.getConfig().getKeyEncoding()), edge.getId().toString(),
+        properties, globals.getConfig().getValueEncoding()));
     globals.checkedFlush();
   }
 
@@ -75,6 +94,19 @@ public class EdgeTableWrapper extends ElementTableWrapper {
   }
 
   public CloseableIterable<Edge> getEdges() {
+    return getEdges((IteratorSetting) null, null);
+  }
+
+  /**
+   * Scan all edges, keeping only those accepted by
+   * the given server-side row filter. The given properties
+   * are loaded along with any preloaded properties.
+   * @param filter
+   * @param propertyKeys
+   * @return
+   */
+  public CloseableIterable<Edge> getEdges(IteratorSetting filter,
+      String[] propertyKeys) {
     Scanner scan = getScanner();
     scan.fetchColumnFamily(new Text(Constants.LABEL));
 
@@ -83,6 +115,14 @@ public class EdgeTableWrapper extends ElementTableWrapper {
         scan.fetchColumnFamily(new Text(key));
       }
     }
+    if (propertyKeys != null) {
+      for (String key : propertyKeys) {
+        scan.fetchColumnFamily(new Text(key));
+      }
+    }
+    if (filter != null) {
+      scan.addScanIterator(filter);
+    }
 
     final EdgeParser parser = new EdgeParser(globals);
 
@@ -110,6 +150,70 @@ public class EdgeTableWrapper extends ElementTableWrapper {
     };
   }
 
+  /**
+   * Read the edges with the given ids using a single batch
+   * lookup, loading the given properties as in
+   * {@link #readProperties(com.tinkerpop.blueprints.Element, String[])}.
+   * Ids that do not exist are skipped. Edges are returned
+   * as they are read, in no particular order.
+   * @param ids
+   * @param propertyKeys
+   * @return
+   */
+  public CloseableIterable<Edge> readEdges(Collection<String> ids,
+      String[] propertyKeys) {
+    return readEdges(ids, propertyKeys, null);
+  }
+
+  /**
+   * As {@link #readEdges(Collection, String[])}, but only
+   * returning edges accepted by the given server-side row filter.
+   * @param ids
+   * @param propertyKeys
+   * @param filter
+   * @return
+   */
+  public CloseableIterable<Edge> readEdges(Collection<String> ids,
+      String[] propertyKeys, IteratorSetting filter) {
+    BatchScanner scan = getRowsBatchScanner(ids, propertyKeys, filter);
+
+    final EdgeParser parser = new EdgeParser(globals);
+
+    return new ScannerIterable<Edge>(scan) {
+      @Override
+      public Edge next(PeekingIterator<Entry<Key, Value>> iterator) {
+        Entry<Key, Value> row = iterator.next();
+        String rowId = row.getKey().getRow().toString();
+        SortedMap<Key, Value> entries = decodeRow(row);
+
+        AccumuloEdge edge;
+        if (hasLabelEntry(entries)) {
+          edge = parser.parse(rowId, entries.entrySet());
+        } else {
+          // Only properties were found, which is what
+          // the single-id lookup treats as existence too.
+          edge = new AccumuloEdge(globals, rowId);
+          Map<String, Object> props = new PropertyParser().parse(entries.entrySet());
+          for (Entry<String, Object> ent : props.entrySet()) {
+            edge.setPropertyInMemory(ent.getKey(), ent.getValue());
+          }
+        }
+        globals.getCaches().cache(edge, Edge.class);
+
+        return edge;
+      }
+    };
+  }
+
+  private static boolean hasLabelEntry(SortedMap<Key, Value> entries) {
+    for (Key key : entries.keySet()) {
+      if (key.getColumnFamily().toString().equals(Constants.LABEL)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   public Iterable<Edge> getEdges(String key, Object value) {
     AccumuloGraphUtils.nullCheckProperty(key, value);
     if (key.equalsIgnoreCase("label")) {
@@ -119,24 +223,27 @@ public class EdgeTableWrapper extends ElementTableWrapper {
     BatchScanner scan = getBatchScanner();
     scan.fetchColumnFamily(new Text(key));
 
-    byte[] val = AccumuloByteSerializer.serialize(value);
-    if (val[0] != AccumuloByteSerializer.SERIALIZABLE) {
-      IteratorSetting is = new IteratorSetting(10, "filter", RegExFilter.class);
-      RegExFilter.setRegexs(is, null, null, null, Pattern.quote(new String(val)), false);
-      scan.addScanIterator(is);
+    // Edge labels are always stored with the text encoding.
+    byte[] val = Constants.LABEL.equals(key) ?
+        AccumuloByteSerializer.serialize(value) : serializeValue(value);
+    if (AccumuloByteSerializer.getType(val) != AccumuloByteSerializer.SERIALIZABLE) {
+      scan.addScanIterator(getValueFilter(val));
 
       return new ScannerIterable<Edge>(scan) {
 
+        private final EdgeKeySerializer.Vertices vertices =
+            new EdgeKeySerializer.Vertices();
+
         @Override
         public Edge next(PeekingIterator<Entry<Key,Value>> iterator) {
 
           Key k = iterator.next().getKey();
 
           if (k.getColumnFamily().toString().equals(Constants.LABEL)) {
-            String[] vals = k.getColumnQualifier().toString().split(Constants.ID_DELIM);
+            vertices.read(k.getColumnQualifierData());
             return new AccumuloEdge(globals, k.getRow().toString(),
-                new AccumuloVertex(globals, vals[0]),
-                new AccumuloVertex(globals, vals[1]), null);
+                new AccumuloVertex(globals, vertices.getInVertexId()),
+                new AccumuloVertex(globals, vertices.getOutVertexId()), null);
           }
           return new AccumuloEdge(globals, k.getRow().toString());
         }
@@ -161,13 +268,13 @@ public class EdgeTableWrapper extends ElementTableWrapper {
 
       Entry<Key, Value> entry = iter.next();
 
-      String cq = entry.getKey().getColumnQualifier().toString();
-      String[] ids = cq.split(Constants.ID_DELIM);
+      EdgeKeySerializer.Vertices vertices = new EdgeKeySerializer.Vertices()
+          .read(entry.getKey().getColumnQualifierData());
 
       String label = AccumuloByteSerializer.deserialize(entry.getValue().get());
 
-      edge.setVertices(new AccumuloVertex(globals, ids[0]),
-          new AccumuloVertex(globals, ids[1]));
+      edge.setVertices(new AccumuloVertex(globals, vertices.getInVertexId()),
+          new AccumuloVertex(globals, vertices.getOutVertexId()));
       edge.setLabel(label);
 
     } finally {
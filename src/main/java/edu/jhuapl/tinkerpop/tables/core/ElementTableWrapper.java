@@ -14,28 +14,42 @@
  */
 package edu.jhuapl.tinkerpop.tables.core;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.Map.Entry;
+import java.util.regex.Pattern;
 
+import org.apache.accumulo.core.client.BatchDeleter;
+import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.user.RegExFilter;
+import org.apache.accumulo.core.iterators.user.WholeRowIterator;
 import org.apache.hadoop.io.Text;
 
 import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.util.StringFactory;
 
 import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
+import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.Constants;
 import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.iterators.EdgeLabelFilter;
 import edu.jhuapl.tinkerpop.mutator.property.ClearPropertyMutator;
+import edu.jhuapl.tinkerpop.mutator.property.WritePropertiesMutator;
 import edu.jhuapl.tinkerpop.mutator.property.WritePropertyMutator;
 import edu.jhuapl.tinkerpop.mutator.Mutators;
 import edu.jhuapl.tinkerpop.parser.PropertyParser;
@@ -47,7 +61,7 @@ import edu.jhuapl.tinkerpop.tables.BaseTableWrapper;
  */
 public abstract class ElementTableWrapper extends BaseTableWrapper {
 
-  private BatchWriter writer;
+  private final BatchWriter writer;
 
   public ElementTableWrapper(GlobalInstances globals, String tableName) {
     super(globals, tableName);
@@ -130,6 +144,120 @@ public abstract class ElementTableWrapper extends BaseTableWrapper {
     return props;
   }
 
+  /**
+   * Create a batch scanner over the rows of the given element ids,
+   * restricted to the given properties as in
+   * {@link #readProperties(Element, String[])}.
+   * Each row is returned as a single entry so that elements
+   * can be parsed as they stream in; use {@link #decodeRow(Entry)}
+   * to unpack it.
+   * @param ids
+   * @param propertyKeys
+   * @return
+   */
+  protected BatchScanner getRowsBatchScanner(Collection<String> ids,
+      String[] propertyKeys) {
+    return getRowsBatchScanner(ids, propertyKeys, null);
+  }
+
+  /**
+   * As {@link #getRowsBatchScanner(Collection, String[])},
+   * additionally applying the given row filter (if not null)
+   * on the server before rows are packed.
+   * @param ids
+   * @param propertyKeys
+   * @param filter
+   * @return
+   */
+  protected BatchScanner getRowsBatchScanner(Collection<String> ids,
+      String[] propertyKeys, IteratorSetting filter) {
+    List<Range> ranges = new ArrayList<Range>(ids.size());
+    for (String id : ids) {
+      ranges.add(Range.exact(id));
+    }
+
+    BatchScanner scan = getBatchScanner();
+    scan.setRanges(ranges);
+
+    if (propertyKeys != null) {
+      scan.fetchColumnFamily(new Text(Constants.LABEL));
+
+      for (String key : propertyKeys) {
+        scan.fetchColumnFamily(new Text(key));
+      }
+    }
+
+    if (filter != null) {
+      scan.addScanIterator(filter);
+    }
+    scan.addScanIterator(new IteratorSetting(20, "wholeRow", WholeRowIterator.class));
+    return scan;
+  }
+
+  /**
+   * Unpack a row returned by a scanner created with
+   * {@link #getRowsBatchScanner(Collection, String[])}.
+   * @param entry
+   * @return
+   */
+  protected static SortedMap<Key, Value> decodeRow(Entry<Key, Value> entry) {
+    try {
+      return WholeRowIterator.decodeRow(entry.getKey(), entry.getValue());
+    } catch (IOException e) {
+      throw new AccumuloGraphException(e);
+    }
+  }
+
+  /**
+   * Create a scanner over all entries of the rows of the
+   * given element ids, using a single batch lookup. Entries
+   * are not packed into rows, so rows of any size can be read,
+   * but entries of different rows may be interleaved.
+   * The caller must close the scanner.
+   * @param ids
+   * @return
+   */
+  public BatchScanner getRowEntriesScanner(Collection<String> ids) {
+    List<Range> ranges = new ArrayList<Range>(ids.size());
+    for (String id : ids) {
+      ranges.add(Range.exact(id));
+    }
+
+    BatchScanner scan = getBatchScanner();
+    scan.setRanges(ranges);
+    return scan;
+  }
+
+  /**
+   * Delete the complete rows of the given element ids.
+   * @param ids
+   */
+  public void deleteRows(Collection<String> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+
+    BatchDeleter deleter = null;
+
+    try {
+      List<Range> ranges = new ArrayList<Range>(ids.size());
+      for (String id : ids) {
+        ranges.add(Range.exact(id));
+      }
+
+      deleter = getDeleter();
+      deleter.setRanges(ranges);
+      deleter.delete();
+
+    } catch (Exception e) {
+      throw new AccumuloGraphException(e);
+    } finally {
+      if (deleter != null) {
+        deleter.close();
+      }
+    }
+  }
+
   /**
    * Return true if the element with given id exists.
    * @param id
@@ -173,6 +301,7 @@ public abstract class ElementTableWrapper extends BaseTableWrapper {
     keys.remove(Constants.IN_EDGE);
     keys.remove(Constants.LABEL);
     keys.remove(Constants.OUT_EDGE);
+    keys.remove(Constants.DEGREE);
 
     return keys;
   }
@@ -197,29 +326,51 @@ public abstract class ElementTableWrapper extends BaseTableWrapper {
   public void writeProperty(Element element, String key, Object value) {
     Mutators.apply(getWriter(),
         new WritePropertyMutator(element.getId().toString(),
-            key, value));
+            key, value, globals.getConfig().getValueEncoding()));
+    globals.checkedFlush();
+  }
+
+  /**
+   * Write the given properties to the property table
+   * as a single mutation.
+   * @param element
+   * @param properties
+   */
+  public void writeProperties(Element element, Map<String, Object> properties) {
+    Mutators.apply(getWriter(),
+        new WritePropertiesMutator(element.getId().toString(),
+            properties, globals.getConfig().getValueEncoding()));
     globals.checkedFlush();
   }
 
   /**
    * Add custom iterator to the given scanner so that
-   * it will only return keys with value corresponding to an edge.
+   * it will only return keys with value corresponding to an edge
+   * with one of the given labels.
    * @param scan
    * @param labels
    */
-  protected void applyEdgeLabelValueFilter(Scanner scan, String... labels) {
-    StringBuilder regex = new StringBuilder();
-    for (String lab : labels) {
-      if (regex.length() != 0)
-        regex.append("|");
-      regex.append(".*"+Constants.ID_DELIM+"\\Q").append(lab).append("\\E$");
-    }
-
-    IteratorSetting is = new IteratorSetting(10, "edgeValueFilter", RegExFilter.class);
-    RegExFilter.setRegexs(is, null, null, null, regex.toString(), false);
+  protected void applyEdgeLabelValueFilter(ScannerBase scan, String... labels) {
+    IteratorSetting is = new IteratorSetting(10, "edgeValueFilter", EdgeLabelFilter.class);
+    EdgeLabelFilter.setLabels(is, labels);
     scan.addScanIterator(is);
   }
 
+  /**
+   * Create a filter matching entries whose value is exactly
+   * the given serialized value. Values are compared byte for byte,
+   * so this works with either value encoding.
+   * @param val
+   * @return
+   */
+  protected static IteratorSetting getValueFilter(byte[] val) {
+    IteratorSetting is = new IteratorSetting(10, "filter", RegExFilter.class);
+    RegExFilter.setRegexs(is, null, null, null,
+        Pattern.quote(new String(val, StandardCharsets.ISO_8859_1)), false);
+    RegExFilter.setEncoding(is, StandardCharsets.ISO_8859_1.name());
+    return is;
+  }
+
   public void close() {
     // TODO?
   }
@@ -16,18 +16,24 @@ package edu.jhuapl.tinkerpop.tables.core;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 import org.apache.accumulo.core.client.BatchDeleter;
 import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
-import org.apache.accumulo.core.iterators.user.RegExFilter;
 import org.apache.accumulo.core.util.PeekingIterator;
 import org.apache.hadoop.io.Text;
 
@@ -39,16 +45,22 @@ import com.tinkerpop.blueprints.Vertex;
 import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
 import edu.jhuapl.tinkerpop.AccumuloEdge;
 import edu.jhuapl.tinkerpop.AccumuloElement;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.AdjacencyLayout;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.KeyEncoding;
 import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.AccumuloGraphUtils;
 import edu.jhuapl.tinkerpop.AccumuloVertex;
 import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.DegreeCounters;
+import edu.jhuapl.tinkerpop.EdgeKeySerializer;
 import edu.jhuapl.tinkerpop.GlobalInstances;
 import edu.jhuapl.tinkerpop.ScannerIterable;
+import edu.jhuapl.tinkerpop.iterators.DegreeIterator;
 import edu.jhuapl.tinkerpop.mutator.vertex.AddVertexMutator;
 import edu.jhuapl.tinkerpop.mutator.Mutator;
 import edu.jhuapl.tinkerpop.mutator.Mutators;
 import edu.jhuapl.tinkerpop.mutator.edge.EdgeEndpointsMutator;
+import edu.jhuapl.tinkerpop.mutator.property.WritePropertiesMutator;
 import edu.jhuapl.tinkerpop.parser.VertexParser;
 
 
@@ -57,10 +69,27 @@ import edu.jhuapl.tinkerpop.parser.VertexParser;
  */
 public class VertexTableWrapper extends ElementTableWrapper {
 
+  private static final Text IN_EDGE = new Text(Constants.IN_EDGE);
+  private static final Text DEGREE = new Text(Constants.DEGREE);
+
+  private volatile boolean flatEndpoints = true;
+
   public VertexTableWrapper(GlobalInstances globals) {
     super(globals, globals.getConfig().getVertexTableName());
   }
 
+  /**
+   * Set whether edge endpoint entries written with the
+   * flat layout may be present. If so, label-restricted reads
+   * with the label-partitioned layout cannot seek to each
+   * label's entries, and filter all entries by label instead.
+   * Defaults to true.
+   * @param flatEndpoints
+   */
+  public void setFlatEndpoints(boolean flatEndpoints) {
+    this.flatEndpoints = flatEndpoints;
+  }
+
   /**
    * Write a vertex with the given id.
    * Note: This does not currently write the vertex's properties.
@@ -71,6 +100,19 @@ public class VertexTableWrapper extends ElementTableWrapper {
     globals.checkedFlush();
   }
 
+  /**
+   * Write a vertex with the given id and properties,
+   * as a single mutation.
+   * @param vertex
+   * @param properties
+   */
+  public void writeVertex(Vertex vertex, Map<String, Object> properties) {
+    String id = vertex.getId().toString();
+    Mutators.apply(getWriter(), new WritePropertiesMutator(new AddVertexMutator(id),
+        id, properties, globals.getConfig().getValueEncoding()));
+    globals.checkedFlush();
+  }
+
   /**
    * Remove the given vertex.
    * Note: This uses a BatchDeleter rather than {@link Mutator}
@@ -78,6 +120,8 @@ public class VertexTableWrapper extends ElementTableWrapper {
    * @param vertex
    */
   public void deleteVertex(Vertex vertex) {
+    flushDegreeDeltas();
+
     BatchDeleter deleter = null;
 
     try {
@@ -94,39 +138,77 @@ public class VertexTableWrapper extends ElementTableWrapper {
     }
   }
 
+  @Override
+  public void deleteRows(Collection<String> ids) {
+    flushDegreeDeltas();
+    super.deleteRows(ids);
+  }
+
+  /**
+   * Deltas written to the degree counters of vertices
+   * whose edges were just removed must reach the table
+   * before the vertices' rows are deleted, or they
+   * would outlive the rows.
+   */
+  private void flushDegreeDeltas() {
+    if (globals.getConfig().getDegreeCounters()) {
+      try {
+        globals.flush();
+      } catch (MutationsRejectedException e) {
+        throw new AccumuloGraphException(e);
+      }
+    }
+  }
+
   /**
    * Write edge endpoint information to the vertex table.
    * @param edge
    */
   public void writeEdgeEndpoints(Edge edge) {
-    Mutators.apply(getWriter(), new EdgeEndpointsMutator.Add(edge));
+    writeEdgeEndpoints(edge, globals.getConfig().getDegreeCounters());
+  }
+
+  /**
+   * Write edge endpoint information to the vertex table,
+   * updating the degree counters if requested.
+   * @param edge
+   * @param countDegrees
+   */
+  public void writeEdgeEndpoints(Edge edge, boolean countDegrees) {
+    Mutators.apply(getWriter(), new EdgeEndpointsMutator.Add(edge,
+        globals.getConfig().getAdjacencyLayout(),
+        globals.getConfig().getKeyEncoding(), countDegrees));
     globals.checkedFlush();
   }
 
   public void deleteEdgeEndpoints(Edge edge) {
-    Mutators.apply(getWriter(), new EdgeEndpointsMutator.Delete(edge));
+    Mutators.apply(getWriter(), new EdgeEndpointsMutator.Delete(edge,
+        globals.getConfig().getDegreeCounters()));
     globals.checkedFlush();
   }
 
-  public CloseableIterable<Edge> getEdges(Vertex vertex, Direction direction,
-      String... labels) {
-    Scanner scan = getScanner();
-    scan.setRange(new Range(vertex.getId().toString()));
-    if (direction.equals(Direction.IN)) {
-      scan.fetchColumnFamily(new Text(Constants.IN_EDGE));
-    } else if (direction.equals(Direction.OUT)) {
-      scan.fetchColumnFamily(new Text(Constants.OUT_EDGE));
-    } else {
-      scan.fetchColumnFamily(new Text(Constants.IN_EDGE));
-      scan.fetchColumnFamily(new Text(Constants.OUT_EDGE));
+  /**
+   * Remove the endpoint information of all the given edges,
+   * flushing once at the end.
+   * @param edges
+   */
+  public void deleteEdgeEndpoints(Iterable<Edge> edges) {
+    for (Edge edge : edges) {
+      Mutators.apply(getWriter(), new EdgeEndpointsMutator.Delete(edge,
+          globals.getConfig().getDegreeCounters()));
     }
+    globals.checkedFlush();
+  }
 
-    if (labels.length > 0) {
-      applyEdgeLabelValueFilter(scan, labels);
-    }
+  public CloseableIterable<Edge> getEdges(Vertex vertex, Direction direction,
+      String... labels) {
+    ScannerBase scan = getEndpointsScanner(vertex, direction, labels);
 
     return new ScannerIterable<Edge>(scan) {
 
+      private final EdgeKeySerializer.Endpoint endpoint =
+          new EdgeKeySerializer.Endpoint();
+
       @Override
       public Edge next(PeekingIterator<Entry<Key,Value>> iterator) {
         // TODO better use of information readily available...
@@ -135,17 +217,17 @@ public class VertexTableWrapper extends ElementTableWrapper {
 
         Entry<Key,Value> kv = iterator.next();
 
-        String[] parts = kv.getKey().getColumnQualifier().toString().split(Constants.ID_DELIM);
-        String label = (new String(kv.getValue().get())).split(Constants.ID_DELIM)[1];
+        endpoint.read(kv.getKey().getColumnQualifierData());
+        String label = EdgeKeySerializer.deserializeEndpointLabel(kv.getValue().get());
 
         AccumuloEdge edge;
-        if (kv.getKey().getColumnFamily().toString().equalsIgnoreCase(Constants.IN_EDGE)) {
-          edge = new AccumuloEdge(globals, parts[1],
+        if (kv.getKey().compareColumnFamily(IN_EDGE) == 0) {
+          edge = new AccumuloEdge(globals, endpoint.getEdgeId(),
               new AccumuloVertex(globals, kv.getKey().getRow().toString()),
-              new AccumuloVertex(globals, parts[0]), label);
+              new AccumuloVertex(globals, endpoint.getOtherVertexId()), label);
         } else {
-          edge = new AccumuloEdge(globals, parts[1],
-              new AccumuloVertex(globals, parts[0]),
+          edge = new AccumuloEdge(globals, endpoint.getEdgeId(),
+              new AccumuloVertex(globals, endpoint.getOtherVertexId()),
               new AccumuloVertex(globals, kv.getKey().getRow().toString()), label);
         }
         globals.getCaches().cache(edge, Edge.class);
@@ -156,32 +238,22 @@ public class VertexTableWrapper extends ElementTableWrapper {
   }
 
   public Iterable<Vertex> getVertices(Vertex vertex, Direction direction, String... labels) {
-    Scanner scan = getScanner();
-    scan.setRange(new Range(vertex.getId().toString()));
-    if (direction.equals(Direction.IN)) {
-      scan.fetchColumnFamily(new Text(Constants.IN_EDGE));
-    } else if (direction.equals(Direction.OUT)) {
-      scan.fetchColumnFamily(new Text(Constants.OUT_EDGE));
-    } else {
-      scan.fetchColumnFamily(new Text(Constants.IN_EDGE));
-      scan.fetchColumnFamily(new Text(Constants.OUT_EDGE));
-    }
-
-    if (labels != null && labels.length > 0) {
-      applyEdgeLabelValueFilter(scan, labels);
-    }
+    ScannerBase scan = getEndpointsScanner(vertex, direction, labels);
 
     return new ScannerIterable<Vertex>(scan) {
 
+      private final EdgeKeySerializer.Endpoint endpoint =
+          new EdgeKeySerializer.Endpoint();
+
       @Override
       public Vertex next(PeekingIterator<Entry<Key,Value>> iterator) {
         // TODO better use of information readily available...
         // TODO could also check local cache before creating a new
         // instance?
-        String[] parts = iterator.next().getKey().getColumnQualifier()
-            .toString().split(Constants.ID_DELIM);
+        endpoint.read(iterator.next().getKey().getColumnQualifierData());
 
-        AccumuloVertex vertex = new AccumuloVertex(globals, parts[0]);
+        AccumuloVertex vertex = new AccumuloVertex(globals,
+            endpoint.getOtherVertexId());
         globals.getCaches().cache(vertex, Vertex.class);
 
         return vertex;
@@ -189,14 +261,228 @@ public class VertexTableWrapper extends ElementTableWrapper {
     };
   }
 
+  /**
+   * Count the edges of the given vertices in the given direction
+   * with the given labels. With degree counters, the counters are
+   * read; otherwise edges are counted on the tablet servers.
+   * Either way, only the counts are returned, using a single batch
+   * lookup. Vertices without such edges are omitted.
+   * @param ids
+   * @param direction
+   * @param labels
+   * @return degree by vertex id
+   */
+  public Map<String, Long> readDegrees(Collection<String> ids,
+      Direction direction, String... labels) {
+    return countEdges(ids, direction, false, labels);
+  }
+
+  /**
+   * Count the edges of the given vertex in the given
+   * direction by label, as in {@link #readDegrees(Collection, Direction, String...)}.
+   * @param vertex
+   * @param direction
+   * @return degree by label
+   */
+  public Map<String, Long> readLabelDegrees(Vertex vertex, Direction direction) {
+    return countEdges(Collections.singleton(vertex.getId().toString()),
+        direction, true);
+  }
+
+  private Map<String, Long> countEdges(Collection<String> ids,
+      Direction direction, boolean byLabel, String... labels) {
+    Map<String, Long> counts = new HashMap<String, Long>();
+    if (ids.isEmpty()) {
+      return counts;
+    }
+    if (globals.getConfig().getDegreeCounters()) {
+      return readDegreeCounters(ids, direction, byLabel, labels);
+    }
+
+    ScannerBase scan = null;
+    try {
+      scan = getEndpointsScanner(ids, direction, labels);
+      IteratorSetting is = new IteratorSetting(20, "degree", DegreeIterator.class);
+      DegreeIterator.setGroupByLabel(is, byLabel);
+      scan.addScanIterator(is);
+
+      for (Entry<Key, Value> entry : scan) {
+        String row = entry.getKey().getRow().toString();
+        for (Entry<String, Long> count : DegreeIterator
+            .decodeCounts(entry.getValue()).entrySet()) {
+          String key = byLabel ? count.getKey() : row;
+          Long total = counts.get(key);
+          counts.put(key, total == null ? count.getValue()
+              : total + count.getValue());
+        }
+      }
+      return counts;
+
+    } finally {
+      if (scan != null) {
+        scan.close();
+      }
+    }
+  }
+
+  /**
+   * Add up the degree counters of the given vertices, or of a
+   * single vertex by label, as in {@link #countEdges}.
+   * @param ids
+   * @param direction
+   * @param byLabel
+   * @param labels
+   * @return
+   */
+  private Map<String, Long> readDegreeCounters(Collection<String> ids,
+      Direction direction, boolean byLabel, String... labels) {
+    Set<String> wanted = labels != null && labels.length > 0 ?
+        new HashSet<String>(Arrays.asList(labels)) : null;
+
+    Map<String, Long> counts = new HashMap<String, Long>();
+    ScannerBase scan = null;
+    try {
+      if (ids.size() == 1) {
+        Scanner scanner = getScanner();
+        scanner.setRange(Range.exact(ids.iterator().next()));
+        scan = scanner;
+      } else {
+        List<Range> ranges = new ArrayList<Range>(ids.size());
+        for (String id : ids) {
+          ranges.add(Range.exact(id));
+        }
+        BatchScanner scanner = getBatchScanner();
+        scanner.setRanges(ranges);
+        scan = scanner;
+      }
+      scan.fetchColumnFamily(DEGREE);
+
+      for (Entry<Key, Value> entry : scan) {
+        String cq = entry.getKey().getColumnQualifier().toString();
+        String label = DegreeCounters.deserializeLabel(cq);
+        if ((!Direction.BOTH.equals(direction) &&
+            !direction.equals(DegreeCounters.deserializeDirection(cq))) ||
+            (wanted != null && !wanted.contains(label))) {
+          continue;
+        }
+
+        long count = DegreeCounters.deserializeCount(entry.getValue());
+        if (count == 0) {
+          continue;
+        }
+        String key = byLabel ? label : entry.getKey().getRow().toString();
+        Long total = counts.get(key);
+        counts.put(key, total == null ? count : total + count);
+      }
+      return counts;
+
+    } finally {
+      if (scan != null) {
+        scan.close();
+      }
+    }
+  }
+
+  private ScannerBase getEndpointsScanner(Vertex vertex, Direction direction,
+      String... labels) {
+    return getEndpointsScanner(Collections.singleton(vertex.getId().toString()),
+        direction, labels);
+  }
+
+  /**
+   * Create a scanner over the given vertices' edge endpoint
+   * entries in the given direction with the given labels.
+   * With the label-partitioned layout, each label's entries
+   * are read directly, unless entries may also have been
+   * written with the flat layout; otherwise all entries are
+   * read and filtered by label.
+   * @param ids
+   * @param direction
+   * @param labels
+   * @return
+   */
+  private ScannerBase getEndpointsScanner(Collection<String> ids,
+      Direction direction, String... labels) {
+    List<String> cfs = new ArrayList<String>();
+    if (!direction.equals(Direction.OUT)) {
+      cfs.add(Constants.IN_EDGE);
+    }
+    if (!direction.equals(Direction.IN)) {
+      cfs.add(Constants.OUT_EDGE);
+    }
+
+    boolean hasLabels = labels != null && labels.length > 0;
+    if (hasLabels && !flatEndpoints && AdjacencyLayout.LabelPartitioned.equals(
+        globals.getConfig().getAdjacencyLayout())) {
+      List<Range> ranges = new ArrayList<Range>();
+      for (String id : ids) {
+        Text row = new Text(id);
+        for (String cf : cfs) {
+          for (String label : new HashSet<String>(Arrays.asList(labels))) {
+            // Entries may have been written with either encoding.
+            for (KeyEncoding encoding : KeyEncoding.values()) {
+              ranges.add(Range.prefix(row, new Text(cf), new Text(
+                  EdgeKeySerializer.serializeLabelPrefix(encoding, label))));
+            }
+          }
+        }
+      }
+
+      BatchScanner scan = getBatchScanner();
+      scan.setRanges(ranges);
+      return scan;
+    }
+
+    ScannerBase scan;
+    if (ids.size() == 1) {
+      Scanner scanner = getScanner();
+      scanner.setRange(new Range(ids.iterator().next()));
+      scan = scanner;
+    } else {
+      List<Range> ranges = new ArrayList<Range>(ids.size());
+      for (String id : ids) {
+        ranges.add(Range.exact(id));
+      }
+      BatchScanner scanner = getBatchScanner();
+      scanner.setRanges(ranges);
+      scan = scanner;
+    }
+    for (String cf : cfs) {
+      scan.fetchColumnFamily(new Text(cf));
+    }
+
+    if (hasLabels) {
+      applyEdgeLabelValueFilter(scan, labels);
+    }
+    return scan;
+  }
+
   public CloseableIterable<Vertex> getVertices() {
     return getVerticesInRange(null, null);
   }
 
   public CloseableIterable<Vertex> getVerticesInRange(Object fromId, Object toId) {
+    return getVertices(new Range(fromId != null ? fromId.toString() : null,
+        toId != null ? toId.toString() : null), null, null);
+  }
+
+  /**
+   * Scan all vertices, keeping only those accepted by
+   * the given server-side row filter. The given properties
+   * are loaded along with any preloaded properties.
+   * @param filter
+   * @param propertyKeys
+   * @return
+   */
+  public CloseableIterable<Vertex> getVertices(IteratorSetting filter,
+      String[] propertyKeys) {
+    return getVertices(new Range(), filter, propertyKeys);
+  }
+
+  private CloseableIterable<Vertex> getVertices(Range range,
+      IteratorSetting filter, String[] propertyKeys) {
     Scanner scan = getScanner();
-    scan.setRange(new Range(fromId != null ? fromId.toString() : null,
-        toId != null ? toId.toString() : null));
+    scan.setRange(range);
     scan.fetchColumnFamily(new Text(Constants.LABEL));
 
     if (globals.getConfig().getPreloadedProperties() != null) {
@@ -204,6 +490,14 @@ public class VertexTableWrapper extends ElementTableWrapper {
         scan.fetchColumnFamily(new Text(key));
       }
     }
+    if (propertyKeys != null) {
+      for (String key : propertyKeys) {
+        scan.fetchColumnFamily(new Text(key));
+      }
+    }
+    if (filter != null) {
+      scan.addScanIterator(filter);
+    }
 
     final VertexParser parser = new VertexParser(globals);
 
@@ -230,17 +524,58 @@ public class VertexTableWrapper extends ElementTableWrapper {
     };
   }
 
+  /**
+   * Read the vertices with the given ids using a single batch
+   * lookup, loading the given properties as in
+   * {@link #readProperties(com.tinkerpop.blueprints.Element, String[])}.
+   * Ids that do not exist are skipped. Vertices are returned
+   * as they are read, in no particular order.
+   * @param ids
+   * @param propertyKeys
+   * @return
+   */
+  public CloseableIterable<Vertex> readVertices(Collection<String> ids,
+      String[] propertyKeys) {
+    return readVertices(ids, propertyKeys, null);
+  }
+
+  /**
+   * As {@link #readVertices(Collection, String[])}, but only
+   * returning vertices accepted by the given server-side row filter.
+   * @param ids
+   * @param propertyKeys
+   * @param filter
+   * @return
+   */
+  public CloseableIterable<Vertex> readVertices(Collection<String> ids,
+      String[] propertyKeys, IteratorSetting filter) {
+    BatchScanner scan = getRowsBatchScanner(ids, propertyKeys, filter);
+
+    final VertexParser parser = new VertexParser(globals);
+
+    return new ScannerIterable<Vertex>(scan) {
+      @Override
+      public Vertex next(PeekingIterator<Entry<Key, Value>> iterator) {
+        Entry<Key, Value> row = iterator.next();
+
+        AccumuloVertex vertex = parser.parse(row.getKey().getRow().toString(),
+            decodeRow(row).entrySet());
+        globals.getCaches().cache(vertex, Vertex.class);
+
+        return vertex;
+      }
+    };
+  }
+
   public Iterable<Vertex> getVertices(String key, Object value) {
     AccumuloGraphUtils.validateProperty(key, value);
 
-    byte[] val = AccumuloByteSerializer.serialize(value);
-    if (val[0] != AccumuloByteSerializer.SERIALIZABLE) {
+    byte[] val = serializeValue(value);
+    if (AccumuloByteSerializer.getType(val) != AccumuloByteSerializer.SERIALIZABLE) {
       BatchScanner scan = getBatchScanner();
       scan.fetchColumnFamily(new Text(key));
 
-      IteratorSetting is = new IteratorSetting(10, "filter", RegExFilter.class);
-      RegExFilter.setRegexs(is, null, null, null, Pattern.quote(new String(val)), false);
-      scan.addScanIterator(is);
+      scan.addScanIterator(getValueFilter(val));
 
       return new ScannerIterable<Vertex>(scan) {
 
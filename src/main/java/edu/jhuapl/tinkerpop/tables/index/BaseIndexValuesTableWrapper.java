@@ -14,9 +14,15 @@
  */
 package edu.jhuapl.tinkerpop.tables.index;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.apache.accumulo.core.client.BatchDeleter;
@@ -37,6 +43,7 @@ import com.tinkerpop.blueprints.Vertex;
 
 import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
 import edu.jhuapl.tinkerpop.AccumuloElement;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.ValueEncoding;
 import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.AccumuloGraphUtils;
 import edu.jhuapl.tinkerpop.GlobalInstances;
@@ -105,14 +112,92 @@ public abstract class BaseIndexValuesTableWrapper extends BaseTableWrapper {
 
       Object oldValue = element.getProperty(key);
       if (oldValue != null && !oldValue.equals(value)) {
-        Mutators.apply(writer, new IndexValueMutator.Delete(element, key, oldValue));
+        Mutators.apply(writer, new IndexValueMutator.Delete(element, key, oldValue,
+            globals.getConfig().getValueEncoding()));
+        entryRemoved(element, key, oldValue);
       }
 
-      Mutators.apply(writer, new IndexValueMutator.Add(element, key, value));
+      Mutators.apply(writer, new IndexValueMutator.Add(element, key, value,
+          globals.getConfig().getValueEncoding()));
+      entryAdded(element, key, value);
       globals.checkedFlush();
     }
   }
 
+  /**
+   * Add the given properties to this index, as with
+   * {@link #setPropertyForIndex(Element, String, Object)}.
+   * The previous values of indexed keys which are not cached
+   * are read with a single lookup, or not at all for a
+   * new element. This does not flush, so that the caller
+   * can flush once all of the element's updates are written.
+   * @param element
+   * @param properties
+   * @param newElement Whether the element was just created
+   */
+  public void setPropertiesForIndex(AccumuloElement element,
+      Map<String, Object> properties, boolean newElement) {
+    Set<String> indexedKeys = globals.getConfig().getAutoIndex() ? null :
+      globals.getIndexMetadataWrapper().getIndexedKeys(elementType);
+    List<String> keys = new ArrayList<String>();
+    for (String key : properties.keySet()) {
+      if (indexedKeys == null || indexedKeys.contains(key)) {
+        keys.add(key);
+      }
+    }
+    if (keys.isEmpty()) {
+      return;
+    }
+
+    Map<String, Object> oldValues = newElement ?
+        Collections.<String, Object>emptyMap() : readOldValues(element, keys);
+
+    BatchWriter writer = getWriter();
+    for (String key : keys) {
+      Object value = properties.get(key);
+      Object oldValue = oldValues.get(key);
+      if (oldValue != null && !oldValue.equals(value)) {
+        Mutators.apply(writer, new IndexValueMutator.Delete(element, key, oldValue,
+            globals.getConfig().getValueEncoding()));
+        entryRemoved(element, key, oldValue);
+      }
+
+      Mutators.apply(writer, new IndexValueMutator.Add(element, key, value,
+          globals.getConfig().getValueEncoding()));
+      entryAdded(element, key, value);
+    }
+  }
+
+  /**
+   * Return the current values of the given keys,
+   * from the element's cache where possible.
+   * @param element
+   * @param keys
+   * @return
+   */
+  private Map<String, Object> readOldValues(AccumuloElement element,
+      List<String> keys) {
+    Map<String, Object> values = new HashMap<String, Object>();
+    List<String> uncached = new ArrayList<String>();
+    for (String key : keys) {
+      Object value = element.getPropertyInMemory(key);
+      if (value != null) {
+        values.put(key, value);
+      } else {
+        uncached.add(key);
+      }
+    }
+
+    if (!uncached.isEmpty()) {
+      Map<String, Object> read = globals.getElementWrapper(elementType)
+          .readProperties(element, uncached.toArray(new String[uncached.size()]));
+      if (read != null) {
+        values.putAll(read);
+      }
+    }
+    return values;
+  }
+
   /**
    * Remove property from the index.
    * @param element
@@ -121,22 +206,70 @@ public abstract class BaseIndexValuesTableWrapper extends BaseTableWrapper {
    */
   public void removePropertyFromIndex(Element element, String key, Object value) {
     if (value != null) {
-      Mutators.apply(getWriter(), new IndexValueMutator.Delete(element, key, value));
+      Mutators.apply(getWriter(), new IndexValueMutator.Delete(element, key, value,
+          globals.getConfig().getValueEncoding()));
+      entryRemoved(element, key, value);
       globals.checkedFlush();
     }
   }
 
+  /**
+   * Remove the properties of many elements from the index,
+   * flushing once at the end.
+   * @param properties Properties, keyed by element id
+   */
+  public void removePropertiesFromIndex(Map<String, Map<String, Object>> properties) {
+    BatchWriter writer = getWriter();
+    for (Entry<String, Map<String, Object>> element : properties.entrySet()) {
+      for (Entry<String, Object> prop : element.getValue().entrySet()) {
+        Mutators.apply(writer, new IndexValueMutator.DeleteSerialized(
+            element.getKey(), prop.getKey(), serializeValue(prop.getValue())));
+      }
+    }
+    globals.checkedFlush();
+  }
+
+  /**
+   * Called after an entry is added to this index.
+   * @param element
+   * @param key
+   * @param value
+   */
+  protected void entryAdded(Element element, String key, Object value) {
+  }
+
+  /**
+   * Called after an entry is removed from this index.
+   * @param element
+   * @param key
+   * @param value
+   */
+  protected void entryRemoved(Element element, String key, Object value) {
+  }
+
   /**
    * Get elements with the key/value pair.
    * @param key
    * @param value
    * @return
    */
-  @SuppressWarnings("unchecked")
   public <T extends Element> CloseableIterable<T> readElementsFromIndex(String key, Object value) {
+    return readElementsFromIndex(key, Range.exact(new Text(serializeValue(value))));
+  }
+
+  /**
+   * Get elements with the given key and a value
+   * within the given index range.
+   * @param key
+   * @param range
+   * @return
+   * @see #getValueRange(Object, boolean, Object, boolean)
+   * @see #getPrefixRange(String)
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends Element> CloseableIterable<T> readElementsFromIndex(String key, Range range) {
     Scanner scan = getScanner();
-    byte[] id = AccumuloByteSerializer.serialize(value);
-    scan.setRange(Range.exact(new Text(id)));
+    scan.setRange(range);
     scan.fetchColumnFamily(new Text(key));
 
     final ElementIndexParser<? extends AccumuloElement> parser =
@@ -151,23 +284,91 @@ public abstract class BaseIndexValuesTableWrapper extends BaseTableWrapper {
         };
   }
 
+  /**
+   * Return the index range covering values between
+   * the given bounds. Either bound may be null, in which case
+   * the range is open on that side but still limited to
+   * values of the same type as the other bound.
+   * <p/>The bounds must be of the same type, and the range
+   * only reflects value order when
+   * {@link AccumuloByteSerializer#isOrderPreserving(Object, ValueEncoding)}
+   * holds for that type under the configured encoding.
+   * @param from
+   * @param fromInclusive
+   * @param to
+   * @param toInclusive
+   * @return
+   */
+  public Range getValueRange(Object from, boolean fromInclusive,
+      Object to, boolean toInclusive) {
+    if (from == null && to == null) {
+      throw new IllegalArgumentException("At least one bound must be non-null.");
+    }
+
+    byte[] start = from != null ? serializeValue(from) : null;
+    byte[] end = to != null ? serializeValue(to) : null;
+    if (start != null && end != null &&
+        AccumuloByteSerializer.getType(start) != AccumuloByteSerializer.getType(end)) {
+      throw new IllegalArgumentException("Range bounds must be of the same type.");
+    }
+
+    if (start == null) {
+      return new Range(new Text(AccumuloByteSerializer.getTypePrefix(end)), true,
+          new Text(end), toInclusive);
+    } else if (end == null) {
+      return new Range(new Text(start), fromInclusive, Range.followingPrefix(
+          new Text(AccumuloByteSerializer.getTypePrefix(start))), false);
+    } else {
+      return new Range(new Text(start), fromInclusive, new Text(end), toInclusive);
+    }
+  }
+
+  /**
+   * Return the index range covering string values
+   * starting with the given prefix.
+   * @param prefix
+   * @return
+   */
+  public Range getPrefixRange(String prefix) {
+    return Range.prefix(new Text(serializeValue(prefix)));
+  }
+
   /**
    * Remove the given element's properties from the index.
    * @param element
    */
   public void removeElementFromIndex(Element element) {
-    BatchDeleter deleter = null;
+    removeElementsFromIndex(Collections.singleton(element.getId().toString()));
+  }
+
+  /**
+   * Remove the properties of the elements with the given
+   * ids from the index. This scans the whole index table.
+   * @param ids
+   */
+  public void removeElementsFromIndex(Collection<String> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
 
+    StringBuilder regex = new StringBuilder("^(?:");
+    for (String id : ids) {
+      if (regex.length() > 4) {
+        regex.append('|');
+      }
+      regex.append(Pattern.quote(id));
+    }
+    regex.append(")$");
+
+    BatchDeleter deleter = null;
     try {
       deleter = getDeleter();
       deleter.setRanges(Collections.singleton(new Range()));
 
       IteratorSetting is = new IteratorSetting(10, "getEdgeFilter", RegExFilter.class);
-      RegExFilter.setRegexs(is, null, null,
-          "^"+Pattern.quote(element.getId().toString())+"$", null, false);
+      RegExFilter.setRegexs(is, null, null, regex.toString(), null, false);
       deleter.addScanIterator(is);
       deleter.delete();
-      deleter.close();
     } catch (Exception e) {
       throw new AccumuloGraphException(e);
     } finally {
@@ -14,16 +14,9 @@
  */
 package edu.jhuapl.tinkerpop.tables.index;
 
-import com.tinkerpop.blueprints.CloseableIterable;
-import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Element;
-import com.tinkerpop.blueprints.Vertex;
 
-import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.GlobalInstances;
-import edu.jhuapl.tinkerpop.tables.core.EdgeTableWrapper;
-import edu.jhuapl.tinkerpop.tables.core.ElementTableWrapper;
-import edu.jhuapl.tinkerpop.tables.core.VertexTableWrapper;
 
 /**
  * Base class for key index tables.
@@ -34,44 +27,4 @@ public abstract class BaseKeyIndexTableWrapper extends BaseIndexValuesTableWrapp
       Class<? extends Element> elementType, String tableName) {
     super(globals, elementType, tableName);
   }
-
-  /**
-   * Rebuild this index for the given table.
-   * @param table
-   * @param key
-   */
-  public void rebuildIndex(String key, Class<? extends Element> elementClass) {
-    ElementTableWrapper wrapper = globals.getElementWrapper(elementClass);
-    if (wrapper instanceof VertexTableWrapper) {
-      CloseableIterable<Vertex> iter = ((VertexTableWrapper) wrapper).getVertices();
-      for (Vertex v : iter) {
-        rebuild(wrapper, v, key);
-      }
-      iter.close();
-    }
-    else if (wrapper instanceof EdgeTableWrapper) {
-      CloseableIterable<Edge> iter = ((EdgeTableWrapper) wrapper).getEdges();
-      for (Edge e : iter) {
-        rebuild(wrapper, e, key);
-      }
-      iter.close();
-    }
-    else {
-      throw new AccumuloGraphException("Unexpected table wrapper: "+wrapper.getClass());
-    }
-    globals.checkedFlush();
-  }
-
-  /**
-   * Add given element to index for the given key.
-   * @param element
-   * @param key
-   */
-  private void rebuild(ElementTableWrapper wrapper,
-      Element element, String key) {
-    Object value = wrapper.readProperty(element, key);
-    if (value != null) {
-      setPropertyForIndex(element, key, value);
-    }
-  }
 }
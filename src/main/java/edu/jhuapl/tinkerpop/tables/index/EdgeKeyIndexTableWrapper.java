@@ -26,7 +26,6 @@ import org.apache.hadoop.io.Text;
 
 import com.tinkerpop.blueprints.Edge;
 
-import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
 import edu.jhuapl.tinkerpop.AccumuloEdge;
 import edu.jhuapl.tinkerpop.GlobalInstances;
 import edu.jhuapl.tinkerpop.ScannerIterable;
@@ -50,10 +49,21 @@ public class EdgeKeyIndexTableWrapper extends BaseKeyIndexTableWrapper {
    * @return
    */
   public Iterable<Edge> getEdges(String key, Object value) {
-    Scanner s = getScanner();
+    return getEdges(key, Range.exact(new Text(serializeValue(value))));
+  }
 
-    Text row = new Text(AccumuloByteSerializer.serialize(value));
-    s.setRange(Range.exact(row));
+  /**
+   * Use the index to retrieve edges with the
+   * given key and a value in the given range.
+   * @param key
+   * @param range
+   * @return
+   * @see #getValueRange(Object, boolean, Object, boolean)
+   * @see #getPrefixRange(String)
+   */
+  public Iterable<Edge> getEdges(String key, Range range) {
+    Scanner s = getScanner();
+    s.setRange(range);
     s.fetchColumnFamily(new Text(key));
 
     final EdgeIndexParser parser = new EdgeIndexParser(globals);
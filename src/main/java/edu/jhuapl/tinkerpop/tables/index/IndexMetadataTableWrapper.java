@@ -14,12 +14,20 @@
  */
 package edu.jhuapl.tinkerpop.tables.index;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.Set;
 
+import org.apache.accumulo.core.client.BatchDeleter;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.DataInputBuffer;
 import org.apache.hadoop.io.Text;
 
 import com.tinkerpop.blueprints.Element;
@@ -28,9 +36,11 @@ import com.tinkerpop.blueprints.IndexableGraph;
 import com.tinkerpop.blueprints.KeyIndexableGraph;
 import com.tinkerpop.blueprints.util.ExceptionFactory;
 
+import edu.jhuapl.tinkerpop.AccumuloGraphException;
 import edu.jhuapl.tinkerpop.AccumuloIndex;
 import edu.jhuapl.tinkerpop.Constants.IndexMetadataEntryType;
 import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.cache.IndexMetadataCache;
 import edu.jhuapl.tinkerpop.mutator.Mutators;
 import edu.jhuapl.tinkerpop.mutator.index.IndexMetadataMutator;
 import edu.jhuapl.tinkerpop.parser.IndexedItem;
@@ -54,11 +64,13 @@ public class IndexMetadataTableWrapper extends BaseTableWrapper {
   public void writeKeyMetadataEntry(String key, Class<? extends Element> clazz) {
     Mutators.apply(getWriter(), new IndexMetadataMutator.Add(key, clazz,
         IndexMetadataEntryType.__INDEX_KEY__));
+    globals.getIndexMetadataCache().addIndexedKey(key, clazz);
   }
 
   public void clearKeyMetadataEntry(String key, Class<? extends Element> clazz) {
     Mutators.apply(getWriter(), new IndexMetadataMutator.Delete(key, clazz,
         IndexMetadataEntryType.__INDEX_KEY__));
+    globals.getIndexMetadataCache().removeIndexedKey(key, clazz);
   }
 
   public <T extends Element> Set<String> getIndexedKeys(Class<T> elementClass) {
@@ -66,82 +78,137 @@ public class IndexMetadataTableWrapper extends BaseTableWrapper {
       throw ExceptionFactory.classForElementCannotBeNull();
     }
 
-    IndexedItemsListParser parser = new IndexedItemsListParser(elementClass);
-
-    Scanner scan = null;
-    try {
-      scan = getScanner();
-      scan.fetchColumnFamily(new Text(IndexMetadataEntryType.__INDEX_KEY__.name()));
-
-      Set<String> keys = new HashSet<String>();
-      for (IndexedItem item : parser.parse(scan)) {
+    Set<String> keys = new HashSet<String>();
+    for (IndexedItem item : getCache().getIndexedKeys()) {
+      if (item.getElementClass().equals(elementClass)) {
         keys.add(item.getKey());
       }
+    }
+    return keys;
+  }
 
-      return keys;
+  //////// Methods for resumable key index builds ////////
 
-    } finally {
-      if (scan != null) {
-        scan.close();
+  /**
+   * Record that a build of the given key index has started.
+   * @param key
+   * @param clazz
+   */
+  public void writeBuildStarted(String key, Class<? extends Element> clazz) {
+    Mutators.apply(getWriter(), new IndexMetadataMutator.Add(key, clazz,
+        IndexMetadataEntryType.__INDEX_BUILD__));
+  }
+
+  /**
+   * Record a range of the element table whose
+   * entries were added to the given key index.
+   * @param key
+   * @param clazz
+   * @param range
+   */
+  public void writeBuiltRange(String key, Class<? extends Element> clazz,
+      Range range) {
+    Mutators.apply(getWriter(), new IndexMetadataMutator.AddBuiltRange(key,
+        clazz, range));
+  }
+
+  /**
+   * Return the ranges already indexed by an unfinished build
+   * of the given key index, or null if no build is unfinished.
+   * @param key
+   * @param clazz
+   * @return
+   */
+  public List<Range> getBuiltRanges(String key, Class<? extends Element> clazz) {
+    Scanner scan = getScanner();
+    try {
+      scan.setRange(Range.prefix(new Text(key),
+          new Text(IndexMetadataEntryType.__INDEX_BUILD__.name()),
+          new Text(clazz.getName())));
+
+      boolean started = false;
+      List<Range> ranges = new ArrayList<Range>();
+      for (Entry<Key, Value> entry : scan) {
+        String qual = entry.getKey().getColumnQualifier().toString();
+        if (qual.equals(clazz.getName())) {
+          started = true;
+        } else if (qual.startsWith(clazz.getName() + "/")) {
+          DataInputBuffer in = new DataInputBuffer();
+          in.reset(entry.getValue().get(), entry.getValue().getSize());
+          Range range = new Range();
+          range.readFields(in);
+          ranges.add(range);
+        }
       }
+      return started ? ranges : null;
+    } catch (IOException e) {
+      throw new AccumuloGraphException(e);
+    } finally {
+      scan.close();
     }
   }
 
+  /**
+   * Remove the record of a build of the given key index.
+   * @param key
+   * @param clazz
+   */
+  public void clearBuildEntries(String key, Class<? extends Element> clazz) {
+    BatchDeleter deleter = getDeleter();
+    try {
+      deleter.setRanges(Collections.singleton(Range.prefix(new Text(key),
+          new Text(IndexMetadataEntryType.__INDEX_BUILD__.name()),
+          new Text(clazz.getName()))));
+      deleter.delete();
+    } catch (Exception e) {
+      throw new AccumuloGraphException(e);
+    } finally {
+      deleter.close();
+    }
+  }
 
   //////// Methods for IndexableGraph ////////
 
   @SuppressWarnings({"rawtypes", "unchecked"})
   public Iterable<Index<? extends Element>> getIndices() {
     List<Index<? extends Element>> indexes = new ArrayList<Index<? extends Element>>();
+    for (IndexedItem item : getCache().getIndexNames()) {
+      indexes.add(new AccumuloIndex(globals,
+          item.getKey(), item.getElementClass()));
+    }
+    return indexes;
+  }
 
-    IndexedItemsListParser parser = new IndexedItemsListParser();
-
-    Scanner scan = null;
-    try {
-      scan = getScanner();
-      scan.fetchColumnFamily(new Text(IndexMetadataEntryType.__INDEX_NAME__.name()));
-
-      for (IndexedItem item : parser.parse(scan)) {
-        indexes.add(new AccumuloIndex(globals,
-            item.getKey(), item.getElementClass()));
-      }
-
-      return indexes;
-
-    } finally {
-      if (scan != null) {
-        scan.close();
+  /**
+   * Return the names of the named indexes
+   * of the given element type.
+   * @param indexClass
+   * @return
+   */
+  public Set<String> getIndexNames(Class<? extends Element> indexClass) {
+    Set<String> names = new HashSet<String>();
+    for (IndexedItem item : getCache().getIndexNames()) {
+      if (item.getElementClass().equals(indexClass)) {
+        names.add(item.getKey());
       }
     }
+    return names;
   }
 
   public <T extends Element> Index<T> getIndex(String indexName,
       Class<T> indexClass) {
-    IndexedItemsListParser parser = new IndexedItemsListParser();
-
-    Scanner scan = null;
-    try {
-      scan = getScanner();
-      scan.fetchColumnFamily(new Text(IndexMetadataEntryType.__INDEX_NAME__.name()));
-
-      for (IndexedItem item : parser.parse(scan)) {
-        if (item.getKey().equals(indexName)) {
-          if (item.getElementClass().equals(indexClass)) {
-            return new AccumuloIndex<T>(globals, indexName,
-                indexClass);
-          }
-          else {
-            throw ExceptionFactory.indexDoesNotSupportClass(indexName, indexClass);
-          }
+    for (IndexedItem item : getCache().getIndexNames()) {
+      if (item.getKey().equals(indexName)) {
+        if (item.getElementClass().equals(indexClass)) {
+          return new AccumuloIndex<T>(globals, indexName,
+              indexClass);
+        }
+        else {
+          throw ExceptionFactory.indexDoesNotSupportClass(indexName, indexClass);
         }
-      }
-      return null;
-
-    } finally {
-      if (scan != null) {
-        scan.close();
       }
     }
+    return null;
   }
   
   public <T extends Element> Index<T> createIndex(String indexName,
@@ -160,11 +227,42 @@ public class IndexMetadataTableWrapper extends BaseTableWrapper {
       Class<? extends Element> indexClass) {
     Mutators.apply(getWriter(), new IndexMetadataMutator.Add(indexName,
         indexClass, IndexMetadataEntryType.__INDEX_NAME__));
+    globals.getIndexMetadataCache().addIndexName(indexName, indexClass);
   }
 
   public void clearIndexNameEntry(String indexName,
       Class<? extends Element> indexClass) {
     Mutators.apply(getWriter(), new IndexMetadataMutator.Delete(indexName,
         indexClass, IndexMetadataEntryType.__INDEX_NAME__));
+    globals.getIndexMetadataCache().removeIndexName(indexName, indexClass);
+  }
+
+  /**
+   * Return the cached index metadata, reading
+   * the whole table again if it has expired.
+   * @return
+   */
+  private IndexMetadataCache.Snapshot getCache() {
+    IndexMetadataCache cache = globals.getIndexMetadataCache();
+    IndexMetadataCache.Snapshot snapshot = cache.getSnapshot();
+    if (snapshot == null) {
+      Scanner scan = null;
+      try {
+        scan = getScanner();
+        scan.fetchColumnFamily(new Text(IndexMetadataEntryType.__INDEX_KEY__.name()));
+        List<IndexedItem> keys = new IndexedItemsListParser().parse(scan);
+
+        scan.clearColumns();
+        scan.fetchColumnFamily(new Text(IndexMetadataEntryType.__INDEX_NAME__.name()));
+        List<IndexedItem> names = new IndexedItemsListParser().parse(scan);
+
+        snapshot = cache.load(keys, names);
+      } finally {
+        if (scan != null) {
+          scan.close();
+        }
+      }
+    }
+    return snapshot;
   }
 }
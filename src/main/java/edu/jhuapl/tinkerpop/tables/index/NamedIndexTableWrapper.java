@@ -14,19 +14,76 @@
  */
 package edu.jhuapl.tinkerpop.tables.index;
 
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
 import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.IndexableGraph;
 
 import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.mutator.Mutators;
+import edu.jhuapl.tinkerpop.mutator.index.IndexValueMutator;
 
 /**
  * Wrapper around a named index table (for {@link IndexableGraph}).
+ * Entries are also recorded in the reverse index table
+ * (see {@link ReverseIndexTableWrapper}).
  */
 public class NamedIndexTableWrapper extends BaseIndexValuesTableWrapper {
 
+  private final String indexName;
+
   public NamedIndexTableWrapper(GlobalInstances globals,
       Class<? extends Element> elementType, String indexName) {
     super(globals, elementType,
         globals.getConfig().getNamedIndexTableName(indexName));
+    this.indexName = indexName;
+  }
+
+  @Override
+  protected void entryAdded(Element element, String key, Object value) {
+    globals.getReverseIndexWrapper().writeEntry(indexName,
+        element.getId().toString(), key, serializeValue(value));
+  }
+
+  @Override
+  protected void entryRemoved(Element element, String key, Object value) {
+    globals.getReverseIndexWrapper().deleteEntry(indexName,
+        element.getId().toString(), key, serializeValue(value));
+  }
+
+  /**
+   * Remove the entry for the given element id, key
+   * and serialized value.
+   * @param elementId
+   * @param key
+   * @param value
+   */
+  public void removeEntry(String elementId, String key, byte[] value) {
+    Mutators.apply(getWriter(), new IndexValueMutator.DeleteSerialized(
+        elementId, key, value));
+  }
+
+  /**
+   * Record all entries of this index in the reverse index table.
+   */
+  public void writeReverseIndexEntries() {
+    ReverseIndexTableWrapper reverse = globals.getReverseIndexWrapper();
+    Scanner scan = null;
+    try {
+      scan = getScanner();
+      for (Entry<Key, Value> entry : scan) {
+        Key key = entry.getKey();
+        reverse.writeEntry(indexName, key.getColumnQualifier().toString(),
+            key.getColumnFamily().toString(), key.getRowData().toArray());
+      }
+    } finally {
+      if (scan != null) {
+        scan.close();
+      }
+    }
   }
 }
@@ -0,0 +1,237 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop.tables.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.client.BatchDeleter;
+import org.apache.accumulo.core.client.BatchScanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
+
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.IndexableGraph;
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.AccumuloGraphException;
+import edu.jhuapl.tinkerpop.Constants;
+import edu.jhuapl.tinkerpop.GlobalInstances;
+import edu.jhuapl.tinkerpop.mutator.Mutators;
+import edu.jhuapl.tinkerpop.mutator.index.ReverseIndexMutator;
+import edu.jhuapl.tinkerpop.tables.BaseTableWrapper;
+
+/**
+ * Wrapper around the reverse index table, which records
+ * the named index entries (for {@link IndexableGraph})
+ * referring to each element, so that they can be
+ * removed along with the element without scanning
+ * the index tables.
+ * <P>
+ * Graphs created before this table existed, and opened
+ * without permission to create it, do not have it; elements
+ * are then removed by scanning the index tables instead.
+ */
+public class ReverseIndexTableWrapper extends BaseTableWrapper {
+
+  private static final byte[] DELIM = Constants.ID_DELIM.getBytes();
+
+  private final AtomicLong lastTimestamp = new AtomicLong();
+  private volatile boolean available = true;
+
+  public ReverseIndexTableWrapper(GlobalInstances globals) {
+    super(globals, globals.getConfig().getReverseIndexTableName());
+  }
+
+  /**
+   * Set whether the reverse index table exists. If not,
+   * nothing is recorded, and elements are removed from
+   * named indexes by scanning them. Defaults to true.
+   * @param available
+   */
+  public void setAvailable(boolean available) {
+    this.available = available;
+  }
+
+  /**
+   * Record that the given named index has an entry
+   * for the element with the given key and serialized value.
+   * @param indexName
+   * @param elementId
+   * @param key
+   * @param value
+   */
+  public void writeEntry(String indexName, String elementId,
+      String key, byte[] value) {
+    if (!available) {
+      return;
+    }
+    Mutators.apply(getWriter(), new ReverseIndexMutator.Add(indexName,
+        elementId, key, value, nextTimestamp()));
+  }
+
+  /**
+   * Remove the record of a named index entry.
+   * @param indexName
+   * @param elementId
+   * @param key
+   * @param value
+   */
+  public void deleteEntry(String indexName, String elementId,
+      String key, byte[] value) {
+    if (!available) {
+      return;
+    }
+    Mutators.apply(getWriter(), new ReverseIndexMutator.Delete(indexName,
+        elementId, key, value, nextTimestamp()));
+  }
+
+  /**
+   * Return the timestamp for the next entry: the current
+   * time, but always later than the previous timestamp, so
+   * that each update is ordered after the previous one
+   * even within the same millisecond.
+   * @return
+   */
+  private long nextTimestamp() {
+    while (true) {
+      long last = lastTimestamp.get();
+      long next = Math.max(System.currentTimeMillis(), last + 1);
+      if (lastTimestamp.compareAndSet(last, next)) {
+        return next;
+      }
+    }
+  }
+
+  /**
+   * Remove the given element from all named indexes
+   * of its type, using the recorded entries.
+   * @param element
+   */
+  public void removeElementFromIndexes(Element element) {
+    removeElementsFromIndexes(Collections.singleton(element.getId().toString()),
+        element instanceof Vertex ? Vertex.class : Edge.class);
+  }
+
+  /**
+   * Remove the elements with the given ids from all
+   * named indexes of the given type, using the recorded entries.
+   * @param ids
+   * @param elementClass
+   */
+  public void removeElementsFromIndexes(Collection<String> ids,
+      Class<? extends Element> elementClass) {
+    Set<String> indexNames = globals.getIndexMetadataWrapper()
+        .getIndexNames(elementClass);
+    if (indexNames.isEmpty() || ids.isEmpty()) {
+      return;
+    }
+    if (!available) {
+      for (String indexName : indexNames) {
+        new NamedIndexTableWrapper(globals, elementClass, indexName)
+            .removeElementsFromIndex(ids);
+      }
+      return;
+    }
+
+    List<Range> ranges = new ArrayList<Range>(ids.size());
+    for (String id : ids) {
+      ranges.add(Range.exact(id));
+    }
+
+    Map<String, NamedIndexTableWrapper> indexes =
+        new HashMap<String, NamedIndexTableWrapper>();
+    BatchScanner scan = null;
+    try {
+      scan = getBatchScanner();
+      scan.setRanges(ranges);
+
+      for (Entry<Key, Value> entry : scan) {
+        String id = entry.getKey().getRow().toString();
+        String indexName = entry.getKey().getColumnFamily().toString();
+        // Entries of other element types with the same id
+        // are stored in the same row.
+        if (!indexNames.contains(indexName)) {
+          continue;
+        }
+
+        byte[] cq = entry.getKey().getColumnQualifierData().toArray();
+        int split = indexOf(cq, DELIM);
+        String key = new String(cq, 0, split);
+        byte[] value = Arrays.copyOfRange(cq, split + DELIM.length, cq.length);
+
+        NamedIndexTableWrapper index = indexes.get(indexName);
+        if (index == null) {
+          index = new NamedIndexTableWrapper(globals, elementClass, indexName);
+          indexes.put(indexName, index);
+        }
+        index.removeEntry(id, key, value);
+        deleteEntry(indexName, id, key, value);
+      }
+    } finally {
+      if (scan != null) {
+        scan.close();
+      }
+    }
+  }
+
+  /**
+   * Remove all records of the given named index.
+   * @param indexName
+   */
+  public void clearIndex(String indexName) {
+    if (!available) {
+      return;
+    }
+    BatchDeleter deleter = null;
+
+    try {
+      deleter = getDeleter();
+      deleter.setRanges(Collections.singleton(new Range()));
+      deleter.fetchColumnFamily(new Text(indexName));
+      deleter.delete();
+    } catch (Exception e) {
+      throw new AccumuloGraphException(e);
+    } finally {
+      if (deleter != null) {
+        deleter.close();
+      }
+    }
+  }
+
+  private static int indexOf(byte[] bytes, byte[] target) {
+    for (int i = 0; i <= bytes.length - target.length; i++) {
+      boolean match = true;
+      for (int j = 0; j < target.length && match; j++) {
+        match = bytes[i + j] == target[j];
+      }
+      if (match) {
+        return i;
+      }
+    }
+    throw new AccumuloGraphException("Malformed reverse index entry");
+  }
+}
@@ -26,7 +26,6 @@ import org.apache.hadoop.io.Text;
 
 import com.tinkerpop.blueprints.Vertex;
 
-import edu.jhuapl.tinkerpop.AccumuloByteSerializer;
 import edu.jhuapl.tinkerpop.AccumuloVertex;
 import edu.jhuapl.tinkerpop.GlobalInstances;
 import edu.jhuapl.tinkerpop.ScannerIterable;
@@ -49,10 +48,21 @@ public class VertexKeyIndexTableWrapper extends BaseKeyIndexTableWrapper {
    * @param value
    */
   public Iterable<Vertex> getVertices(String key, Object value) {
-    Scanner s = getScanner();
+    return getVertices(key, Range.exact(new Text(serializeValue(value))));
+  }
 
-    Text row = new Text(AccumuloByteSerializer.serialize(value));
-    s.setRange(Range.exact(row));
+  /**
+   * Use the index to retrieve vertexs with the
+   * given key and a value in the given range.
+   * @param key
+   * @param range
+   * @return
+   * @see #getValueRange(Object, boolean, Object, boolean)
+   * @see #getPrefixRange(String)
+   */
+  public Iterable<Vertex> getVertices(String key, Range range) {
+    Scanner s = getScanner();
+    s.setRange(range);
     s.fetchColumnFamily(new Text(key));
 
     final VertexIndexParser parser = new VertexIndexParser(globals);
@@ -61,4 +61,65 @@ public class AccumuloBulkIngesterTest {
     graph.shutdown();
   }
 
+  @Test
+  public void testUnfinishedBuilders() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils.generateGraphConfig("unfinishedBuilder").setClear(true);
+
+    AccumuloBulkIngester ingester = new AccumuloBulkIngester(cfg);
+    ingester.addVertex("A").add("P1", "V1");
+    ingester.addVertex("B").add("P1", "V2").add("P2", "V3");
+    ingester.addVertexProperty("B", "P3", "V4");
+    String edgeId = ingester.addEdge("A", "B", "edge").add("P4", "V5").getId();
+    ingester.shutdown(false);
+
+    AccumuloGraph graph = new AccumuloGraph(cfg.clone().setClear(false));
+    assertEquals("V1", graph.getVertex("A").getProperty("P1"));
+    assertEquals("V3", graph.getVertex("B").getProperty("P2"));
+    assertEquals("V4", graph.getVertex("B").getProperty("P3"));
+    assertEquals("V5", graph.getEdge(edgeId).getProperty("P4"));
+    graph.shutdown();
+  }
+
+  @Test
+  public void testAddAfterFinish() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils.generateGraphConfig("addAfterFinish").setClear(true);
+
+    final AccumuloBulkIngester ingester = new AccumuloBulkIngester(cfg);
+    AccumuloBulkIngester.PropertyBuilder builder = ingester.addVertex("A").add("P1", "V1");
+    builder.finish();
+    builder.add("P2", "V2");
+
+    // Builders of other threads are not finished by each other.
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      final int n = i;
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            for (int j = 0; j < 10; j++) {
+              ingester.addVertex("T" + n + "_" + j).add("P", j);
+            }
+          } catch (Exception e) {
+            throw new AccumuloGraphException(e);
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    ingester.shutdown(false);
+
+    AccumuloGraph graph = new AccumuloGraph(cfg.clone().setClear(false));
+    assertEquals("V1", graph.getVertex("A").getProperty("P1"));
+    assertEquals("V2", graph.getVertex("A").getProperty("P2"));
+    for (int i = 0; i < threads.length; i++) {
+      for (int j = 0; j < 10; j++) {
+        assertEquals(j, graph.getVertex("T" + i + "_" + j).getProperty("P"));
+      }
+    }
+    graph.shutdown();
+  }
 }
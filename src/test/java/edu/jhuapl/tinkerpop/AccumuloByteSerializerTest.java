@@ -0,0 +1,113 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.apache.hadoop.io.WritableComparator;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.ValueEncoding;
+
+/**
+ * Tests for {@link AccumuloByteSerializer}.
+ */
+public class AccumuloByteSerializerTest {
+
+  private static final List<Object> VALUES = Arrays.<Object>asList(null,
+      (byte) -3, (short) 1234, 'c', -17, Long.MAX_VALUE, -1.5f, 2.25d,
+      true, false, new Date(123456789L), "string",
+      new QName("urn:test", "name"), Direction.OUT, Arrays.asList(1, 2));
+
+  @Test
+  public void testRoundTrip() {
+    for (ValueEncoding encoding : ValueEncoding.values()) {
+      for (Object value : VALUES) {
+        byte[] bytes = AccumuloByteSerializer.serialize(value, encoding);
+        assertEquals(value, AccumuloByteSerializer.deserialize(bytes));
+      }
+    }
+
+    // Binary strings are always UTF-8.
+    assertEquals("\u00e9t\u00e9", AccumuloByteSerializer.deserialize(AccumuloByteSerializer
+        .serialize("\u00e9t\u00e9", ValueEncoding.Binary)));
+  }
+
+  @Test
+  public void testTextCompatibility() {
+    for (Object value : VALUES) {
+      assertArrayEquals(AccumuloByteSerializer.serialize(value),
+          AccumuloByteSerializer.serialize(value, ValueEncoding.Text));
+    }
+  }
+
+  @Test
+  public void testBinaryOrdering() {
+    assertOrdered(Long.MIN_VALUE, -100L, -1L, 0L, 1L, 9L, 10L, Long.MAX_VALUE);
+    assertOrdered(Integer.MIN_VALUE, -10, -9, 0, 9, 10, Integer.MAX_VALUE);
+    assertOrdered((short) -2, (short) -1, (short) 0, (short) 300);
+    assertOrdered((byte) -128, (byte) -1, (byte) 0, (byte) 127);
+    assertOrdered(Double.NEGATIVE_INFINITY, -10.5d, -0.25d, 0d,
+        Double.MIN_VALUE, 0.25d, 10.5d, Double.POSITIVE_INFINITY);
+    assertOrdered(-3.5f, -1f, 0f, 1f, 100f);
+    assertOrdered(new Date(-1000L), new Date(0L), new Date(999L), new Date(1000L));
+    assertOrdered("a", "aa", "ab", "b");
+  }
+
+  @Test
+  public void testBinaryGraph() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("binaryEncoding")
+        .setValueEncoding(ValueEncoding.Binary);
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    graph.createKeyIndex("indexed", Vertex.class);
+
+    Vertex v1 = graph.addVertex("V1");
+    v1.setProperty("indexed", 10);
+    v1.setProperty("plain", 2.5d);
+    Vertex v2 = graph.addVertex("V2");
+    v2.setProperty("indexed", 11);
+    v2.setProperty("plain", "text");
+
+    assertEquals(Sets.newHashSet(v1), Sets.newHashSet(graph.getVertices("indexed", 10)));
+    assertEquals(Sets.newHashSet(v1), Sets.newHashSet(graph.getVertices("plain", 2.5d)));
+    assertEquals(Sets.newHashSet(v2), Sets.newHashSet(graph.getVertices("plain", "text")));
+    graph.shutdown();
+
+    graph = new AccumuloGraph(cfg.clone().setCreate(false));
+    assertEquals(10, graph.getVertex("V1").getProperty("indexed"));
+    assertEquals("text", graph.getVertex("V2").getProperty("plain"));
+    graph.shutdown();
+  }
+
+  private static void assertOrdered(Object... values) {
+    for (int i = 1; i < values.length; i++) {
+      byte[] prev = AccumuloByteSerializer.serialize(values[i - 1], ValueEncoding.Binary);
+      byte[] cur = AccumuloByteSerializer.serialize(values[i], ValueEncoding.Binary);
+      assertTrue(values[i - 1] + " < " + values[i], WritableComparator.compareBytes(
+          prev, 0, prev.length, cur, 0, cur.length) < 0);
+    }
+  }
+}
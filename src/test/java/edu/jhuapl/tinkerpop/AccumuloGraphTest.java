@@ -19,11 +19,13 @@ import java.lang.reflect.Method;
 import com.tinkerpop.blueprints.EdgeTestSuite;
 import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.GraphFactory;
+import com.tinkerpop.blueprints.GraphQueryTestSuite;
 import com.tinkerpop.blueprints.GraphTestSuite;
 import com.tinkerpop.blueprints.IndexTestSuite;
 import com.tinkerpop.blueprints.IndexableGraphTestSuite;
 import com.tinkerpop.blueprints.KeyIndexableGraphTestSuite;
 import com.tinkerpop.blueprints.TestSuite;
+import com.tinkerpop.blueprints.VertexQueryTestSuite;
 import com.tinkerpop.blueprints.VertexTestSuite;
 import com.tinkerpop.blueprints.impls.GraphTest;
 import com.tinkerpop.blueprints.util.io.gml.GMLReaderTestSuite;
@@ -46,6 +48,18 @@ public class AccumuloGraphTest extends GraphTest {
     printTestPerformance("EdgeTestSuite", this.stopWatch());
   }
 
+  public void testVertexQueryTestSuite() throws Exception {
+    this.stopWatch();
+    doTestSuite(new VertexQueryTestSuite(this));
+    printTestPerformance("VertexQueryTestSuite", this.stopWatch());
+  }
+
+  public void testGraphQueryTestSuite() throws Exception {
+    this.stopWatch();
+    doTestSuite(new GraphQueryTestSuite(this));
+    printTestPerformance("GraphQueryTestSuite", this.stopWatch());
+  }
+
   public void testGraphTestSuite() throws Exception {
     this.stopWatch();
     doTestSuite(new GraphTestSuite(this));
@@ -14,6 +14,10 @@
  */
 package edu.jhuapl.tinkerpop;
 
+import java.util.HashSet;
+import java.util.Set;
+
+import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.GraphFactory;
 
@@ -29,4 +33,17 @@ public class AccumuloGraphTestUtils {
   public static Graph makeGraph(String name) {
     return GraphFactory.open(generateGraphConfig(name));
   }
+
+  /**
+   * Return the ids of the given elements.
+   * @param elements
+   * @return
+   */
+  public static Set<String> ids(Iterable<? extends Element> elements) {
+    Set<String> ids = new HashSet<String>();
+    for (Element element : elements) {
+      ids.add(element.getId().toString());
+    }
+    return ids;
+  }
 }
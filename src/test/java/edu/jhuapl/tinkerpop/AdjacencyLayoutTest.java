@@ -0,0 +1,143 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+import static edu.jhuapl.tinkerpop.AccumuloGraphTestUtils.ids;
+
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.AdjacencyLayout;
+
+/**
+ * Tests for the label-partitioned adjacency layout.
+ */
+public class AdjacencyLayoutTest {
+
+  @Test
+  public void testLabelPartitioned() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("labelPartitioned")
+        .setAdjacencyLayout(AdjacencyLayout.LabelPartitioned));
+    Vertex center = addEdges(graph);
+
+    assertEquals(Sets.newHashSet("A0", "A2", "B1", "IN"),
+        ids(center.getEdges(Direction.BOTH)));
+    assertEquals(Sets.newHashSet("A0", "A2"),
+        ids(center.getEdges(Direction.OUT, "a")));
+    assertEquals(Sets.newHashSet("A0", "A2", "B1"),
+        ids(center.getEdges(Direction.OUT, "a", "b", "a")));
+    assertEquals(Sets.newHashSet("IN"),
+        ids(center.getEdges(Direction.BOTH, "b.*", "in")));
+    assertEquals(Sets.newHashSet("V1"),
+        ids(center.getVertices(Direction.OUT, "b")));
+    assertEquals(Sets.newHashSet("C"),
+        ids(graph.getVertex("V0").getVertices(Direction.IN, "a")));
+    assertEquals(Sets.newHashSet(),
+        ids(center.getEdges(Direction.IN, "a")));
+
+    graph.removeEdge(graph.getEdge("A0"));
+    assertEquals(Sets.newHashSet("A2"),
+        ids(center.getEdges(Direction.OUT, "a")));
+    assertEquals(Sets.newHashSet(),
+        ids(graph.getVertex("V0").getEdges(Direction.IN)));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testReadAcrossLayouts() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("adjacencyAcrossLayouts")
+        .setAdjacencyLayout(AdjacencyLayout.LabelPartitioned);
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    addEdges(graph);
+    graph.shutdown();
+
+    // Entries written with either layout can be read
+    // and removed with the flat layout.
+    graph = new AccumuloGraph(cfg.clone()
+        .setAdjacencyLayout(AdjacencyLayout.Flat).setCreate(false));
+    Vertex center = graph.getVertex("C");
+    graph.addEdge("A3", center, graph.addVertex("V3"), "a");
+    assertEquals(Sets.newHashSet("A0", "A2", "A3"),
+        ids(center.getEdges(Direction.OUT, "a")));
+    assertEquals(Sets.newHashSet("V0", "V1", "V2", "V3"),
+        ids(center.getVertices(Direction.OUT)));
+
+    graph.removeEdge(graph.getEdge("A0"));
+    graph.removeEdge(graph.getEdge("A3"));
+    assertEquals(Sets.newHashSet("A2", "B1"),
+        ids(center.getEdges(Direction.OUT)));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testMixedLayouts() throws Exception {
+    // A graph written with the flat layout, then
+    // opened with the label-partitioned layout.
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("adjacencyMixedLayouts");
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    addEdges(graph);
+    graph.shutdown();
+
+    graph = new AccumuloGraph(cfg.clone()
+        .setAdjacencyLayout(AdjacencyLayout.LabelPartitioned).setCreate(false));
+    Vertex center = graph.getVertex("C");
+    graph.addEdge("A3", center, graph.addVertex("V3"), "a");
+    assertEquals(Sets.newHashSet("A0", "A2", "A3"),
+        ids(center.getEdges(Direction.OUT, "a")));
+    assertEquals(Sets.newHashSet("V1"),
+        ids(center.getVertices(Direction.OUT, "b")));
+    assertEquals(3L, ((AccumuloVertex) center).getDegree(Direction.OUT, "a"));
+    graph.shutdown();
+
+    // Flat entries are seen even when written after the
+    // graph was created with the label-partitioned layout.
+    cfg = AccumuloGraphTestUtils.generateGraphConfig("adjacencyMixedLayouts2")
+        .setAdjacencyLayout(AdjacencyLayout.LabelPartitioned);
+    graph = new AccumuloGraph(cfg);
+    center = addEdges(graph);
+    assertEquals(Sets.newHashSet("A0", "A2"),
+        ids(center.getEdges(Direction.OUT, "a")));
+    graph.shutdown();
+
+    graph = new AccumuloGraph(cfg.clone()
+        .setAdjacencyLayout(AdjacencyLayout.Flat).setCreate(false));
+    graph.addEdge("A3", graph.getVertex("C"), graph.addVertex("V3"), "a");
+    graph.shutdown();
+
+    graph = new AccumuloGraph(cfg.clone().setCreate(false));
+    assertEquals(Sets.newHashSet("A0", "A2", "A3"),
+        ids(graph.getVertex("C").getEdges(Direction.OUT, "a")));
+    graph.shutdown();
+  }
+
+  private static Vertex addEdges(AccumuloGraph graph) {
+    Vertex center = graph.addVertex("C");
+    for (int i = 0; i < 3; i++) {
+      graph.addEdge((i % 2 == 0 ? "A" : "B") + i, center,
+          graph.addVertex("V" + i), i % 2 == 0 ? "a" : "b");
+    }
+    graph.addEdge("IN", graph.addVertex("O"), center, "in");
+    return center;
+  }
+}
@@ -0,0 +1,105 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Tests for automatically computed table splits.
+ */
+public class AutoSplitTest {
+
+  @Test
+  public void testCalculator() throws Exception {
+    assertEquals(texts("40", "80", "c0"), SplitCalculator.getHexSplits(4));
+    assertEquals(15, SplitCalculator.getHexSplits(16).size());
+    assertEquals(new Text("010"), SplitCalculator.getHexSplits(256).first());
+    assertTrue(SplitCalculator.getHexSplits(1).isEmpty());
+
+    assertEquals(texts("c", "e", "g", "i"), SplitCalculator.getSampleSplits(
+        Arrays.asList("j", "i", "h", "g", "f", "e", "d", "c", "b", "a", "a"), 5));
+    assertTrue(SplitCalculator.getSampleSplits(new ArrayList<String>(), 5).isEmpty());
+  }
+
+  @Test
+  public void testCreate() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("autoSplitCreate").setAutoSplits(4);
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    TableOperations tableOps = cfg.getConnector().tableOperations();
+    for (String table : new String[] {cfg.getVertexTableName(),
+        cfg.getEdgeTableName(), cfg.getReverseIndexTableName()}) {
+      assertEquals(texts("40", "80", "c0"), splits(cfg, table));
+    }
+    assertTrue(tableOps.listSplits(cfg.getVertexKeyIndexTableName()).isEmpty());
+    graph.shutdown();
+
+    cfg = AccumuloGraphTestUtils.generateGraphConfig("autoSplitSample")
+        .setAutoSplits(2).setSplitSample(new String[] {"a", "b", "c", "d"});
+    graph = new AccumuloGraph(cfg);
+    assertEquals(texts("c"), splits(cfg, cfg.getVertexTableName()));
+    graph.shutdown();
+
+    // Explicit splits take precedence.
+    cfg = AccumuloGraphTestUtils.generateGraphConfig("autoSplitExplicit")
+        .setAutoSplits(4).setSplits("m");
+    graph = new AccumuloGraph(cfg);
+    assertEquals(texts("m"), splits(cfg, cfg.getVertexTableName()));
+    graph.shutdown();
+  }
+
+  @Test
+  public void testComputeSplits() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("autoSplitCompute");
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    graph.createKeyIndex("name", Vertex.class);
+    for (int i = 0; i < 100; i++) {
+      graph.addVertex(String.format("v%02d", i)).setProperty("name", "n" + i);
+    }
+
+    graph.computeSplits(4);
+    TableOperations tableOps = cfg.getConnector().tableOperations();
+    assertEquals(texts("v25", "v50", "v75"), splits(cfg, cfg.getVertexTableName()));
+    assertEquals(3, tableOps.listSplits(cfg.getVertexKeyIndexTableName()).size());
+    assertTrue(tableOps.listSplits(cfg.getEdgeTableName()).isEmpty());
+    assertEquals("v01", graph.getVertices("name", "n1").iterator().next().getId());
+    graph.shutdown();
+  }
+
+  private static SortedSet<Text> texts(String... values) {
+    SortedSet<Text> texts = new TreeSet<Text>();
+    for (String value : values) {
+      texts.add(new Text(value));
+    }
+    return texts;
+  }
+
+  private static SortedSet<Text> splits(AccumuloGraphConfiguration cfg,
+      String table) throws Exception {
+    return new TreeSet<Text>(cfg.getConnector().tableOperations().listSplits(table));
+  }
+}
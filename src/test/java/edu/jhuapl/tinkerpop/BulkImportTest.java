@@ -0,0 +1,75 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Tests for bulk ingest through imported RFiles.
+ */
+public class BulkImportTest {
+
+  @Test
+  public void testImport() throws Exception {
+    File dir = Files.createTempDirectory("bulkImport").toFile();
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("bulkImport");
+    AccumuloGraph graph = new AccumuloGraph(cfg.clone());
+    graph.createKeyIndex("name", Vertex.class);
+    graph.shutdown();
+
+    // A small buffer spills many runs to be merged.
+    AccumuloBulkIngester ingester = new AccumuloBulkIngester(cfg.clone()
+        .setCreate(false).setBulkImportDir(dir.getPath())
+        .setBulkImportBufferSize(7));
+    for (int i = 99; i >= 0; i--) {
+      ingester.addVertex("V" + i).add("name", "v" + i).finish();
+    }
+    for (int i = 1; i < 100; i++) {
+      ingester.addEdge("E" + i, "V0", "V" + i, "label").add("weight", i).finish();
+    }
+    // Later values replace earlier ones, even across runs.
+    ingester.addVertexProperty("V5", "name", "first");
+    for (int i = 0; i < 20; i++) {
+      ingester.addVertexProperty("V6", "other", i);
+    }
+    ingester.addVertexProperty("V5", "name", "last");
+    ingester.shutdown(false);
+
+    graph = new AccumuloGraph(cfg.clone().setCreate(false));
+    assertEquals(100, Iterables.size(graph.getVertices()));
+    assertEquals(99, Iterables.size(graph.getEdges()));
+    assertEquals("v10", graph.getVertex("V10").getProperty("name"));
+    assertEquals("last", graph.getVertex("V5").getProperty("name"));
+    assertEquals(19, graph.getVertex("V6").getProperty("other"));
+    assertEquals(99, Iterables.size(graph.getVertex("V0").getEdges(Direction.OUT)));
+    assertEquals(7, graph.getEdge("E7").getProperty("weight"));
+    assertEquals("V20", graph.getVertices("name", "v20").iterator().next().getId());
+    graph.shutdown();
+
+    // Work directories are removed after import.
+    assertEquals(0, dir.list().length);
+    dir.delete();
+  }
+}
@@ -0,0 +1,113 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Index;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Tests for removing many vertices and edges at once.
+ */
+public class BulkRemoveTest {
+
+  @Test
+  public void testRemoveVertices() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("bulkRemoveVertices"));
+    graph.createKeyIndex("name", Vertex.class);
+    graph.createKeyIndex("weight", Edge.class);
+    Index<Vertex> index = graph.createIndex("index", Vertex.class);
+
+    Vertex a = graph.addVertex("A");
+    Vertex b = graph.addVertex("B");
+    Vertex c = graph.addVertex("C");
+    a.setProperty("name", "a");
+    b.setProperty("name", "b");
+    c.setProperty("name", "c");
+    index.put("name", "a", a);
+    index.put("name", "c", c);
+    graph.addEdge("AB", a, b, "label").setProperty("weight", 1);
+    graph.addEdge("BC", b, c, "label").setProperty("weight", 2);
+    graph.addEdge("CA", c, a, "label").setProperty("weight", 3);
+
+    // Missing vertices are ignored.
+    AccumuloGraph other = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("bulkRemoveOther"));
+    graph.removeVertices(Arrays.asList(a, b, other.addVertex("X")));
+    other.shutdown();
+
+    assertNull(graph.getVertex("A"));
+    assertNull(graph.getVertex("B"));
+    assertNotNull(graph.getVertex("C"));
+    assertNull(graph.getEdge("AB"));
+    assertNull(graph.getEdge("BC"));
+    assertNull(graph.getEdge("CA"));
+    assertEquals(0, Iterables.size(graph.getEdges()));
+    assertEquals(0, Iterables.size(c.getEdges(Direction.BOTH)));
+
+    assertFalse(graph.getVertices("name", "a").iterator().hasNext());
+    assertFalse(graph.getVertices("name", "b").iterator().hasNext());
+    assertEquals("C", graph.getVertices("name", "c").iterator().next().getId());
+    assertFalse(graph.getEdges("weight", 1).iterator().hasNext());
+    assertFalse(graph.getEdges("weight", 3).iterator().hasNext());
+    assertEquals(0, index.count("name", "a"));
+    assertEquals(1, index.count("name", "c"));
+
+    graph.removeVertices(Collections.<Vertex>emptyList());
+    graph.shutdown();
+  }
+
+  @Test
+  public void testRemoveEdges() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("bulkRemoveEdges"));
+    graph.createKeyIndex("weight", Edge.class);
+    Index<Edge> index = graph.createIndex("index", Edge.class);
+
+    Vertex a = graph.addVertex("A");
+    Vertex b = graph.addVertex("B");
+    Edge ab = graph.addEdge("AB", a, b, "label");
+    Edge ba = graph.addEdge("BA", b, a, "other");
+    Edge aa = graph.addEdge("AA", a, a, "label");
+    ab.setProperty("weight", 1);
+    ba.setProperty("weight", 2);
+    index.put("name", "ab", ab);
+    index.put("name", "aa", aa);
+
+    graph.removeEdges(Arrays.asList(ab, ba));
+
+    assertNull(graph.getEdge("AB"));
+    assertNull(graph.getEdge("BA"));
+    assertNotNull(graph.getEdge("AA"));
+    assertEquals(0, Iterables.size(b.getEdges(Direction.BOTH)));
+    assertEquals(2, Iterables.size(a.getEdges(Direction.BOTH)));
+    assertFalse(graph.getEdges("weight", 1).iterator().hasNext());
+    assertFalse(graph.getEdges("weight", 2).iterator().hasNext());
+    assertEquals(0, index.count("name", "ab"));
+    assertEquals(1, index.count("name", "aa"));
+
+    graph.shutdown();
+  }
+}
@@ -0,0 +1,198 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map.Entry;
+
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Tests for materialized degree counters.
+ */
+public class DegreeCounterTest {
+
+  @Test
+  public void testCounters() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("degreeCounters").setDegreeCounters(true);
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    assertTrue(cfg.getConnector().tableOperations().listIterators(
+        cfg.getVertexTableName()).containsKey(DegreeCounters.COMBINER_NAME));
+
+    AccumuloVertex center = (AccumuloVertex) graph.addVertex("C");
+    for (int i = 0; i < 5; i++) {
+      graph.addEdge("E" + i, center, graph.addVertex("V" + i), i < 3 ? "a" : "b");
+    }
+    graph.addEdge("IN", graph.addVertex("O"), center, "in");
+    graph.addEdge("LOOP", center, center, "loop");
+
+    assertEquals(8, center.getDegree(Direction.BOTH));
+    assertEquals(6, center.getDegree(Direction.OUT));
+    assertEquals(3, center.getDegree(Direction.OUT, "a"));
+    assertEquals(2, center.getDegree(Direction.IN, "in", "loop", "a"));
+    assertEquals(ImmutableMap.of("a", 3L, "b", 2L, "loop", 1L),
+        center.getLabelDegrees(Direction.OUT));
+    assertEquals(ImmutableMap.of("C", 4L, "V0", 1L, "missing", 0L),
+        graph.getDegrees(Arrays.asList("C", "V0", "missing"),
+            Direction.BOTH, "a", "in"));
+
+    // Each counter is read as a single entry.
+    assertEquals(5, countEntries(cfg, "C"));
+    assertFalse(center.getPropertyKeys().contains(Constants.DEGREE));
+
+    graph.removeEdge(graph.getEdge("E0"));
+    graph.removeEdges(Arrays.asList(graph.getEdge("E1"), graph.getEdge("LOOP")));
+    assertEquals(ImmutableMap.of("a", 1L, "b", 2L),
+        center.getLabelDegrees(Direction.OUT));
+    assertEquals(0, ((AccumuloVertex) graph.getVertex("V0")).getDegree(Direction.BOTH));
+
+    // Removing a vertex removes its counters, and
+    // updates those of its neighbors.
+    graph.removeVertex(graph.getVertex("O"));
+    graph.removeVertices(Arrays.<Vertex>asList(graph.getVertex("V4")));
+    assertEquals(0, countEntries(cfg, "O"));
+    assertEquals(0, countEntries(cfg, "V4"));
+    assertEquals(ImmutableMap.of("a", 1L, "b", 1L),
+        center.getLabelDegrees(Direction.BOTH));
+
+    graph.addVertex("O");
+    assertEquals(0, ((AccumuloVertex) graph.getVertex("O")).getDegree(Direction.BOTH));
+
+    // Labels are stored as UTF-8.
+    String label = "\u00e9tiquette\u2192";
+    graph.addEdge("U", center, graph.addVertex("U"), label);
+    assertEquals(1, center.getDegree(Direction.OUT, label));
+    assertEquals(Long.valueOf(1), center.getLabelDegrees(Direction.OUT).get(label));
+    assertArrayEquals(("OUT" + Constants.ID_DELIM + label).getBytes("UTF-8"),
+        DegreeCounters.serializeQualifier(Direction.OUT, label));
+    graph.shutdown();
+  }
+
+  @Test
+  public void testReAddedEdge() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("degreeCountersReAdd").setDegreeCounters(true));
+    Vertex a = graph.addVertex("A");
+    Vertex b = graph.addVertex("B");
+    graph.addEdge("E", a, b, "label");
+    graph.addEdge("E", a, b, "label");
+    assertEquals(1, ((AccumuloVertex) a).getDegree(Direction.OUT));
+    graph.shutdown();
+
+    // Also when the edge is not cached.
+    graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("degreeCountersReAdd").setDegreeCounters(true));
+    a = graph.getVertex("A");
+    graph.addEdge("E", a, graph.getVertex("B"), "label");
+    assertEquals(1, ((AccumuloVertex) a).getDegree(Direction.OUT));
+    assertEquals(1, ((AccumuloVertex) graph.getVertex("B")).getDegree(Direction.IN));
+    graph.shutdown();
+  }
+
+  @Test
+  public void testEnableOnExisting() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("degreeCountersExisting");
+    AccumuloGraph graph = new AccumuloGraph(cfg.clone());
+    graph.addVertex("A");
+    graph.shutdown();
+    assertFalse(cfg.getConnector().tableOperations().listIterators(
+        cfg.getVertexTableName()).containsKey(DegreeCounters.COMBINER_NAME));
+
+    // Opening the graph with counters enabled attaches the combiner.
+    graph = new AccumuloGraph(cfg.clone().setCreate(false).setDegreeCounters(true));
+    assertTrue(cfg.getConnector().tableOperations().listIterators(
+        cfg.getVertexTableName()).containsKey(DegreeCounters.COMBINER_NAME));
+    AccumuloVertex a = (AccumuloVertex) graph.getVertex("A");
+    for (int i = 0; i < 3; i++) {
+      graph.addEdge("E" + i, a, graph.addVertex("V" + i), "label");
+    }
+    assertEquals(3, a.getDegree(Direction.OUT));
+    assertEquals(1, countEntries(cfg, "A"));
+    graph.shutdown();
+  }
+
+  @Test
+  public void testBulkIngest() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("degreeCountersIngest").setDegreeCounters(true);
+    AccumuloBulkIngester ingester = new AccumuloBulkIngester(cfg.clone());
+    ingester.addVertex("V0").finish();
+    for (int i = 1; i < 10; i++) {
+      ingester.addEdge("E" + i, "V0", "V" + i, "label").finish();
+    }
+    ingester.shutdown(true);
+
+    AccumuloGraph graph = new AccumuloGraph(cfg.clone().setCreate(false));
+    assertEquals(ImmutableMap.of("V0", 9L, "V9", 1L),
+        graph.getDegrees(Arrays.asList("V0", "V9"), Direction.BOTH, "label"));
+    graph.shutdown();
+  }
+
+  @Test
+  public void testBulkImport() throws Exception {
+    File dir = Files.createTempDirectory("degreeCounters").toFile();
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("degreeCountersImport").setDegreeCounters(true);
+
+    // A small buffer spills many runs to be merged.
+    AccumuloBulkIngester ingester = new AccumuloBulkIngester(cfg.clone()
+        .setBulkImportDir(dir.getPath()).setBulkImportBufferSize(7));
+    ingester.addVertex("V0").finish();
+    for (int i = 1; i < 50; i++) {
+      ingester.addVertex("V" + i).finish();
+      ingester.addEdge("E" + i, "V0", "V" + i, i % 2 == 0 ? "even" : "odd").finish();
+    }
+    ingester.shutdown(false);
+
+    AccumuloGraph graph = new AccumuloGraph(cfg.clone().setCreate(false));
+    AccumuloVertex v0 = (AccumuloVertex) graph.getVertex("V0");
+    assertEquals(ImmutableMap.of("even", 24L, "odd", 25L),
+        v0.getLabelDegrees(Direction.OUT));
+    assertEquals(2, countEntries(cfg, "V0"));
+
+    graph.addEdge("E50", v0, graph.addVertex("V50"), "even");
+    assertEquals(50, v0.getDegree(Direction.OUT));
+    graph.shutdown();
+    dir.delete();
+  }
+
+  private static int countEntries(AccumuloGraphConfiguration cfg,
+      String id) throws Exception {
+    Scanner scan = cfg.getConnector().createScanner(
+        cfg.getVertexTableName(), cfg.getAuthorizations());
+    scan.setRange(Range.exact(id));
+    scan.fetchColumnFamily(new Text(Constants.DEGREE));
+    int count = 0;
+    for (Entry<Key, Value> entry : scan) {
+      count++;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,125 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.tinkerpop.blueprints.Direction;
+
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.AdjacencyLayout;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.KeyEncoding;
+import edu.jhuapl.tinkerpop.iterators.DegreeIterator;
+
+/**
+ * Tests for server-side degree counting.
+ */
+public class DegreeTest {
+
+  @Test
+  public void testDegree() throws Exception {
+    for (AdjacencyLayout layout : AdjacencyLayout.values()) {
+      for (KeyEncoding encoding : KeyEncoding.values()) {
+        AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+            .generateGraphConfig("degree" + layout + encoding)
+            .setAdjacencyLayout(layout).setKeyEncoding(encoding));
+        AccumuloVertex center = (AccumuloVertex) addEdges(graph);
+
+        assertEquals(6, center.getDegree(Direction.BOTH));
+        assertEquals(5, center.getDegree(Direction.OUT));
+        assertEquals(1, center.getDegree(Direction.IN));
+        assertEquals(3, center.getDegree(Direction.OUT, "a"));
+        assertEquals(3, center.getDegree(Direction.BOTH, "b", "in", "b"));
+        assertEquals(0, center.getDegree(Direction.IN, "a"));
+
+        assertEquals(ImmutableMap.of("a", 3L, "b", 2L),
+            center.getLabelDegrees(Direction.OUT));
+        assertEquals(ImmutableMap.of("a", 3L, "b", 2L, "in", 1L),
+            center.getLabelDegrees(Direction.BOTH));
+
+        assertEquals(ImmutableMap.of("C", 6L, "V0", 1L, "O", 1L, "missing", 0L),
+            graph.getDegrees(Arrays.asList("C", "V0", "O", "missing"),
+                Direction.BOTH));
+        assertEquals(ImmutableMap.of("C", 3L, "V0", 0L),
+            graph.getDegrees(Arrays.asList("C", "V0"), Direction.OUT, "a"));
+
+        graph.removeEdge(graph.getEdge("E0"));
+        assertEquals(2, center.getDegree(Direction.OUT, "a"));
+
+        graph.shutdown();
+      }
+    }
+  }
+
+  @Test
+  public void testResume() throws Exception {
+    TreeMap<Key, Value> entries = new TreeMap<Key, Value>();
+    for (int i = 0; i < 5; i++) {
+      entries.put(new Key("V", Constants.OUT_EDGE, "O" + i),
+          new Value((Constants.ID_DELIM + (i < 3 ? "a" : "b")).getBytes()));
+    }
+    entries.put(new Key("V", Constants.IN_EDGE, "I"), new Value("a".getBytes()));
+
+    DegreeIterator iter = new DegreeIterator();
+    iter.init(new SortedMapIterator(entries),
+        Collections.singletonMap("groupByLabel", "true"), null);
+    iter.seek(new Range(), Collections.<ByteSequence>emptySet(), false);
+
+    assertTrue(iter.hasTop());
+    assertEquals(new Key("V", Constants.IN_EDGE, "I"), iter.getTopKey());
+    assertEquals(ImmutableMap.of("a", 1L),
+        DegreeIterator.decodeCounts(iter.getTopValue()));
+    iter.next();
+    assertEquals(new Key("V", Constants.OUT_EDGE, "O4"), iter.getTopKey());
+    assertEquals(ImmutableMap.of("a", 3L, "b", 2L),
+        DegreeIterator.decodeCounts(iter.getTopValue()));
+    iter.next();
+    assertFalse(iter.hasTop());
+
+    // A scan resumed after a returned entry counts
+    // only the entries after it.
+    Map<String, Long> counts = new HashMap<String, Long>();
+    iter.seek(new Range(new Key("V", Constants.OUT_EDGE, "O1"), false, null, true),
+        Collections.<ByteSequence>emptySet(), false);
+    while (iter.hasTop()) {
+      counts.putAll(DegreeIterator.decodeCounts(iter.getTopValue()));
+      iter.next();
+    }
+    assertEquals(ImmutableMap.of("a", 1L, "b", 2L), counts);
+  }
+
+  private static AccumuloVertex addEdges(AccumuloGraph graph) {
+    AccumuloVertex center = (AccumuloVertex) graph.addVertex("C");
+    for (int i = 0; i < 5; i++) {
+      graph.addEdge("E" + i, center, graph.addVertex("V" + i),
+          i < 3 ? "a" : "b");
+    }
+    graph.addEdge("IN", graph.addVertex("O"), center, "in");
+    return center;
+  }
+}
@@ -0,0 +1,184 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+import static edu.jhuapl.tinkerpop.AccumuloGraphTestUtils.ids;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.junit.Test;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Sets;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.AdjacencyLayout;
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.KeyEncoding;
+
+/**
+ * Tests for the binary edge key encoding.
+ */
+public class EdgeKeyEncodingTest {
+
+  @Test
+  public void testBinary() throws Exception {
+    for (AdjacencyLayout layout : AdjacencyLayout.values()) {
+      AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+          .generateGraphConfig("binaryKeys" + layout)
+          .setKeyEncoding(KeyEncoding.Binary)
+          .setAdjacencyLayout(layout));
+      Vertex center = addEdges(graph);
+
+      assertEquals(Sets.newHashSet("A0", "A2", "B1", "IN"),
+          ids(center.getEdges(Direction.BOTH)));
+      assertEquals(Sets.newHashSet("A0", "A2"),
+          ids(center.getEdges(Direction.OUT, "a")));
+      assertEquals(Sets.newHashSet("V1"),
+          ids(center.getVertices(Direction.OUT, "b")));
+      assertEquals(Sets.newHashSet("O"),
+          ids(center.getVertices(Direction.IN)));
+
+      Edge edge = graph.getEdge("IN");
+      assertEquals("in", edge.getLabel());
+      assertEquals("O", edge.getVertex(Direction.OUT).getId());
+      assertEquals("C", edge.getVertex(Direction.IN).getId());
+      for (Edge e : center.getEdges(Direction.IN)) {
+        assertEquals("in", e.getLabel());
+      }
+
+      graph.removeEdge(graph.getEdge("A0"));
+      assertEquals(Sets.newHashSet("A2"),
+          ids(center.getEdges(Direction.OUT, "a")));
+      assertEquals(Sets.newHashSet(),
+          ids(graph.getVertex("V0").getEdges(Direction.IN)));
+
+      graph.removeVertex(center);
+      assertNull(graph.getEdge("A2"));
+      assertEquals(Sets.newHashSet(),
+          ids(graph.getVertex("O").getEdges(Direction.BOTH)));
+
+      graph.shutdown();
+    }
+  }
+
+  @Test
+  public void testReadAcrossEncodings() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("keysAcrossEncodings")
+        .setAdjacencyLayout(AdjacencyLayout.LabelPartitioned);
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    addEdges(graph);
+    graph.shutdown();
+
+    // Text entries can be read and removed alongside
+    // binary ones, including by label.
+    graph = new AccumuloGraph(cfg.clone()
+        .setKeyEncoding(KeyEncoding.Binary).setCreate(false));
+    Vertex center = graph.getVertex("C");
+    graph.addEdge("A3", center, graph.addVertex("V3"), "a");
+    assertEquals(Sets.newHashSet("A0", "A2", "A3"),
+        ids(center.getEdges(Direction.OUT, "a")));
+    assertEquals(Sets.newHashSet("V0", "V1", "V2", "V3"),
+        ids(center.getVertices(Direction.OUT)));
+    assertEquals("a", graph.getEdge("A0").getLabel());
+
+    graph.removeEdge(graph.getEdge("A0"));
+    graph.removeEdge(graph.getEdge("A3"));
+    assertEquals(Sets.newHashSet("A2", "B1"),
+        ids(center.getEdges(Direction.OUT)));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testDecoders() {
+    // Lengths over 127 take more than one byte.
+    String longId = Strings.repeat("x", 300);
+    EdgeKeySerializer.Endpoint endpoint = new EdgeKeySerializer.Endpoint();
+    for (KeyEncoding encoding : KeyEncoding.values()) {
+      for (AdjacencyLayout layout : AdjacencyLayout.values()) {
+        endpoint.read(new ArrayByteSequence(EdgeKeySerializer
+            .serializeEndpoint(encoding, layout, "label", longId, "e")));
+        assertEquals(longId, endpoint.getOtherVertexId());
+        assertEquals("e", endpoint.getEdgeId());
+
+        endpoint.read(new ArrayByteSequence(EdgeKeySerializer
+            .serializeEndpoint(encoding, layout, longId, "v", "")));
+        assertEquals("v", endpoint.getOtherVertexId());
+        assertEquals("", endpoint.getEdgeId());
+      }
+
+      EdgeKeySerializer.Vertices vertices = new EdgeKeySerializer.Vertices()
+          .read(new ArrayByteSequence(EdgeKeySerializer
+              .serializeVertices(encoding, longId, "out")));
+      assertEquals(longId, vertices.getInVertexId());
+      assertEquals("out", vertices.getOutVertexId());
+
+      assertEquals("label", EdgeKeySerializer.deserializeEndpointLabel(
+          EdgeKeySerializer.serializeEndpointLabel(encoding, "label")));
+    }
+
+    try {
+      endpoint.read(new ArrayByteSequence("malformed"));
+      fail();
+    } catch (AccumuloGraphException e) { }
+  }
+
+  @Test
+  public void testAmbiguousKeys() {
+    // Would be read as the other encoding.
+    for (String id : new String[] {"\u0001v", "\u0002v"}) {
+      try {
+        EdgeKeySerializer.serializeEndpoint(KeyEncoding.Text,
+            AdjacencyLayout.Flat, "label", id, "e");
+        fail();
+      } catch (AccumuloGraphException e) { }
+      try {
+        EdgeKeySerializer.serializeEndpoint(KeyEncoding.Text,
+            AdjacencyLayout.LabelPartitioned, id, "v", "e");
+        fail();
+      } catch (AccumuloGraphException e) { }
+      try {
+        EdgeKeySerializer.serializeVertices(KeyEncoding.Text, id, "out");
+        fail();
+      } catch (AccumuloGraphException e) { }
+
+      // Fine where they are not the leading part, or in binary.
+      EdgeKeySerializer.serializeEndpoint(KeyEncoding.Text,
+          AdjacencyLayout.Flat, id, "v", id);
+      EdgeKeySerializer.serializeVertices(KeyEncoding.Binary, id, "out");
+    }
+
+    try {
+      EdgeKeySerializer.serializeEndpointLabel(KeyEncoding.Binary,
+          Constants.ID_DELIM + "label");
+      fail();
+    } catch (AccumuloGraphException e) { }
+    assertEquals("a" + Constants.ID_DELIM, EdgeKeySerializer.deserializeEndpointLabel(
+        EdgeKeySerializer.serializeEndpointLabel(KeyEncoding.Binary, "a" + Constants.ID_DELIM)));
+  }
+
+  private static Vertex addEdges(AccumuloGraph graph) {
+    Vertex center = graph.addVertex("C");
+    for (int i = 0; i < 3; i++) {
+      graph.addEdge((i % 2 == 0 ? "A" : "B") + i, center,
+          graph.addVertex("V" + i), i % 2 == 0 ? "a" : "b");
+    }
+    graph.addEdge("IN", graph.addVertex("O"), center, "in");
+    return center;
+  }
+}
@@ -0,0 +1,76 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+import static edu.jhuapl.tinkerpop.AccumuloGraphTestUtils.ids;
+
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.iterators.EdgeLabelFilter;
+
+/**
+ * Tests for {@link EdgeLabelFilter}.
+ */
+public class EdgeLabelFilterTest {
+
+  @Test
+  public void testLabels() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("edgeLabelFilter"));
+    Vertex center = graph.addVertex("C");
+    String[] labels = {"a", "b", "a.*", "\\E(x|y)", "a,b", ""};
+    for (int i = 0; i < labels.length; i++) {
+      graph.addEdge("OUT" + i, center, graph.addVertex("V" + i), labels[i]);
+    }
+
+    assertEquals(Sets.newHashSet("OUT0"),
+        ids(center.getEdges(Direction.OUT, "a")));
+    assertEquals(Sets.newHashSet("OUT2"),
+        ids(center.getEdges(Direction.OUT, "a.*")));
+    assertEquals(Sets.newHashSet("OUT3", "OUT4"),
+        ids(center.getEdges(Direction.OUT, "\\E(x|y)", "a,b")));
+    assertEquals(Sets.newHashSet("V1", "V5"),
+        ids(center.getVertices(Direction.OUT, "b", "", "missing")));
+    assertEquals(Sets.newHashSet(),
+        ids(center.getEdges(Direction.IN, "a")));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testManyLabels() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("edgeLabelFilterMany"));
+    Vertex center = graph.addVertex("C");
+    for (int i = 0; i < 20; i++) {
+      graph.addEdge("E" + i, center, graph.addVertex("V" + i), "label" + i);
+    }
+
+    String[] wanted = new String[500];
+    for (int i = 0; i < wanted.length; i++) {
+      wanted[i] = "label" + (i * 2 + 1);
+    }
+    assertEquals(Sets.newHashSet("E1", "E3", "E5", "E7", "E9",
+        "E11", "E13", "E15", "E17", "E19"),
+        ids(center.getEdges(Direction.BOTH, wanted)));
+
+    graph.shutdown();
+  }
+}
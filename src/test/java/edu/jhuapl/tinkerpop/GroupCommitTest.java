@@ -0,0 +1,162 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.MultiTableBatchWriter;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.security.SecurityErrorCode;
+import org.apache.accumulo.core.data.ConstraintViolationSummary;
+import org.apache.accumulo.core.data.KeyExtent;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Tests for group commit.
+ */
+public class GroupCommitTest {
+
+  @Test
+  public void testExplicitFlush() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("groupCommitFlush").setGroupCommit(true)
+        .setGroupCommitLatency(60000L).setGroupCommitSize(1000));
+    graph.addVertex("A").setProperty("name", "a");
+    ListenableFuture<Void> future = graph.flushAsync();
+    assertFalse(future.isDone());
+
+    graph.flush();
+    assertTrue(future.isDone());
+    future.get();
+    assertEquals("a", graph.getVertex("A").getProperty("name"));
+
+    // A new group is started after a flush.
+    graph.addVertex("B");
+    assertFalse(graph.flushAsync().isDone());
+    graph.shutdown();
+  }
+
+  @Test
+  public void testSizeAndLatency() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("groupCommitSize").setGroupCommit(true)
+        .setGroupCommitLatency(60000L).setGroupCommitSize(10));
+    graph.addVertex("V");
+    ListenableFuture<Void> future = graph.flushAsync();
+    for (int i = 0; i < 10; i++) {
+      graph.flushAsync();
+    }
+    future.get(10, TimeUnit.SECONDS);
+    graph.shutdown();
+
+    graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("groupCommitLatency").setGroupCommit(true)
+        .setGroupCommitLatency(10L));
+    graph.addVertex("V");
+    graph.flushAsync().get(10, TimeUnit.SECONDS);
+    graph.shutdown();
+  }
+
+  @Test
+  public void testRemove() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("groupCommitRemove").setGroupCommit(true)
+        .setGroupCommitLatency(60000L));
+    Vertex a = graph.addVertex("A");
+    Vertex b = graph.addVertex("B");
+    graph.addEdge("E", a, b, "label");
+    a.remove();
+
+    assertNull(graph.getVertex("A"));
+    assertNull(graph.getEdge("E"));
+    assertFalse(b.getEdges(Direction.BOTH).iterator().hasNext());
+    graph.shutdown();
+  }
+
+  @Test
+  public void testBackgroundFailure() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("groupCommitFailure").setGroupCommit(true)
+        .setGroupCommitLatency(1L);
+    final MultiTableBatchWriter mtbw = cfg.getConnector()
+        .createMultiTableBatchWriter(cfg.getBatchWriterConfig());
+    final AtomicBoolean reject = new AtomicBoolean(true);
+    GlobalInstances globals = new GlobalInstances(cfg, new MultiTableBatchWriter() {
+      @Override
+      public BatchWriter getBatchWriter(String table) throws AccumuloException,
+          AccumuloSecurityException, TableNotFoundException {
+        return mtbw.getBatchWriter(table);
+      }
+
+      @Override
+      public void flush() throws MutationsRejectedException {
+        if (reject.get()) {
+          throw new MutationsRejectedException(
+              Collections.<ConstraintViolationSummary>emptyList(),
+              new HashMap<KeyExtent, Set<SecurityErrorCode>>(),
+              Collections.<String>emptyList(), 1, null);
+        }
+        mtbw.flush();
+      }
+
+      @Override
+      public void close() throws MutationsRejectedException {
+        mtbw.close();
+      }
+
+      @Override
+      public boolean isClosed() {
+        return mtbw.isClosed();
+      }
+    }, null);
+
+    // Nobody waits on this update's group, which the
+    // background thread fails to flush.
+    ListenableFuture<Void> future = globals.flushAsync();
+    try {
+      future.get(10, TimeUnit.SECONDS);
+      fail("Flush should have failed");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof MutationsRejectedException);
+    }
+
+    // The failure is reported to the next caller, once.
+    try {
+      globals.checkedFlush();
+      fail("Background failure should be reported");
+    } catch (AccumuloGraphException e) {
+      assertTrue(e.getCause() instanceof MutationsRejectedException);
+    }
+    reject.set(false);
+    globals.checkedFlush();
+    globals.flushPending();
+    globals.close();
+  }
+}
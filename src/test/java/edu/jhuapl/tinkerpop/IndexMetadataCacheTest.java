@@ -0,0 +1,79 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Tests for caching of the index metadata.
+ */
+public class IndexMetadataCacheTest {
+
+  @Test
+  public void testLocalChanges() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("indexMetadataLocal")
+        .setIndexMetadataCacheTimeout(Integer.MAX_VALUE));
+    assertTrue(graph.getIndexedKeys(Vertex.class).isEmpty());
+
+    graph.createKeyIndex("name", Vertex.class);
+    graph.createKeyIndex("weight", Edge.class);
+    assertEquals(Sets.newHashSet("name"), graph.getIndexedKeys(Vertex.class));
+    assertEquals(Sets.newHashSet("weight"), graph.getIndexedKeys(Edge.class));
+
+    graph.addVertex("A").setProperty("name", "a");
+    assertEquals("A", graph.getVertices("name", "a").iterator().next().getId());
+
+    graph.dropKeyIndex("name", Vertex.class);
+    assertTrue(graph.getIndexedKeys(Vertex.class).isEmpty());
+
+    graph.createIndex("index", Vertex.class);
+    assertNotNull(graph.getIndex("index", Vertex.class));
+    graph.dropIndex("index");
+    assertNull(graph.getIndex("index", Vertex.class));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testOtherInstances() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("indexMetadataShared");
+    AccumuloGraph writer = new AccumuloGraph(cfg.clone());
+    AccumuloGraph cached = new AccumuloGraph(cfg.clone().setCreate(false)
+        .setIndexMetadataCacheTimeout(Integer.MAX_VALUE));
+    AccumuloGraph uncached = new AccumuloGraph(cfg.clone().setCreate(false)
+        .setIndexMetadataCacheTimeout(0));
+    assertTrue(cached.getIndexedKeys(Vertex.class).isEmpty());
+    assertTrue(uncached.getIndexedKeys(Vertex.class).isEmpty());
+
+    writer.createKeyIndex("name", Vertex.class);
+    writer.createIndex("index", Edge.class);
+    assertTrue(cached.getIndexedKeys(Vertex.class).isEmpty());
+    assertNull(cached.getIndex("index", Edge.class));
+    assertEquals(Sets.newHashSet("name"), uncached.getIndexedKeys(Vertex.class));
+    assertNotNull(uncached.getIndex("index", Edge.class));
+
+    writer.shutdown();
+    cached.shutdown();
+    uncached.shutdown();
+  }
+}
@@ -0,0 +1,169 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.mutator.Mutators;
+import edu.jhuapl.tinkerpop.mutator.index.IndexValueMutator;
+import edu.jhuapl.tinkerpop.tables.index.IndexMetadataTableWrapper;
+
+/**
+ * Tests for building and backfilling key indexes.
+ */
+public class KeyIndexBuilderTest {
+
+  @Test
+  public void testBuild() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("keyIndexBuilder").setAutoSplits(4);
+    AccumuloGraph graph = new AccumuloGraph(cfg.clone());
+    graph.createKeyIndex("name", Vertex.class);
+    graph.createKeyIndex("age", Vertex.class);
+    graph.createKeyIndex("weight", Edge.class);
+
+    for (int i = 0; i < 50; i++) {
+      Vertex v = graph.addVertex(Integer.toHexString(i * 5));
+      v.setProperty("name", "v" + i);
+      v.setProperty("age", i % 5);
+      v.setProperty("other", i);
+    }
+    graph.addEdge("E", graph.getVertex("0"), graph.getVertex("5"), "label")
+        .setProperty("weight", 1);
+
+    // Entries for missing elements are removed, and
+    // entries of other keys are left alone.
+    BatchWriter writer = cfg.getConnector().createBatchWriter(
+        cfg.getVertexKeyIndexTableName(), cfg.getBatchWriterConfig());
+    Mutators.apply(writer, new IndexValueMutator.Add(
+        new AccumuloVertex(graph.getGlobals(), "X"), "name", "v1",
+        cfg.getValueEncoding()));
+    Mutators.apply(writer, new IndexValueMutator.Add(
+        new AccumuloVertex(graph.getGlobals(), "X"), "other", "x",
+        cfg.getValueEncoding()));
+    writer.close();
+    assertEquals(2, Iterables.size(graph.getVertices("name", "v1")));
+
+    KeyIndexBuilder builder = new KeyIndexBuilder(graph);
+    builder.build();
+
+    assertEquals(1, Iterables.size(graph.getVertices("name", "v1")));
+    assertEquals("5", graph.getVertices("name", "v1").iterator().next().getId());
+    assertEquals(10, Iterables.size(graph.getVertices("age", 3)));
+    assertEquals("E", graph.getEdges("weight", 1).iterator().next().getId());
+
+    graph.createKeyIndex("other", Vertex.class);
+    graph.dropKeyIndex("age", Vertex.class);
+    builder.build(Vertex.class, Collections.singleton("other"));
+    assertEquals("a", graph.getVertices("other", 2).iterator().next().getId());
+    assertFalse(graph.getVertices("other", "x").iterator().hasNext());
+    assertEquals(1, Iterables.size(graph.getVertices("name", "v1")));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testBackfill() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("keyIndexBackfill").setAutoSplits(8));
+    for (int i = 0; i < 100; i++) {
+      graph.addVertex(Integer.toHexString(i * 2)).setProperty("name", "v" + (i % 10));
+    }
+    graph.addVertex("X");
+
+    KeyIndexBuilder builder = new KeyIndexBuilder(graph);
+    graph.getGlobals().getIndexMetadataWrapper()
+        .writeKeyMetadataEntry("name", Vertex.class);
+    builder.backfill("name", Vertex.class);
+    assertEquals(1.0, builder.getProgress(), 0);
+    assertEquals(100, builder.getIndexedCount());
+    assertEquals(10, Iterables.size(graph.getVertices("name", "v3")));
+
+    // Finished builds leave no progress behind.
+    assertNull(graph.getGlobals().getIndexMetadataWrapper()
+        .getBuiltRanges("name", Vertex.class));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testResume() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("keyIndexResume"));
+    for (int i = 0; i < 10; i++) {
+      graph.addVertex("V" + i).setProperty("name", "v" + i);
+    }
+
+    // Simulate a build interrupted after indexing
+    // the first half of the vertices.
+    IndexMetadataTableWrapper metadata = graph.getGlobals().getIndexMetadataWrapper();
+    metadata.writeBuildStarted("name", Vertex.class);
+    metadata.writeBuiltRange("name", Vertex.class, new Range(null, "V4"));
+    graph.getGlobals().flush();
+    assertEquals(Arrays.asList(new Range(null, "V4")),
+        metadata.getBuiltRanges("name", Vertex.class));
+
+    graph.createKeyIndex("name", Vertex.class);
+    assertFalse(graph.getVertices("name", "v3").iterator().hasNext());
+    assertEquals("V5", graph.getVertices("name", "v5").iterator().next().getId());
+    assertNull(metadata.getBuiltRanges("name", Vertex.class));
+
+    // Dropping the index also drops an unfinished build.
+    metadata.writeBuildStarted("name", Vertex.class);
+    graph.getGlobals().flush();
+    graph.dropKeyIndex("name", Vertex.class);
+    assertNull(metadata.getBuiltRanges("name", Vertex.class));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testRemainingRanges() {
+    List<Range> tablets = Arrays.asList(new Range(null, false, "m", true),
+        new Range("m", false, null, true));
+
+    assertEquals(tablets, KeyIndexBuilder.getRemainingRanges(tablets,
+        Collections.<Range>emptyList()));
+    assertEquals(Collections.emptyList(), KeyIndexBuilder.getRemainingRanges(
+        tablets, Arrays.asList(new Range())));
+    assertEquals(Collections.emptyList(), KeyIndexBuilder.getRemainingRanges(
+        tablets, tablets));
+
+    List<Range> remaining = KeyIndexBuilder.getRemainingRanges(tablets,
+        Arrays.asList(new Range(null, false, "m", true),
+            new Range("p", false, "s", true)));
+    assertEquals(2, remaining.size());
+    assertTrue(remaining.get(0).contains(new Key("n")));
+    assertTrue(remaining.get(0).contains(new Key("p")));
+    assertFalse(remaining.get(0).contains(new Key("m")));
+    assertFalse(remaining.get(0).contains(new Key("q")));
+    assertTrue(remaining.get(1).contains(new Key("t")));
+    assertFalse(remaining.get(1).contains(new Key("s")));
+  }
+}
@@ -0,0 +1,116 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Iterables;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.InstanceType;
+
+/**
+ * Tests for the mini cluster instance type.
+ * <p/>The mini cluster starts its processes with JVM options
+ * which Java 9 and later reject, so this only runs on older
+ * versions unless <tt>JAVA_TOOL_OPTIONS</tt> includes
+ * <tt>-XX:+IgnoreUnrecognizedVMOptions</tt>.
+ */
+public class MiniInstanceTest {
+
+  @Before
+  public void checkJvm() {
+    String options = System.getenv("JAVA_TOOL_OPTIONS");
+    assumeTrue(System.getProperty("java.version").startsWith("1.") ||
+        (options != null && options.contains("IgnoreUnrecognizedVMOptions")));
+  }
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testMiniCluster() throws Exception {
+    File dir = new File(folder.getRoot(), "mini");
+    AccumuloGraphConfiguration cfg = new AccumuloGraphConfiguration()
+        .setInstanceType(InstanceType.Mini).setGraphName("mini")
+        .setMiniClusterTempDir(dir)
+        .setMiniClusterTabletServers(1)
+        .setMiniClusterMemory(20L * 1024 * 1024)
+        .setMiniClusterDeployIterators(true);
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+
+    Vertex a = graph.addVertex("A");
+    a.setProperty("name", "a");
+    Vertex b = graph.addVertex("B");
+    b.setProperty("name", "b");
+    graph.addEdge("E", a, b, "knows");
+
+    assertEquals("a", graph.getVertex("A").getProperty("name"));
+    assertEquals("E", Iterables.getOnlyElement(
+        graph.getVertex("A").getEdges(Direction.OUT, "knows")).getId());
+
+    // Filtered on the tablet servers.
+    assertEquals("B", Iterables.getOnlyElement(
+        graph.query().has("name", "b").vertices()).getId());
+
+    assertTrue(new File(dir, "lib/accumulo-graph.jar").isFile());
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testBulkIngest() throws Exception {
+    File dir = new File(folder.getRoot(), "miniIngest");
+    AccumuloGraphConfiguration cfg = new AccumuloGraphConfiguration()
+        .setInstanceType(InstanceType.Mini).setGraphName("miniIngest")
+        .setMiniClusterTempDir(dir)
+        .setMiniClusterTabletServers(1)
+        .setMiniClusterMemory(20L * 1024 * 1024);
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    graph.createKeyIndex("name", Vertex.class);
+
+    // The ingester and the graph it opens to rebuild key
+    // indexes use the running cluster, and leave it running.
+    AccumuloBulkIngester ingester = new AccumuloBulkIngester(cfg.clone()
+        .setCreate(false));
+    ingester.addVertex("A").add("name", "a").finish();
+    ingester.addVertex("B").add("name", "b").finish();
+    ingester.addEdge("E", "A", "B", "knows").finish();
+    ingester.shutdown(false);
+
+    assertEquals("B", Iterables.getOnlyElement(
+        graph.getVertices("name", "b")).getId());
+    assertEquals("E", Iterables.getOnlyElement(
+        graph.getVertex("A").getEdges(Direction.OUT, "knows")).getId());
+
+    // Copies share the cluster, which the graph's own
+    // configuration stops.
+    AccumuloGraphConfiguration copy = cfg.clone();
+    assertSame(cfg.getConnector(), copy.getConnector());
+    copy.stopMiniCluster();
+    assertTrue(cfg.getConnector().tableOperations().exists(cfg.getVertexTableName()));
+
+    graph.shutdown();
+  }
+}
@@ -0,0 +1,75 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Tests for caching the ids of missing elements.
+ */
+public class MissingCacheTest {
+
+  @Test
+  public void testMissingElements() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("missingCache");
+    AccumuloGraph graph = new AccumuloGraph(cfg.clone()
+        .setMissingCacheParams(100, 1000));
+    AccumuloGraph other = new AccumuloGraph(cfg.clone().setCreate(false));
+
+    assertNull(graph.getVertex("A"));
+    assertNull(graph.getEdge("E"));
+
+    // Changes by other instances are not seen until expiry.
+    Vertex a = other.addVertex("A");
+    other.addEdge("E", a, a, "label");
+    assertNull(graph.getVertex("A"));
+    assertNull(graph.getEdge("E"));
+    Thread.sleep(1500);
+    assertNotNull(graph.getVertex("A"));
+    assertNotNull(graph.getEdge("E"));
+
+    // Changes by this instance are seen immediately.
+    assertNull(graph.getVertex("B"));
+    assertNull(graph.getEdge("F"));
+    Vertex b = graph.addVertex("B");
+    graph.addEdge("F", b, b, "label");
+    assertNotNull(graph.getVertex("B"));
+    assertNotNull(graph.getEdge("F"));
+
+    graph.shutdown();
+    other.shutdown();
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("missingCacheDisabled");
+    assertFalse(cfg.getMissingCacheEnabled());
+    AccumuloGraph graph = new AccumuloGraph(cfg.clone());
+    AccumuloGraph other = new AccumuloGraph(cfg.clone().setCreate(false));
+
+    assertNull(graph.getVertex("A"));
+    other.addVertex("A");
+    assertNotNull(graph.getVertex("A"));
+
+    graph.shutdown();
+    other.shutdown();
+  }
+}
@@ -0,0 +1,109 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+import com.tinkerpop.blueprints.CloseableIterable;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Tests for {@link AccumuloGraph#getVertices(java.util.Collection)}
+ * and {@link AccumuloGraph#getEdges(java.util.Collection)}.
+ */
+public class MultiGetTest {
+
+  @Test
+  public void testGetVertices() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("multiGetVertices"));
+    for (int i = 0; i < 10; i++) {
+      graph.addVertex("V" + i).setProperty("num", i);
+    }
+
+    CloseableIterable<Vertex> iter = graph.getVertices(Arrays.asList(
+        "V1", "V3", "V3", "V5", "none"));
+    assertEquals(Sets.newHashSet("V1", "V3", "V5"), ids(iter));
+    iter.close();
+
+    iter = graph.getVertices(Arrays.<Object>asList());
+    assertEquals(Sets.newHashSet(), ids(iter));
+    iter.close();
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testGetVerticesPreloaded() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("multiGetPreloaded")
+        .setPropertyCacheTimeout(null, 100000)
+        .setPreloadedProperties(new String[] {"name"})
+        .setVertexCacheParams(100, 100000);
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    graph.addVertex("A").setProperty("name", "alpha");
+    graph.addVertex("B").setProperty("name", "beta");
+    graph.getGlobals().getCaches().clear(Vertex.class);
+
+    CloseableIterable<Vertex> iter = graph.getVertices(Arrays.asList("A", "B"));
+    for (Vertex v : iter) {
+      AccumuloVertex av = (AccumuloVertex) v;
+      assertNotNull(av.getPropertyInMemory("name"));
+      assertSame(v, graph.getGlobals().getCaches().retrieve(v.getId(), Vertex.class));
+    }
+    iter.close();
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testGetEdges() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("multiGetEdges"));
+    Vertex a = graph.addVertex("A");
+    Vertex b = graph.addVertex("B");
+    graph.addEdge("E1", a, b, "knows");
+    graph.addEdge("E2", b, a, "likes");
+
+    CloseableIterable<Edge> iter = graph.getEdges(Arrays.asList("E1", "E2", "E3"));
+    Set<String> labels = new HashSet<String>();
+    for (Edge e : iter) {
+      labels.add(e.getLabel());
+      assertNotNull(e.getVertex(Direction.IN));
+    }
+    iter.close();
+    assertEquals(Sets.newHashSet("knows", "likes"), labels);
+
+    graph.shutdown();
+  }
+
+  private static Set<Object> ids(Iterable<? extends Element> elements) {
+    Set<Object> ids = new HashSet<Object>();
+    for (Element e : elements) {
+      ids.add(e.getId());
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,103 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+
+public class ParallelBulkIngesterTest {
+
+  @Test
+  public void testParallelIngest() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("parallelIngest");
+    AccumuloGraph graph = new AccumuloGraph(cfg.clone());
+    graph.createKeyIndex("name", Vertex.class);
+    graph.shutdown();
+
+    final ParallelBulkIngester ingester = new ParallelBulkIngester(
+        cfg.clone().setCreate(false), 4);
+
+    // Add from several threads at once.
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int t = 0; t < 4; t++) {
+      final int offset = t * 100;
+      threads.add(new Thread() {
+        @Override
+        public void run() {
+          for (int i = offset; i < offset + 100; i++) {
+            Map<String, Object> props = new HashMap<String, Object>();
+            props.put("name", "v" + i);
+            props.put("number", i);
+            ingester.addVertex("V" + i, props);
+          }
+        }
+      });
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    for (int i = 1; i < 400; i++) {
+      ingester.addEdge("E" + i, "V0", "V" + i, "label",
+          i == 1 ? new HashMap<String, Object>() : null);
+    }
+    ingester.addEdgeProperty("E1", "weight", 2);
+    ingester.addVertexProperty("V0", "extra", "x");
+    ingester.shutdown(false);
+
+    assertEquals(400 + 399 + 2, ingester.getWrittenCount());
+    assertEquals(0, ingester.getQueuedCount());
+    assertTrue(ingester.getThroughput() > 0);
+
+    graph = new AccumuloGraph(cfg.clone().setCreate(false));
+    assertEquals(400, Iterables.size(graph.getVertices()));
+    Vertex v = graph.getVertex("V10");
+    assertEquals("v10", v.getProperty("name"));
+    assertEquals(10, v.getProperty("number"));
+    assertEquals("x", graph.getVertex("V0").getProperty("extra"));
+
+    assertEquals(399, Iterables.size(graph.getVertex("V0").getEdges(Direction.OUT)));
+    Edge e = graph.getEdge("E1");
+    assertEquals("label", e.getLabel());
+    assertEquals(2, e.getProperty("weight"));
+    assertEquals("V1", e.getVertex(Direction.IN).getId());
+
+    // Key indexes are rebuilt.
+    assertEquals("V20", graph.getVertices("name", "v20").iterator().next().getId());
+    graph.shutdown();
+
+    try {
+      ingester.addVertex("X", null);
+      fail();
+    } catch (IllegalStateException e1) {
+      // Expected.
+    }
+  }
+}
@@ -16,6 +16,13 @@ package edu.jhuapl.tinkerpop;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Test;
 
 import edu.jhuapl.tinkerpop.cache.PropertyCache;
@@ -84,4 +91,43 @@ public class PropertyCacheTest {
     Thread.sleep(1000);
     assertNull(cache.get("longer"));
   }
+
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    AccumuloGraphConfiguration cfg =
+        AccumuloGraphTestUtils.generateGraphConfig("concurrentCached");
+    cfg.setPropertyCacheTimeout(null, 60000);
+
+    final PropertyCache cache = new PropertyCache(cfg);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    List<Future<Void>> futures = new ArrayList<Future<Void>>();
+    for (int t = 0; t < 8; t++) {
+      final String prefix = "T" + t + "_";
+      futures.add(pool.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          for (int i = 0; i < 10000; i++) {
+            String key = prefix + (i % 100);
+            cache.put(key, i);
+            assertEquals(i, cache.get(key));
+            cache.get("shared");
+            cache.put("shared", i);
+            if (i % 10 == 0) {
+              cache.remove(key);
+              assertNull(cache.get(key));
+            }
+            cache.keySet().size();
+          }
+          return null;
+        }
+      }));
+    }
+    for (Future<Void> future : futures) {
+      future.get();
+    }
+    pool.shutdown();
+
+    assertNotNull(cache.get("shared"));
+    assertEquals(8 * 90 + 1, cache.keySet().size());
+  }
 }
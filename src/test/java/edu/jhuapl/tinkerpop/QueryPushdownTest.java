@@ -0,0 +1,126 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+import static edu.jhuapl.tinkerpop.AccumuloGraphTestUtils.ids;
+
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+import com.tinkerpop.blueprints.Compare;
+import com.tinkerpop.blueprints.Contains;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Tests for {@link AccumuloGraphQuery} and {@link AccumuloVertexQuery}.
+ */
+public class QueryPushdownTest {
+
+  @Test
+  public void testGraphQuery() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("graphQueryPushdown"));
+    for (int i = 0; i < 10; i++) {
+      Vertex v = graph.addVertex("V" + i);
+      v.setProperty("num", i);
+      if (i % 3 == 0) {
+        v.setProperty("three", true);
+      }
+    }
+
+    assertEquals(Sets.newHashSet("V3"),
+        ids(graph.query().has("num", 3).vertices()));
+    assertEquals(Sets.newHashSet("V0", "V3", "V6", "V9"),
+        ids(graph.query().has("three").vertices()));
+    assertEquals(Sets.newHashSet("V1", "V2", "V4", "V5", "V7", "V8"),
+        ids(graph.query().hasNot("three").vertices()));
+    assertEquals(Sets.newHashSet("V6", "V9"),
+        ids(graph.query().has("three", true)
+            .has("num", Compare.GREATER_THAN, 4).vertices()));
+    assertEquals(Sets.newHashSet("V2", "V4", "V5"),
+        ids(graph.query().interval("num", 2, 6).hasNot("num", 3)
+            .hasNot("three").vertices()));
+    assertEquals(Sets.newHashSet("V1", "V8"),
+        ids(graph.query().has("num", Contains.IN, Sets.newHashSet(1, 8, 20))
+            .vertices()));
+    assertEquals(Sets.newHashSet("V4"),
+        ids(graph.query().has("id", "V4").vertices()));
+    assertEquals(3, ids(graph.query().has("num", Compare.LESS_THAN, 9)
+        .limit(3).vertices()).size());
+    assertEquals(Sets.newHashSet(),
+        ids(graph.query().has("num", "1").vertices()));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testEdgeGraphQuery() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("edgeQueryPushdown"));
+    Vertex a = graph.addVertex("A");
+    Vertex b = graph.addVertex("B");
+    for (int i = 0; i < 6; i++) {
+      graph.addEdge("E" + i, a, b, i % 2 == 0 ? "even" : "odd")
+          .setProperty("weight", i);
+    }
+
+    assertEquals(Sets.newHashSet("E0", "E2", "E4"),
+        ids(graph.query().has("label", "even").edges()));
+    assertEquals(Sets.newHashSet("E3", "E5"),
+        ids(graph.query().has("label", "odd")
+            .has("weight", Compare.GREATER_THAN, 1).edges()));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testVertexQuery() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("vertexQueryPushdown"));
+    Vertex center = graph.addVertex("C");
+    for (int i = 0; i < 6; i++) {
+      Vertex other = graph.addVertex("V" + i);
+      Edge out = graph.addEdge("OUT" + i, center, other, i % 2 == 0 ? "a" : "b");
+      out.setProperty("weight", i);
+      graph.addEdge("IN" + i, other, center, "a").setProperty("weight", i);
+    }
+
+    assertEquals(12, center.query().count());
+    assertEquals(6, center.query().direction(Direction.OUT).count());
+    assertEquals(Sets.newHashSet("OUT0", "OUT2", "OUT4"),
+        ids(center.query().direction(Direction.OUT).labels("a").edges()));
+    assertEquals(Sets.newHashSet("OUT4", "OUT5", "IN4", "IN5"),
+        ids(center.query().has("weight", Compare.GREATER_THAN_EQUAL, 4).edges()));
+    assertEquals(Sets.newHashSet("IN1"),
+        ids(center.query().direction(Direction.IN).has("weight", 1).edges()));
+    assertEquals(Sets.newHashSet("V4"),
+        ids(center.query().direction(Direction.OUT).labels("a")
+            .interval("weight", 3, 5).vertices()));
+    assertEquals(Sets.newHashSet("V2", "V3"),
+        ids(center.query().direction(Direction.IN)
+            .interval("weight", 2, 4).vertices()));
+    assertEquals(Sets.newHashSet("V1", "V3"),
+        ids(center.query().direction(Direction.BOTH).labels("b")
+            .has("weight", Compare.LESS_THAN, 5).vertices()));
+    assertEquals(2, ids(center.query().direction(Direction.OUT)
+        .has("weight", Compare.GREATER_THAN, 0).limit(2).edges()).size());
+    assertEquals(0, center.query().has("weight", 100).count());
+
+    graph.shutdown();
+  }
+}
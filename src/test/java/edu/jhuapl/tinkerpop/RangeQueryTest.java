@@ -0,0 +1,207 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+import static edu.jhuapl.tinkerpop.AccumuloGraphTestUtils.ids;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.accumulo.core.client.BatchDeleter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.data.Range;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+import com.tinkerpop.blueprints.Compare;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Index;
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.ValueEncoding;
+
+/**
+ * Tests for range and prefix lookups.
+ */
+public class RangeQueryTest {
+
+  @Test
+  public void testVertexRanges() throws Exception {
+    for (boolean indexed : new boolean[] {true, false}) {
+      AccumuloGraph graph = makeGraph("vertexRanges" + indexed, indexed);
+      for (int i = -5; i < 15; i++) {
+        Vertex v = graph.addVertex("V" + i);
+        v.setProperty("num", i);
+        v.setProperty("time", new Date(1000L * i));
+        v.setProperty("name", "name" + i);
+      }
+
+      // Index lookups are served directly from the scanner.
+      assertEquals(indexed, graph.getVertices("num", 0, 1) instanceof ScannerIterable);
+      assertEquals(Sets.newHashSet("V-2", "V-1", "V0", "V1"),
+          ids(graph.getVertices("num", -2, 2)));
+      assertEquals(Sets.newHashSet("V-1", "V0", "V1", "V2"),
+          ids(graph.getVertices("num", -2, false, 2, true)));
+      assertEquals(Sets.newHashSet("V12", "V13", "V14"),
+          ids(graph.getVertices("num", 11, false, null, false)));
+      assertEquals(Sets.newHashSet("V-5", "V-4"),
+          ids(graph.getVertices("num", null, false, -4, true)));
+      assertEquals(Sets.newHashSet("V9", "V10"),
+          ids(graph.getVertices("time", new Date(9000L), new Date(11000L))));
+      assertEquals(Sets.newHashSet("name1", "name10", "name11", "name12",
+          "name13", "name14"), names(graph.getVerticesWithPrefix("name", "name1")));
+      graph.shutdown();
+    }
+  }
+
+  @Test
+  public void testEdgeRanges() throws Exception {
+    for (boolean indexed : new boolean[] {true, false}) {
+      AccumuloGraph graph = makeGraph("edgeRanges" + indexed, indexed);
+      Vertex a = graph.addVertex("A");
+      Vertex b = graph.addVertex("B");
+      for (int i = 0; i < 10; i++) {
+        graph.addEdge("E" + i, a, b, "label").setProperty("weight", i * 0.5d);
+      }
+
+      assertEquals(Sets.newHashSet("E2", "E3", "E4"),
+          ids(graph.getEdges("weight", 1d, 2.5d)));
+      assertEquals(Sets.newHashSet("E9"),
+          ids(graph.getEdges("weight", 4d, false, null, false)));
+      graph.shutdown();
+    }
+  }
+
+  @Test
+  public void testQuery() throws Exception {
+    for (boolean indexed : new boolean[] {true, false}) {
+      AccumuloGraph graph = makeGraph("rangeQuery" + indexed, indexed);
+      for (int i = 0; i < 20; i++) {
+        Vertex v = graph.addVertex("V" + i);
+        v.setProperty("num", i);
+        v.setProperty("even", i % 2 == 0);
+      }
+
+      assertEquals(Sets.newHashSet("V16", "V17", "V18", "V19"),
+          ids(graph.query().has("num", Compare.GREATER_THAN, 15).vertices()));
+      assertEquals(Sets.newHashSet("V4", "V5", "V6"),
+          ids(graph.query().interval("num", 4, 7).vertices()));
+      assertEquals(Sets.newHashSet("V6", "V8"),
+          ids(graph.query().has("num", Compare.GREATER_THAN_EQUAL, 5)
+              .has("num", Compare.GREATER_THAN, 4)
+              .has("num", Compare.LESS_THAN_EQUAL, 8)
+              .has("even", true).vertices()));
+      assertEquals(2, ids(graph.query().has("num", Compare.LESS_THAN, 10)
+          .limit(2).vertices()).size());
+      graph.shutdown();
+    }
+  }
+
+  @Test
+  public void testIndexUsed() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("rangeIndexUsed").setValueEncoding(ValueEncoding.Binary);
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    graph.createKeyIndex("num", Vertex.class);
+    graph.createKeyIndex("weight", Edge.class);
+    Vertex a = graph.addVertex("A");
+    Vertex b = graph.addVertex("B");
+    for (int i = 0; i < 10; i++) {
+      graph.addVertex("V" + i).setProperty("num", i);
+      graph.addEdge("E" + i, a, b, "label").setProperty("weight", i * 0.5d);
+    }
+    assertEquals(3, ids(graph.getVertices("num", 2, 5)).size());
+    assertEquals(3, ids(graph.getEdges("weight", 1d, 2.5d)).size());
+
+    // With the key index entries gone, lookups that use
+    // the index find nothing, while a full scan would.
+    clearTable(cfg, cfg.getVertexKeyIndexTableName());
+    clearTable(cfg, cfg.getEdgeKeyIndexTableName());
+
+    assertEquals(0, ids(graph.getVertices("num", 2, 5)).size());
+    assertEquals(0, ids(graph.getEdges("weight", 1d, 2.5d)).size());
+    assertEquals(0, ids(graph.query().has("num", Compare.GREATER_THAN, 5)
+        .vertices()).size());
+    assertEquals(0, ids(graph.query().interval("num", 2, 5)
+        .has("num", Compare.LESS_THAN, 4).vertices()).size());
+    assertEquals(0, ids(graph.query().has("weight", Compare.LESS_THAN_EQUAL, 2d)
+        .edges()).size());
+    graph.shutdown();
+  }
+
+  @Test
+  public void testTextEncoding() throws Exception {
+    // Numbers are not ordered with the text encoding,
+    // so a full scan is used even if the key is indexed.
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("rangeTextEncoding"));
+    graph.createKeyIndex("num", Vertex.class);
+    for (int i = 0; i < 20; i++) {
+      graph.addVertex("V" + i).setProperty("num", i);
+    }
+
+    assertEquals(Sets.newHashSet("V8", "V9", "V10", "V11"),
+        ids(graph.getVertices("num", 8, 12)));
+    graph.shutdown();
+  }
+
+  @Test
+  public void testIndexPrefixQuery() throws Exception {
+    AccumuloGraph graph = makeGraph("indexPrefixQuery", false);
+    Index<Vertex> index = graph.createIndex("index", Vertex.class);
+    for (int i = 0; i < 5; i++) {
+      Vertex v = graph.addVertex("V" + i);
+      index.put("name", "prefix" + i, v);
+      index.put("name", "other" + i, v);
+    }
+
+    assertEquals(Sets.newHashSet("V0", "V1", "V2", "V3", "V4"),
+        ids(index.query("name", "prefix*")));
+    assertEquals(Sets.newHashSet("V3"), ids(index.query("name", "other3")));
+    graph.shutdown();
+  }
+
+  private static AccumuloGraph makeGraph(String name, boolean indexed) {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig(name).setValueEncoding(ValueEncoding.Binary));
+    if (indexed) {
+      for (String key : new String[] {"num", "time", "name"}) {
+        graph.createKeyIndex(key, Vertex.class);
+      }
+      graph.createKeyIndex("weight", Edge.class);
+    }
+    return graph;
+  }
+
+  private static void clearTable(AccumuloGraphConfiguration cfg,
+      String table) throws Exception {
+    BatchDeleter deleter = cfg.getConnector().createBatchDeleter(table,
+        cfg.getAuthorizations(), 1, new BatchWriterConfig());
+    deleter.setRanges(Collections.singleton(new Range()));
+    deleter.delete();
+    deleter.close();
+  }
+
+  private static Set<String> names(Iterable<Vertex> vertices) {
+    Set<String> names = new HashSet<String>();
+    for (Vertex v : vertices) {
+      names.add(v.<String>getProperty("name"));
+    }
+    return names;
+  }
+}
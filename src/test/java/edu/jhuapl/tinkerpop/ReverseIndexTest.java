@@ -0,0 +1,119 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Index;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Tests for removal of elements from named indexes
+ * through the reverse index table.
+ */
+public class ReverseIndexTest {
+
+  @Test
+  public void testRemoveElements() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("reverseIndexRemove"));
+    Index<Vertex> first = graph.createIndex("first", Vertex.class);
+    Index<Vertex> second = graph.createIndex("second", Vertex.class);
+    Index<Edge> edges = graph.createIndex("edges", Edge.class);
+
+    Vertex a = graph.addVertex("A");
+    Vertex b = graph.addVertex("B");
+    Edge edge = graph.addEdge("A", a, b, "label");
+    first.put("name", "a", a);
+    first.put("name", 1, a);
+    first.put("name", "b", b);
+    second.put("other", "a", a);
+    edges.put("name", "a", edge);
+    // Re-adding an entry right after removing it
+    // must still record it in the reverse index.
+    first.remove("name", 1, a);
+    first.put("name", 1, a);
+
+    // The edge has the same id as the vertex.
+    a.remove();
+    assertEquals(0, first.count("name", "a"));
+    assertEquals(0, first.count("name", 1));
+    assertEquals(0, second.count("other", "a"));
+    assertEquals(1, first.count("name", "b"));
+    assertEquals(0, edges.count("name", "a"));
+
+    Edge other = graph.addEdge("E", b, graph.addVertex("C"), "label");
+    edges.put("name", "e", other);
+    edges.put("name", "b", other);
+    graph.removeEdge(other);
+    assertEquals(0, edges.count("name", "e"));
+    assertEquals(0, edges.count("name", "b"));
+    assertEquals(1, first.count("name", "b"));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testDropIndex() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("reverseIndexDrop"));
+    Vertex a = graph.addVertex("A");
+    graph.createIndex("index", Vertex.class).put("name", "a", a);
+    graph.dropIndex("index");
+
+    Index<Vertex> index = graph.createIndex("index", Vertex.class);
+    index.put("name", "b", a);
+    a.remove();
+    assertEquals(0, index.count("name", "b"));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testCreateForExistingGraph() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("reverseIndexExisting");
+    AccumuloGraph graph = new AccumuloGraph(cfg.clone());
+    Vertex a = graph.addVertex("A");
+    graph.createIndex("index", Vertex.class).put("name", "a", a);
+    graph.shutdown();
+
+    // Simulate a graph written before the reverse index existed.
+    cfg.getConnector().tableOperations().delete(cfg.getReverseIndexTableName());
+
+    // Without permission to create tables, the graph
+    // is used without the reverse index.
+    graph = new AccumuloGraph(cfg.clone().setCreate(false));
+    assertFalse(cfg.getConnector().tableOperations()
+        .exists(cfg.getReverseIndexTableName()));
+    Vertex b = graph.addVertex("B");
+    graph.getIndex("index", Vertex.class).put("name", "b", b);
+    graph.removeVertex(b);
+    assertEquals(0, graph.getIndex("index", Vertex.class).count("name", "b"));
+    assertEquals(1, graph.getIndex("index", Vertex.class).count("name", "a"));
+    graph.shutdown();
+
+    graph = new AccumuloGraph(cfg.clone());
+    assertTrue(cfg.getConnector().tableOperations()
+        .exists(cfg.getReverseIndexTableName()));
+    graph.removeVertex(graph.getVertex("A"));
+    assertEquals(0, graph.getIndex("index", Vertex.class).count("name", "a"));
+
+    graph.shutdown();
+  }
+}
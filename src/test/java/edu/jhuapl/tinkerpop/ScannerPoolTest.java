@@ -0,0 +1,111 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.iterators.user.RegExFilter;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Index;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Tests for reuse of scanners and table wrappers.
+ */
+public class ScannerPoolTest {
+
+  @Test
+  public void testReuse() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("scannerPool");
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    graph.addVertex("A").setProperty("name", "a");
+    graph.addVertex("B").setProperty("name", "b");
+
+    String table = cfg.getVertexTableName();
+    ScannerPool pool = graph.getGlobals().getScannerPool();
+    int idle = pool.getIdleCount(table);
+
+    Scanner scanner = pool.getScanner(table);
+    assertEquals(Math.max(0, idle - 1), pool.getIdleCount(table));
+    scanner.setRange(Range.exact("A"));
+    scanner.fetchColumnFamily(new Text("name"));
+    IteratorSetting filter = new IteratorSetting(10, "filter", RegExFilter.class);
+    RegExFilter.setRegexs(filter, null, null, null, "nothing", false);
+    scanner.addScanIterator(filter);
+    assertEquals(0, Iterables.size(scanner));
+    scanner.close();
+    scanner.close();
+    assertEquals(Math.max(1, idle), pool.getIdleCount(table));
+
+    try {
+      scanner.iterator();
+      fail();
+    } catch (IllegalStateException e) { }
+
+    // A reused scanner starts with default settings.
+    Scanner reused = pool.getScanner(table);
+    assertEquals(new Range(), reused.getRange());
+    assertTrue(Iterables.size(reused) > 2);
+    reused.close();
+
+    assertEquals("a", graph.getVertex("A").getProperty("name"));
+    graph.shutdown();
+  }
+
+  @Test
+  public void testDroppedTables() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("scannerPoolDropped"));
+    graph.addVertex("A").setProperty("name", "a");
+    assertNotNull(graph.getVertex("A"));
+
+    // Pooled scanners must not read the deleted tables.
+    graph.clear();
+    assertNull(graph.getVertex("A"));
+    graph.addVertex("A").setProperty("name", "b");
+    assertEquals("b", graph.getVertex("A").getProperty("name"));
+
+    Index<Vertex> index = graph.createIndex("index", Vertex.class);
+    index.put("name", "a", graph.getVertex("A"));
+    assertEquals(1, Iterables.size(index.get("name", "a")));
+    graph.dropIndex("index");
+    index = graph.createIndex("index", Vertex.class);
+    assertEquals(0, Iterables.size(index.get("name", "a")));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testSharedWrappers() throws Exception {
+    AccumuloGraph graph = new AccumuloGraph(AccumuloGraphTestUtils
+        .generateGraphConfig("sharedWrappers"));
+    GlobalInstances globals = graph.getGlobals();
+    assertSame(globals.getVertexWrapper(), globals.getVertexWrapper());
+    assertSame(globals.getEdgeWrapper(), globals.getElementWrapper(
+        Edge.class));
+    assertSame(globals.getVertexKeyIndexWrapper(),
+        globals.getKeyIndexTableWrapper(Vertex.class));
+    assertSame(globals.getIndexMetadataWrapper(), globals.getIndexMetadataWrapper());
+    graph.shutdown();
+  }
+}
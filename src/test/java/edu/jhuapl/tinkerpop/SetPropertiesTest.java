@@ -0,0 +1,117 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Tests for setting many properties at once.
+ */
+public class SetPropertiesTest {
+
+  @Test
+  public void testAddWithProperties() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("addWithProperties");
+    AccumuloGraph graph = new AccumuloGraph(cfg.clone());
+    graph.createKeyIndex("name", Vertex.class);
+    graph.createKeyIndex("weight", Edge.class);
+
+    Map<String, Object> props = new HashMap<String, Object>();
+    props.put("name", "a");
+    props.put("age", 5);
+    Vertex a = graph.addVertex("A", props);
+    Vertex b = graph.addVertex(null, new HashMap<String, Object>());
+    Edge edge = graph.addEdge("E", a, b, "label",
+        Collections.<String, Object>singletonMap("weight", 2));
+    graph.shutdown();
+
+    graph = new AccumuloGraph(cfg.clone().setCreate(false));
+    a = graph.getVertex("A");
+    assertEquals("a", a.getProperty("name"));
+    assertEquals(5, a.getProperty("age"));
+    assertEquals(Sets.newHashSet("name", "age"), a.getPropertyKeys());
+    assertEquals("A", graph.getVertices("name", "a").iterator().next().getId());
+    assertEquals(2, graph.getEdge("E").getProperty("weight"));
+    assertEquals("label", graph.getEdge("E").getLabel());
+    assertEquals("E", graph.getEdges("weight", 2).iterator().next().getId());
+    assertEquals(edge, Iterables.getOnlyElement(graph.getVertex(b.getId())
+        .getEdges(Direction.IN)));
+
+    try {
+      graph.addVertex("B", Collections.<String, Object>singletonMap("id", 1));
+      fail();
+    } catch (IllegalArgumentException e) { }
+    assertNull(graph.getVertex("B"));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testSetProperties() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("setProperties");
+    AccumuloGraph graph = new AccumuloGraph(cfg.clone());
+    graph.createKeyIndex("name", Vertex.class);
+    graph.createKeyIndex("age", Vertex.class);
+
+    AccumuloVertex a = (AccumuloVertex) graph.addVertex("A");
+    a.setProperty("name", "a");
+    a.setProperty("age", 1);
+    graph.shutdown();
+
+    // Previous values are read from the table
+    // when not cached, and removed from the index.
+    graph = new AccumuloGraph(cfg.clone().setCreate(false));
+    a = (AccumuloVertex) graph.getVertex("A");
+    Map<String, Object> props = new HashMap<String, Object>();
+    props.put("name", "b");
+    props.put("age", 1);
+    props.put("other", "x");
+    a.setProperties(props);
+
+    assertEquals("b", a.getProperty("name"));
+    assertEquals("x", a.getProperty("other"));
+    assertFalse(graph.getVertices("name", "a").iterator().hasNext());
+    assertEquals("A", graph.getVertices("name", "b").iterator().next().getId());
+    assertEquals(1, Iterables.size(graph.getVertices("age", 1)));
+    graph.shutdown();
+
+    graph = new AccumuloGraph(cfg.clone().setCreate(false));
+    assertEquals("b", graph.getVertex("A").getProperty("name"));
+    assertEquals("x", graph.getVertex("A").getProperty("other"));
+
+    // Cached previous values are used too.
+    a = (AccumuloVertex) graph.getVertex("A");
+    a.getProperty("name");
+    a.setProperties(Collections.<String, Object>singletonMap("name", "c"));
+    assertFalse(graph.getVertices("name", "b").iterator().hasNext());
+    assertEquals("A", graph.getVertices("name", "c").iterator().next().getId());
+
+    graph.shutdown();
+  }
+}
@@ -0,0 +1,144 @@
+/* Copyright 2014 The Johns Hopkins University Applied Physics Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.jhuapl.tinkerpop;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.accumulo.core.client.admin.TableOperations;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+
+import edu.jhuapl.tinkerpop.AccumuloGraphConfiguration.TableType;
+
+/**
+ * Tests for the configured table settings.
+ */
+public class TableProfileTest {
+
+  @Test
+  public void testCreate() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("tableProfileCreate")
+        .setTableBloomFilter(true).setTableBlockCache(true)
+        .setTableCompression("none").setTableLocalityGroups(true)
+        .setTableMaxVersions(2);
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    graph.createIndex("index", Vertex.class);
+    TableOperations tableOps = cfg.getConnector().tableOperations();
+
+    for (String table : new String[] {cfg.getVertexTableName(),
+        cfg.getEdgeTableName(), cfg.getVertexKeyIndexTableName(),
+        cfg.getNamedIndexTableName("index"), cfg.getReverseIndexTableName()}) {
+      Map<String, String> props = getProperties(tableOps, table);
+      assertEquals("true", props.get(Property.TABLE_BLOOM_ENABLED.getKey()));
+      assertEquals("true", props.get(Property.TABLE_BLOCKCACHE_ENABLED.getKey()));
+      assertEquals("none", props.get(Property.TABLE_FILE_COMPRESSION_TYPE.getKey()));
+      assertEquals("2", props.get("table.iterator.scan.vers.opt.maxVersions"));
+    }
+    assertFalse("true".equals(getProperties(tableOps, cfg.getIndexMetadataTableName())
+        .get(Property.TABLE_BLOOM_ENABLED.getKey())));
+
+    Map<String, Set<Text>> groups = tableOps.getLocalityGroups(cfg.getVertexTableName());
+    assertEquals(Sets.newHashSet(new Text(Constants.IN_EDGE),
+        new Text(Constants.OUT_EDGE)), groups.get("adjacency"));
+    assertTrue(tableOps.getLocalityGroups(cfg.getEdgeTableName()).isEmpty());
+
+    // The graph still works with the settings applied.
+    Vertex a = graph.addVertex("A");
+    a.setProperty("name", "a");
+    graph.addEdge("E", a, a, "label");
+    assertEquals("a", graph.getVertex("A").getProperty("name"));
+    assertTrue(a.getEdges(Direction.OUT).iterator().hasNext());
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testPerTableType() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("tableProfilePerType")
+        .setTableCompression("gz").setTableMaxVersions(2)
+        .setTableBloomFilter(TableType.Vertex, true)
+        .setTableBloomFilter(TableType.Metadata, true)
+        .setTableBlockCache(TableType.KeyIndex, true)
+        .setTableCompression(TableType.NamedIndex, "none")
+        .setTableMaxVersions(TableType.Edge, 3);
+    AccumuloGraph graph = new AccumuloGraph(cfg);
+    graph.createIndex("index", Vertex.class);
+    TableOperations tableOps = cfg.getConnector().tableOperations();
+
+    Map<String, String> vertexProps = getProperties(tableOps, cfg.getVertexTableName());
+    assertEquals("true", vertexProps.get(Property.TABLE_BLOOM_ENABLED.getKey()));
+    assertEquals("gz", vertexProps.get(Property.TABLE_FILE_COMPRESSION_TYPE.getKey()));
+    assertEquals("2", vertexProps.get("table.iterator.scan.vers.opt.maxVersions"));
+    assertFalse("true".equals(vertexProps.get(Property.TABLE_BLOCKCACHE_ENABLED.getKey())));
+
+    Map<String, String> edgeProps = getProperties(tableOps, cfg.getEdgeTableName());
+    assertFalse("true".equals(edgeProps.get(Property.TABLE_BLOOM_ENABLED.getKey())));
+    assertEquals("3", edgeProps.get("table.iterator.scan.vers.opt.maxVersions"));
+
+    Map<String, String> keyIndexProps = getProperties(tableOps, cfg.getVertexKeyIndexTableName());
+    assertEquals("true", keyIndexProps.get(Property.TABLE_BLOCKCACHE_ENABLED.getKey()));
+    assertEquals("gz", keyIndexProps.get(Property.TABLE_FILE_COMPRESSION_TYPE.getKey()));
+
+    assertEquals("none", getProperties(tableOps, cfg.getNamedIndexTableName("index"))
+        .get(Property.TABLE_FILE_COMPRESSION_TYPE.getKey()));
+    assertEquals("true", getProperties(tableOps, cfg.getIndexMetadataTableName())
+        .get(Property.TABLE_BLOOM_ENABLED.getKey()));
+
+    graph.shutdown();
+  }
+
+  @Test
+  public void testApplyToExisting() throws Exception {
+    AccumuloGraphConfiguration cfg = AccumuloGraphTestUtils
+        .generateGraphConfig("tableProfileExisting");
+    AccumuloGraph graph = new AccumuloGraph(cfg.clone());
+    graph.createIndex("index", Vertex.class);
+    graph.shutdown();
+
+    TableOperations tableOps = cfg.getConnector().tableOperations();
+    assertFalse("none".equals(getProperties(tableOps, cfg.getVertexTableName())
+        .get(Property.TABLE_FILE_COMPRESSION_TYPE.getKey())));
+
+    graph = new AccumuloGraph(cfg.clone().setCreate(false)
+        .setTableCompression("none"));
+    graph.applyTableProfile();
+    assertEquals("none", getProperties(tableOps, cfg.getVertexTableName())
+        .get(Property.TABLE_FILE_COMPRESSION_TYPE.getKey()));
+    assertEquals("none", getProperties(tableOps, cfg.getNamedIndexTableName("index"))
+        .get(Property.TABLE_FILE_COMPRESSION_TYPE.getKey()));
+    graph.shutdown();
+  }
+
+  private static Map<String, String> getProperties(TableOperations tableOps,
+      String table) throws Exception {
+    Map<String, String> props = new HashMap<String, String>();
+    for (Entry<String, String> prop : tableOps.getProperties(table)) {
+      props.put(prop.getKey(), prop.getValue());
+    }
+    return props;
+  }
+}